@@ -22,6 +22,8 @@ module blackbox.test.inject {
 
   requires static io.avaje.spi;
 
+  opens org.example.myapp.batch to io.avaje.inject.aop;
+
   provides InjectExtension with org.example.myapp.CompiledOrder, ConfigPropertiesPlugin, org.example.myapp.MyappModule;
   provides MyServiceIface with MyServiceImpl;
 }
@@ -1,9 +1,13 @@
 package org.example.myapp;
 
+import io.avaje.inject.aop.AOPFallback;
 import jakarta.inject.Singleton;
 import org.example.myapp.aspect.MyAround;
+import org.example.myapp.aspect.MyAsync;
 import org.example.myapp.aspect.MyTimed;
 
+import java.util.concurrent.CompletableFuture;
+
 @Singleton
 class OtherService {
 
@@ -18,6 +22,27 @@ class OtherService {
     System.out.println("sdsd");
   }
 
+  @MyAround
+  @MyTimed(enabled = false)
+  public void timedDisabled() {
+    System.out.println("timed disabled");
+  }
+
+  @MyTimed(enabled = false)
+  public int allDisabled(int value) {
+    return value + 1;
+  }
+
+  @MyAsync
+  public CompletableFuture<String> async(CompletableFuture<String> pending) {
+    return pending;
+  }
+
+  @AOPFallback("async")
+  public CompletableFuture<String> asyncFallback(CompletableFuture<String> pending, Throwable e) {
+    return CompletableFuture.completedFuture("fallback " + e.getMessage());
+  }
+
   public void notAopWrapped() {
     System.out.println("just a normal method");
   }
@@ -0,0 +1,27 @@
+package org.example.myapp.aspect;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.AsyncMethodInterceptor;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+import jakarta.inject.Singleton;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+
+@Singleton
+public class MyAsyncAspect implements AspectProvider<MyAsync>, AsyncMethodInterceptor {
+
+  @Override
+  public MethodInterceptor interceptor(Method method, MyAsync aspectAnnotation) {
+    return this;
+  }
+
+  @Override
+  public CompletionStage<?> invokeAsync(Invocation.Async invocation) {
+    TraceAspect.add("MyAsyncAspect-begin");
+    return invocation.proceed()
+      .whenComplete((result, e) -> TraceAspect.add("MyAsyncAspect-complete " + result))
+      .exceptionally(e -> invocation.recover(e).toCompletableFuture().join());
+  }
+}
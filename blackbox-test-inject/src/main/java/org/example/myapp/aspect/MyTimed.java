@@ -13,4 +13,6 @@ import java.lang.annotation.Target;
 public @interface MyTimed {
 
   String name() default "";
+
+  boolean enabled() default true;
 }
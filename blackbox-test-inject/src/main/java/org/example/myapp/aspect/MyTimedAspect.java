@@ -12,7 +12,7 @@ public class MyTimedAspect implements AspectProvider<MyTimed>, MethodInterceptor
 
   @Override
   public MethodInterceptor interceptor(Method method, MyTimed aspectAnnotation) {
-    return this;
+    return aspectAnnotation == null || aspectAnnotation.enabled() ? this : MethodInterceptor.noop();
   }
 
   @Override
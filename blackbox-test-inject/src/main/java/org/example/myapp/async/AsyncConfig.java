@@ -0,0 +1,36 @@
+package org.example.myapp.async;
+
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+import io.avaje.inject.aop.async.ContextPropagator;
+import jakarta.inject.Named;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Factory
+public class AsyncConfig {
+
+  static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+  @Bean(destroyMethod = "shutdown")
+  @Named("io")
+  ExecutorService ioExecutor() {
+    return Executors.newFixedThreadPool(2, task -> new Thread(task, "io-worker"));
+  }
+
+  @Bean
+  ContextPropagator tenantPropagator() {
+    return task -> {
+      final String tenant = TENANT.get();
+      return () -> {
+        TENANT.set(tenant);
+        try {
+          task.run();
+        } finally {
+          TENANT.remove();
+        }
+      };
+    };
+  }
+}
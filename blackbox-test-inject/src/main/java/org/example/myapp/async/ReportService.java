@@ -0,0 +1,32 @@
+package org.example.myapp.async;
+
+import io.avaje.inject.aop.async.Async;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+@Singleton
+public class ReportService {
+
+  final CountDownLatch notified = new CountDownLatch(1);
+  volatile String notifiedOn;
+
+  @Async
+  public void notifyReady(String name) {
+    notifiedOn = Thread.currentThread().getName() + " " + name;
+    notified.countDown();
+  }
+
+  @Async("io")
+  public CompletionStage<String> report(long id) {
+    return CompletableFuture.completedFuture("report " + id + " " + AsyncConfig.TENANT.get() + " " + Thread.currentThread().getName());
+  }
+
+  @Async("io")
+  public Future<String> archive(long id) {
+    return CompletableFuture.completedFuture("archived " + id);
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.myapp.batch;
+
+import io.avaje.inject.aop.batch.Batched;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Singleton
+public class CustomerService {
+
+  final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+  @Batched(by = "findAllByIds", maxBatch = 200, maxDelayMicros = 50_000)
+  public String findById(long id) {
+    throw new UnsupportedOperationException();
+  }
+
+  public Map<Long, String> findAllByIds(List<Long> ids) {
+    batches.add(ids);
+    return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "customer-" + id));
+  }
+}
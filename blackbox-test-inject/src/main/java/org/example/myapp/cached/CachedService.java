@@ -0,0 +1,30 @@
+package org.example.myapp.cached;
+
+import io.avaje.inject.aop.cache.Cached;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Singleton
+public class CachedService {
+
+  final AtomicInteger loads = new AtomicInteger();
+
+  @Cached(maxSize = 100)
+  public String greeting(String name, int times) {
+    return "hi " + name + " " + times + " " + loads.incrementAndGet();
+  }
+
+  @Cached
+  public long count(long value) {
+    loads.incrementAndGet();
+    return value * 2;
+  }
+
+  @Cached
+  public CompletableFuture<String> lookup(String key) {
+    loads.incrementAndGet();
+    return CompletableFuture.completedFuture("value-" + key);
+  }
+}
@@ -0,0 +1,25 @@
+package org.example.myapp.limit;
+
+import io.avaje.inject.aop.AOPFallback;
+import io.avaje.inject.aop.limit.ConcurrencyLimit;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Singleton
+public class QuoteService {
+
+  final CountDownLatch release = new CountDownLatch(1);
+
+  @ConcurrencyLimit(initialLimit = 1, maxLimit = 1)
+  public String quote(String symbol) throws InterruptedException {
+    release.await(5, TimeUnit.SECONDS);
+    return "quote " + symbol;
+  }
+
+  @AOPFallback("quote")
+  public String quoteFallback(String symbol, Throwable e) {
+    return "fallback " + symbol;
+  }
+}
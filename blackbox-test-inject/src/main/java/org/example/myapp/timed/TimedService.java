@@ -0,0 +1,20 @@
+package org.example.myapp.timed;
+
+import io.avaje.inject.aop.timed.Timed;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+
+@Singleton
+public class TimedService {
+
+  @Timed
+  public int compute(int value) {
+    return value * 2;
+  }
+
+  @Timed(name = "timed.async")
+  public CompletableFuture<String> computeAsync(String value) {
+    return CompletableFuture.completedFuture(value);
+  }
+}
@@ -5,6 +5,7 @@ import org.example.myapp.aspect.TraceAspect;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,4 +26,38 @@ class OtherServiceProxyTest {
     List<String> trace = TraceAspect.obtain();
     assertThat(trace).containsExactly("MyTimedAspect-begin", "MyAroundAspect-begin", "MyAroundAspect-end", "MyTimedAspect-end");
   }
+
+  @Test
+  void noopInterceptorSkipped() {
+    BeanScope beanScope = BeanScope.builder().build();
+    OtherService otherService = beanScope.get(OtherService.class);
+
+    TraceAspect.clear();
+    otherService.timedDisabled();
+    assertThat(TraceAspect.obtain()).containsExactly("MyAroundAspect-begin", "MyAroundAspect-end");
+
+    TraceAspect.clear();
+    assertThat(otherService.allDisabled(41)).isEqualTo(42);
+    assertThat(TraceAspect.obtain()).isEmpty();
+  }
+
+  @Test
+  void asyncInterceptor() {
+    BeanScope beanScope = BeanScope.builder().build();
+    OtherService otherService = beanScope.get(OtherService.class);
+
+    TraceAspect.clear();
+    var pending = new CompletableFuture<String>();
+    var result = otherService.async(pending);
+    assertThat(TraceAspect.obtain()).containsExactly("MyAsyncAspect-begin");
+
+    pending.complete("done");
+    assertThat(result.join()).isEqualTo("done");
+    assertThat(TraceAspect.obtain()).containsExactly("MyAsyncAspect-complete done");
+
+    var failed = new CompletableFuture<String>();
+    result = otherService.async(failed);
+    failed.completeExceptionally(new IllegalStateException("boom"));
+    assertThat(result.join()).isEqualTo("fallback boom");
+  }
 }
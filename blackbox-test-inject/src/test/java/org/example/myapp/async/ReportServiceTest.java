@@ -0,0 +1,38 @@
+package org.example.myapp.async;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.async.Async;
+import io.avaje.inject.aop.async.AsyncAspect;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportServiceTest {
+
+  @Test
+  void async() throws Exception {
+    try (BeanScope beanScope = BeanScope.builder().build()) {
+      ReportService service = beanScope.get(ReportService.class);
+
+      service.notifyReady("a");
+      assertThat(service.notified.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(service.notifiedOn).isNotEqualTo(Thread.currentThread().getName() + " a").endsWith(" a");
+
+      AsyncConfig.TENANT.set("acme");
+      try {
+        assertThat(service.report(42).toCompletableFuture().get(5, TimeUnit.SECONDS)).isEqualTo("report 42 acme io-worker");
+      } finally {
+        AsyncConfig.TENANT.remove();
+      }
+      assertThat(service.archive(7).get(5, TimeUnit.SECONDS)).isEqualTo("archived 7");
+
+      var aspect = (AsyncAspect) beanScope.get(new GenericType<AspectProvider<Async>>(){}.type());
+      assertThat(aspect.dispatchers()).hasSize(3);
+      assertThat(aspect.dispatchers()).allSatisfy(dispatcher -> assertThat(dispatcher.failures()).isZero());
+    }
+  }
+}
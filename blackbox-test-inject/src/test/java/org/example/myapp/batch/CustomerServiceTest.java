@@ -0,0 +1,43 @@
+package org.example.myapp.batch;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.batch.Batched;
+import io.avaje.inject.aop.batch.BatchedAspect;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerServiceTest {
+
+  @Test
+  void batched() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try (BeanScope beanScope = BeanScope.builder().build()) {
+      CustomerService service = beanScope.get(CustomerService.class);
+
+      List<CompletableFuture<String>> futures = LongStream.range(0, 4)
+        .mapToObj(id -> CompletableFuture.supplyAsync(() -> service.findById(id), executor))
+        .collect(Collectors.toList());
+
+      assertThat(futures).extracting(CompletableFuture::join)
+        .containsExactly("customer-0", "customer-1", "customer-2", "customer-3");
+      assertThat(service.batches).hasSizeLessThan(4);
+      assertThat(service.batches).flatExtracting(ids -> ids).containsExactlyInAnyOrder(0L, 1L, 2L, 3L);
+
+      var aspect = (BatchedAspect) beanScope.get(new GenericType<AspectProvider<Batched>>(){}.type());
+      assertThat(aspect.batchers()).hasSize(1);
+      assertThat(aspect.batchers().get(0).calls()).isEqualTo(4);
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package org.example.myapp.cached;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.cache.Cached;
+import io.avaje.inject.aop.cache.CachedAspect;
+import io.avaje.inject.aop.cache.MethodCache;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedServiceTest {
+
+  @Test
+  void cached() {
+    try (BeanScope beanScope = BeanScope.builder().build()) {
+      CachedService service = beanScope.get(CachedService.class);
+
+      assertThat(service.greeting("rob", 2)).isEqualTo("hi rob 2 1");
+      assertThat(service.greeting("rob", 2)).isEqualTo("hi rob 2 1");
+      assertThat(service.greeting("rob", 3)).isEqualTo("hi rob 3 2");
+
+      assertThat(service.count(21)).isEqualTo(42);
+      assertThat(service.count(21)).isEqualTo(42);
+      assertThat(service.lookup("a").join()).isEqualTo("value-a");
+      assertThat(service.lookup("a").join()).isEqualTo("value-a");
+      assertThat(service.loads).hasValue(4);
+
+      var aspect = (CachedAspect) beanScope.get(new GenericType<AspectProvider<Cached>>(){}.type());
+      assertThat(aspect.caches()).hasSize(3);
+      MethodCache greeting = aspect.caches().stream()
+        .filter(cache -> cache.method().getName().equals("greeting"))
+        .findFirst()
+        .orElseThrow();
+      assertThat(greeting.stats().hits()).isEqualTo(1);
+      assertThat(greeting.stats().misses()).isEqualTo(2);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package org.example.myapp.limit;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.limit.ConcurrencyLimit;
+import io.avaje.inject.aop.limit.ConcurrencyLimitAspect;
+import io.avaje.inject.aop.limit.MethodLimiter;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteServiceTest {
+
+  @Test
+  void limited() throws Exception {
+    try (BeanScope beanScope = BeanScope.builder().build()) {
+      QuoteService service = beanScope.get(QuoteService.class);
+      var aspect = (ConcurrencyLimitAspect) beanScope.get(new GenericType<AspectProvider<ConcurrencyLimit>>(){}.type());
+
+      var first = CompletableFuture.supplyAsync(() -> {
+        try {
+          return service.quote("a");
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      });
+      while (aspect.limiters().isEmpty() || aspect.limiters().get(0).inflight() == 0) {
+        Thread.sleep(5);
+      }
+      assertThat(service.quote("b")).isEqualTo("fallback b");
+
+      service.release.countDown();
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("quote a");
+
+      MethodLimiter limiter = aspect.limiters().get(0);
+      assertThat(limiter.limit()).isEqualTo(1);
+      assertThat(limiter.rejections()).isEqualTo(1);
+      assertThat(limiter.inflight()).isZero();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.example.myapp.timed;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.timed.MethodTimer;
+import io.avaje.inject.aop.timed.Timed;
+import io.avaje.inject.aop.timed.TimedAspect;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedServiceTest {
+
+  @Test
+  void timed() {
+    try (BeanScope beanScope = BeanScope.builder().build()) {
+      TimedService service = beanScope.get(TimedService.class);
+
+      assertThat(service.compute(21)).isEqualTo(42);
+      assertThat(service.compute(1)).isEqualTo(2);
+      assertThat(service.computeAsync("a").join()).isEqualTo("a");
+
+      var aspect = (TimedAspect) beanScope.get(new GenericType<AspectProvider<Timed>>(){}.type());
+      assertThat(aspect.timers()).extracting(MethodTimer::name)
+        .containsExactlyInAnyOrder("TimedService.compute", "timed.async");
+      for (MethodTimer timer : aspect.timers()) {
+        long expected = timer.name().equals("timed.async") ? 1 : 2;
+        assertThat(timer.snapshot().count()).isEqualTo(expected);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package io.avaje.inject.aop;
+
+import java.util.Arrays;
+
+/**
+ * Key of the arguments of a method invocation with equals and hashCode based on the arguments,
+ * used by aspects such as caching and single flight.
+ * <p>
+ * A method without arguments uses a constant key and a method with a single argument uses the
+ * argument itself as the key such that only methods with multiple arguments (or an array argument)
+ * allocate a key. Keys are only comparable for invocations of the same method.
+ */
+public final class ArgumentsKey {
+
+  private static final ArgumentsKey EMPTY = new ArgumentsKey(new Object[0]);
+
+  private final Object[] values;
+  private final int hash;
+
+  private ArgumentsKey(Object[] values) {
+    this.values = values;
+    this.hash = Arrays.deepHashCode(values);
+  }
+
+  /**
+   * Return the key for the arguments of the invocation.
+   */
+  public static Object of(Invocation invocation) {
+    switch (invocation.argumentCount()) {
+      case 0:
+        return EMPTY;
+      case 1:
+        return single(invocation.argument(0));
+      default:
+        return new ArgumentsKey(invocation.arguments());
+    }
+  }
+
+  /**
+   * Return the key for the given arguments.
+   */
+  public static Object ofArguments(Object... args) {
+    switch (args.length) {
+      case 0:
+        return EMPTY;
+      case 1:
+        return single(args[0]);
+      default:
+        return new ArgumentsKey(args.clone());
+    }
+  }
+
+  private static Object single(Object arg) {
+    if (arg == null || arg.getClass().isArray()) {
+      return new ArgumentsKey(new Object[] {arg});
+    }
+    return arg;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof ArgumentsKey)) {
+      return false;
+    }
+    final ArgumentsKey that = (ArgumentsKey) other;
+    return hash == that.hash && Arrays.deepEquals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.deepToString(values);
+  }
+}
@@ -37,7 +37,7 @@ public @interface Aspect {
   /**
    * Marks an External Annotation as being used for aspects
    */
-  @Retention(SOURCE)
+  @Retention(CLASS)
   @Repeatable(Imports.class)
   @Target({PACKAGE, TYPE, MODULE})
   @interface Import {
@@ -54,7 +54,7 @@ public @interface Aspect {
      */
     int ordering() default 1000;
 
-    @Retention(SOURCE)
+    @Retention(CLASS)
     @Target({TYPE, PACKAGE, MODULE})
     @interface Imports {
 
@@ -13,6 +13,9 @@ public interface AspectProvider<T extends Annotation> {
 
   /**
    * Return the method interceptor to use for the given method and aspect annotation.
+   * <p>
+   * Return {@link MethodInterceptor#noop()} when there is nothing to do for the method such that
+   * the proxy can skip the interceptor.
    */
   MethodInterceptor interceptor(Method method, T aspectAnnotation);
 }
@@ -0,0 +1,65 @@
+package io.avaje.inject.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * Asynchronous view of an invocation that is not a chained invocation.
+ */
+final class AsyncAdapter implements Invocation.Async {
+
+  private final Invocation delegate;
+
+  AsyncAdapter(Invocation delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Object invoke() throws Throwable {
+    return delegate.invoke();
+  }
+
+  @Override
+  public void result(Object result) {
+    delegate.result(result);
+  }
+
+  @Override
+  public Invocation detach() {
+    return delegate.detach();
+  }
+
+  @Override
+  public Object[] arguments() {
+    return delegate.arguments();
+  }
+
+  @Override
+  public Object argument(int index) {
+    return delegate.argument(index);
+  }
+
+  @Override
+  public int argumentCount() {
+    return delegate.argumentCount();
+  }
+
+  @Override
+  public Method method() {
+    return delegate.method();
+  }
+
+  @Override
+  public Object instance() {
+    return delegate.instance();
+  }
+
+  @Override
+  public boolean hasRecoveryMethod() {
+    return delegate.hasRecoveryMethod();
+  }
+
+  @Override
+  public Object invokeRecoveryMethod(Throwable t) {
+    return delegate.invokeRecoveryMethod(t);
+  }
+}
@@ -0,0 +1,53 @@
+package io.avaje.inject.aop;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Method interceptor for methods returning {@code CompletionStage} that composes around the
+ * returned stage rather than blocking.
+ * <p>
+ * The interceptor proceeds via {@link Invocation.Async#proceed()} which returns the stage of the
+ * rest of the chain, including a failed stage if the method throws synchronously. The
+ * interceptor returns the stage to be returned to the caller, typically composed from the
+ * proceeded stage. {@code proceed()} can be called later and on another thread, for example to
+ * retry after a delay. Asynchronous failures can be recovered via
+ * {@link Invocation.Async#recover(Throwable)} which uses the fallback method if there is one.
+ *
+ * <pre>{@code
+ *
+ *   public CompletionStage<?> invokeAsync(Invocation.Async invocation) {
+ *     long start = System.nanoTime();
+ *     return invocation.proceed()
+ *       .whenComplete((result, e) -> record(System.nanoTime() - start));
+ *   }
+ *
+ * }</pre>
+ * <p>
+ * For methods that do not return {@code CompletionStage} the interceptor is skipped by default.
+ */
+public interface AsyncMethodInterceptor extends MethodInterceptor {
+
+  /**
+   * Intercept the invocation of a method returning {@code CompletionStage}.
+   *
+   * @param invocation The invocation being intercepted
+   * @return The stage returned to the caller
+   */
+  CompletionStage<?> invokeAsync(Invocation.Async invocation);
+
+  /**
+   * Intercept the invocation synchronously.
+   * <p>
+   * This is used when the invocation is not a chained invocation of a generated proxy. When the
+   * method returns {@code CompletionStage} it adapts the invocation and uses
+   * {@link #invokeAsync(Invocation.Async)}, otherwise it proceeds without interception.
+   */
+  @Override
+  default void invoke(Invocation invocation) throws Throwable {
+    if (CompletionStage.class.isAssignableFrom(invocation.method().getReturnType())) {
+      invocation.result(invokeAsync(Invocation.Async.of(invocation)));
+    } else {
+      invocation.invoke();
+    }
+  }
+}
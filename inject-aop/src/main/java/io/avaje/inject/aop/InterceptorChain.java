@@ -0,0 +1,148 @@
+package io.avaje.inject.aop;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The method interceptors of a proxied method, built once when the proxy is created.
+ * <p>
+ * The interceptors are held outer-most first and are invoked in turn by an
+ * {@link Invocation.Chained} such that a call through a single interceptor allocates only the
+ * one invocation. The {@link MethodInterceptor#noop()} interceptors are removed
+ * such that a method with only no-op interceptors has an {@link #isEmpty() empty} chain.
+ * <p>
+ * Generated proxies hold the chain of each method in a {@link Lazy} such that the reflective
+ * method lookup and the creation of the interceptors occurs on the first invocation of the method
+ * rather than when the proxy is created.
+ */
+public final class InterceptorChain {
+
+  static final MethodInterceptor NOOP = Invocation::invoke;
+
+  private final Method method;
+  private final MethodInterceptor[] interceptors;
+  private final boolean async;
+
+  private InterceptorChain(Method method, MethodInterceptor[] interceptors) {
+    this.method = method;
+    this.interceptors = interceptors;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+  }
+
+  /**
+   * Create the chain for the given method.
+   *
+   * @param method       the method being intercepted
+   * @param interceptors the interceptors ordered outer-most first
+   */
+  public static InterceptorChain of(Method method, MethodInterceptor... interceptors) {
+    return new InterceptorChain(method, Arrays.stream(interceptors)
+      .filter(interceptor -> interceptor != NOOP)
+      .toArray(MethodInterceptor[]::new));
+  }
+
+  /**
+   * Return true if there are no interceptors such that the method can be called directly.
+   */
+  public boolean isEmpty() {
+    return interceptors.length == 0;
+  }
+
+  /**
+   * Return the method being intercepted.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return true if the method returns a {@code CompletionStage} such that an
+   * {@link AsyncMethodInterceptor} intercepts it asynchronously.
+   */
+  public boolean isAsync() {
+    return async;
+  }
+
+  /**
+   * Return the number of interceptors.
+   */
+  public int size() {
+    return interceptors.length;
+  }
+
+  /**
+   * Return the interceptor at the given position, 0 being the outer-most.
+   */
+  public MethodInterceptor interceptor(int index) {
+    return interceptors[index];
+  }
+
+  /**
+   * Return a holder that resolves the chain on first use.
+   */
+  public static Lazy lazy(Resolver resolver) {
+    return new Lazy(resolver);
+  }
+
+  /**
+   * Resolves the chain of a method, typically looking up the method and creating the interceptors.
+   */
+  @FunctionalInterface
+  public interface Resolver {
+
+    /**
+     * Return the resolved chain.
+     */
+    InterceptorChain resolve() throws Exception;
+  }
+
+  /**
+   * Lock free holder of a chain that is resolved on first use.
+   * <p>
+   * Concurrent first uses can each resolve the chain but only one chain is published and
+   * returned to all callers. Once resolved the cost of {@link #get()} is a volatile read.
+   */
+  public static final class Lazy {
+
+    private static final AtomicReferenceFieldUpdater<Lazy, InterceptorChain> CHAIN =
+      AtomicReferenceFieldUpdater.newUpdater(Lazy.class, InterceptorChain.class, "chain");
+
+    private final Resolver resolver;
+    private volatile InterceptorChain chain;
+
+    private Lazy(Resolver resolver) {
+      this.resolver = resolver;
+    }
+
+    /**
+     * Return the chain resolving it if required.
+     *
+     * @throws IllegalStateException if the chain could not be resolved
+     */
+    public InterceptorChain get() {
+      final InterceptorChain current = chain;
+      return current != null ? current : resolve();
+    }
+
+    /**
+     * Return true if the chain has been resolved.
+     */
+    public boolean isResolved() {
+      return chain != null;
+    }
+
+    private InterceptorChain resolve() {
+      final InterceptorChain resolved;
+      try {
+        resolved = resolver.resolve();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      return CHAIN.compareAndSet(this, null, resolved) ? resolved : chain;
+    }
+  }
+}
@@ -1,6 +1,9 @@
 package io.avaje.inject.aop;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -51,6 +54,23 @@ public interface Invocation {
    */
   Object[] arguments();
 
+  /**
+   * Return the argument at the given index.
+   * <p>
+   * Prefer this to {@link #arguments()} when only some arguments are needed as proxies can return
+   * a single argument without creating the arguments array.
+   */
+  default Object argument(int index) {
+    return arguments()[index];
+  }
+
+  /**
+   * Return the number of arguments of this invocation.
+   */
+  default int argumentCount() {
+    return arguments().length;
+  }
+
   /**
    * Return the method being called for this invocation.
    */
@@ -76,6 +96,71 @@ public interface Invocation {
    */
   Object invokeRecoveryMethod(Throwable t);
 
+  /**
+   * Return an invocation that proceeds with the rest of the chain and can be invoked after the
+   * interceptor has returned, for example on another thread.
+   * <p>
+   * The returned invocation has its own result such that proceeding asynchronously does not
+   * replace the result the interceptor returns to the caller.
+   */
+  default Invocation detach() {
+    return this;
+  }
+
+  /**
+   * Invocation of a method returning {@code CompletionStage} given to an
+   * {@link AsyncMethodInterceptor}.
+   */
+  interface Async extends Invocation {
+
+    /**
+     * Return an asynchronous view of the given invocation of a method returning
+     * {@code CompletionStage}.
+     */
+    static Async of(Invocation invocation) {
+      return invocation instanceof Async ? (Async) invocation : new AsyncAdapter(invocation);
+    }
+
+    /**
+     * Proceed with the rest of the chain returning its stage.
+     * <p>
+     * If the method throws synchronously the exception is returned as a failed stage. This can
+     * be called more than once, for example to retry, and from another thread.
+     */
+    @SuppressWarnings("unchecked")
+    default CompletionStage<Object> proceed() {
+      try {
+        final Object stage = invoke();
+        return stage == null ? CompletableFuture.completedFuture(null) : (CompletionStage<Object>) stage;
+      } catch (Throwable e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
+    /**
+     * Return the stage of the recovery method for the given failure, or the failed stage if there
+     * is no recovery method.
+     * <p>
+     * A {@code CompletionException} is unwrapped such that the recovery method is given the
+     * underlying failure.
+     */
+    @SuppressWarnings("unchecked")
+    default CompletionStage<Object> recover(Throwable failure) {
+      if (failure instanceof CompletionException && failure.getCause() != null) {
+        failure = failure.getCause();
+      }
+      if (!hasRecoveryMethod()) {
+        return CompletableFuture.failedFuture(failure);
+      }
+      try {
+        final Object stage = invokeRecoveryMethod(failure);
+        return stage == null ? CompletableFuture.completedFuture(null) : (CompletionStage<Object>) stage;
+      } catch (Throwable e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+  }
+
   /**
    * Invocation base type for both callable and runnable methods.
    *
@@ -261,6 +346,198 @@ public interface Invocation {
     }
   }
 
+  /**
+   * Invocation through a precomputed {@link InterceptorChain}.
+   * <p>
+   * Generated proxies extend this per method holding the typed arguments of the call such that
+   * a call through a single interceptor allocates only this invocation, with the arguments array
+   * created only when {@link #arguments()} is used. The outer-most interceptor is given this
+   * invocation and each further interceptor is given its own invocation proceeding from its fixed
+   * position in the chain, such that an interceptor can invoke more than once (for example to
+   * retry) and can invoke after it has returned, for example on another thread.
+   *
+   * @param <T> The result type
+   */
+  abstract class Chained<T> implements Invocation {
+
+    private final InterceptorChain chain;
+    private final Object instance;
+    private Object[] args;
+    private boolean started;
+    protected T result;
+
+    /**
+     * Create for the given chain and 'this' instance of the proxy.
+     */
+    protected Chained(InterceptorChain chain, Object instance) {
+      this.chain = chain;
+      this.instance = instance;
+    }
+
+    /**
+     * Invoke the target method, typically the super method of the proxy.
+     */
+    protected abstract T target() throws Throwable;
+
+    /**
+     * Create the arguments array.
+     */
+    protected abstract Object[] createArguments();
+
+    @Override
+    public final Object invoke() throws Throwable {
+      if (started) {
+        // invoked by the outer-most interceptor
+        result(proceedFrom(1));
+        return result;
+      }
+      started = true;
+      if (chain.isEmpty()) {
+        result = target();
+        return result;
+      }
+      final MethodInterceptor interceptor = chain.interceptor(0);
+      if (chain.isAsync() && interceptor instanceof AsyncMethodInterceptor) {
+        result(invokeAsync((AsyncMethodInterceptor) interceptor, 0));
+      } else {
+        interceptor.invoke(this);
+      }
+      return result;
+    }
+
+    /**
+     * Proceed from the given position in the chain returning the result.
+     */
+    private Object proceedFrom(int position) throws Throwable {
+      if (position == chain.size()) {
+        return target();
+      }
+      final MethodInterceptor interceptor = chain.interceptor(position);
+      if (chain.isAsync() && interceptor instanceof AsyncMethodInterceptor) {
+        return invokeAsync((AsyncMethodInterceptor) interceptor, position);
+      }
+      final var step = new Step(position + 1);
+      interceptor.invoke(step);
+      return step.result;
+    }
+
+    private Object invokeAsync(AsyncMethodInterceptor interceptor, int position) {
+      final CompletionStage<?> stage = interceptor.invokeAsync(new Step(position + 1));
+      return chain.method().getReturnType().isInstance(stage) ? stage : stage.toCompletableFuture();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void result(Object result) {
+      this.result = (T) result;
+    }
+
+    /**
+     * Return the final invocation result.
+     */
+    public T finalResult() {
+      return result;
+    }
+
+    @Override
+    public Invocation detach() {
+      return new Step(1);
+    }
+
+    @Override
+    public Object[] arguments() {
+      if (args == null) {
+        args = createArguments();
+      }
+      return args;
+    }
+
+    @Override
+    public Method method() {
+      return chain.method();
+    }
+
+    @Override
+    public Object instance() {
+      return instance;
+    }
+
+    @Override
+    public boolean hasRecoveryMethod() {
+      return false;
+    }
+
+    @Override
+    public Object invokeRecoveryMethod(Throwable t) {
+      throw new IllegalStateException("No recovery method available for this invocation");
+    }
+
+    /**
+     * The invocation given to an interceptor after the outer-most, proceeding from its fixed
+     * position in the chain with its own result.
+     */
+    private final class Step implements Async {
+
+      private final int position;
+      private Object result;
+
+      Step(int position) {
+        this.position = position;
+      }
+
+      @Override
+      public Object invoke() throws Throwable {
+        result = proceedFrom(position);
+        return result;
+      }
+
+      @Override
+      public void result(Object result) {
+        this.result = result;
+      }
+
+      @Override
+      public Invocation detach() {
+        return new Step(position);
+      }
+
+      @Override
+      public Object[] arguments() {
+        return Chained.this.arguments();
+      }
+
+      @Override
+      public Object argument(int index) {
+        return Chained.this.argument(index);
+      }
+
+      @Override
+      public int argumentCount() {
+        return Chained.this.argumentCount();
+      }
+
+      @Override
+      public Method method() {
+        return Chained.this.method();
+      }
+
+      @Override
+      public Object instance() {
+        return Chained.this.instance();
+      }
+
+      @Override
+      public boolean hasRecoveryMethod() {
+        return Chained.this.hasRecoveryMethod();
+      }
+
+      @Override
+      public Object invokeRecoveryMethod(Throwable t) {
+        return Chained.this.invokeRecoveryMethod(t);
+      }
+    }
+  }
+
   /**
    * Runnable with checked exceptions.
    */
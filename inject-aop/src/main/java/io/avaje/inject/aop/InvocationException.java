@@ -28,4 +28,19 @@ public class InvocationException extends RuntimeException {
   public InvocationException(String message, Throwable cause) {
     super(message, cause);
   }
+
+  private InvocationException(String message, boolean stackless) {
+    super(message, null, !stackless, !stackless);
+  }
+
+  /**
+   * Create an exception without a stack trace and that does not record suppressed exceptions.
+   * <p>
+   * Such an exception is cheap to create and safe to share. Proxies generated with the
+   * {@code aopExceptionMarker=shared} processor option use a single instance per method as the
+   * suppressed marker added to exceptions thrown through the proxy.
+   */
+  public static InvocationException stackless(String message) {
+    return new InvocationException(message, true);
+  }
 }
@@ -11,6 +11,18 @@ import java.lang.reflect.Method;
 @FunctionalInterface
 public interface MethodInterceptor {
 
+  /**
+   * Return the marker interceptor that does nothing other than proceed with the invocation.
+   * <p>
+   * An {@link AspectProvider} returns this when it has nothing to do for a given method, for
+   * example when timing is disabled. Generated proxies drop this interceptor from the chain, and
+   * when all the interceptors of a method are no-op the proxy calls the super method directly
+   * without creating an {@link Invocation}.
+   */
+  static MethodInterceptor noop() {
+    return InterceptorChain.NOOP;
+  }
+
   /**
    * Intercepts the method invocation.
    * <p>
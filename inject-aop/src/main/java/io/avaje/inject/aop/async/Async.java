@@ -0,0 +1,46 @@
+package io.avaje.inject.aop.async;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Execute the method on an executor rather than the calling thread.
+ * <p>
+ * The method returns {@code void}, {@code CompletionStage}, {@code CompletableFuture} or
+ * {@code Future}. The caller is returned a {@code CompletableFuture} completed with the result of
+ * the method, where a stage or future returned by the method is completed with its value. A
+ * failure of a {@code void} method is logged.
+ * <p>
+ * The executor is the {@code Executor} bean with the given name or, when no name is given, a
+ * virtual thread per task executor when running on Java 21 or later and otherwise a cached pool of
+ * daemon threads. Named executors are resolved from the {@code BeanScope} once it is built.
+ * <p>
+ * The {@link ContextPropagator} beans are applied to each task on the calling thread, for example
+ * to carry a request context to the executing thread.
+ * <p>
+ * The queued and active counts of each method are available via {@link AsyncAspect#dispatchers()}.
+ *
+ * <pre>{@code
+ *
+ *   @Async("io")
+ *   public CompletableFuture<Report> report(long id) {
+ *     // blocking I/O
+ *     return CompletableFuture.completedFuture(report);
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(ordering = 5000)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+
+  /**
+   * The name of the executor bean, defaults to virtual threads.
+   */
+  String value() default "";
+}
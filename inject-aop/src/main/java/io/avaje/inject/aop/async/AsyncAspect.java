@@ -0,0 +1,89 @@
+package io.avaje.inject.aop.async;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the {@link MethodDispatcher} for {@link Async} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<Async>} and can be injected as that
+ * type to obtain the queued and active counts of each method.
+ */
+public final class AsyncAspect implements AspectProvider<Async> {
+
+  private final List<MethodDispatcher> dispatchers = new CopyOnWriteArrayList<>();
+  private volatile BeanScope beanScope;
+
+  /**
+   * Set the bean scope that named executors and context propagators are resolved from.
+   * <p>
+   * This is called once the bean scope is built.
+   */
+  public void resolveFrom(BeanScope beanScope) {
+    this.beanScope = beanScope;
+  }
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Async async) {
+    final Class<?> returnType = method.getReturnType();
+    final boolean returnsFuture = returnType != void.class;
+    if (returnsFuture && (returnType == Object.class || !returnType.isAssignableFrom(CompletableFuture.class))) {
+      throw new IllegalStateException("@Async requires a void, CompletionStage, CompletableFuture or Future return type but not " + method);
+    }
+    final var scope = beanScope;
+    final String name = async.value();
+    final Executor executor = name.isEmpty() ? DefaultExecutor.INSTANCE : executor(scope, name, method);
+    final List<ContextPropagator> propagators = scope == null ? List.of() : scope.list(ContextPropagator.class);
+    final var dispatcher = new MethodDispatcher(method, name, executor, propagators, returnsFuture);
+    dispatchers.add(dispatcher);
+    return dispatcher;
+  }
+
+  private static Executor executor(BeanScope scope, String name, Method method) {
+    if (scope == null) {
+      throw new IllegalStateException("@Async executor " + name + " of " + method + " is not available until the bean scope is built");
+    }
+    return scope.<Executor>getOptional(Executor.class, name)
+      .or(() -> scope.getOptional(ExecutorService.class, name))
+      .orElseThrow(() -> new IllegalStateException("@Async executor " + name + " of " + method + " is not a registered Executor bean"));
+  }
+
+  /**
+   * Return the asynchronous methods invoked so far.
+   */
+  public List<MethodDispatcher> dispatchers() {
+    return Collections.unmodifiableList(dispatchers);
+  }
+
+  /**
+   * The default executor using a virtual thread per task when available.
+   */
+  static final class DefaultExecutor {
+
+    static final Executor INSTANCE = create();
+
+    private static Executor create() {
+      try {
+        return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        final var count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+          final var thread = new Thread(task, "avaje-async-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+    }
+  }
+}
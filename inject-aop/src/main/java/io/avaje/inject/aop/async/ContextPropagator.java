@@ -0,0 +1,29 @@
+package io.avaje.inject.aop.async;
+
+/**
+ * Propagates context from the calling thread to the thread executing an {@link Async} method.
+ * <p>
+ * Register implementations as beans. Each is called on the calling thread to wrap the task,
+ * typically capturing the context of the calling thread and restoring it around the task.
+ *
+ * <pre>{@code
+ *
+ *   @Singleton
+ *   final class RequestContextPropagator implements ContextPropagator {
+ *
+ *     public Runnable propagate(Runnable task) {
+ *       RequestContext context = RequestContext.current();
+ *       return () -> RequestContext.runWith(context, task);
+ *     }
+ *   }
+ *
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ContextPropagator {
+
+  /**
+   * Return the task to execute, called on the calling thread.
+   */
+  Runnable propagate(Runnable task);
+}
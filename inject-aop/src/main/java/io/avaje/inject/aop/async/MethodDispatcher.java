@@ -0,0 +1,164 @@
+package io.avaje.inject.aop.async;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.System.Logger.Level.ERROR;
+
+/**
+ * Dispatches the invocations of an {@link Async} method to its executor.
+ */
+public final class MethodDispatcher implements MethodInterceptor {
+
+  private static final System.Logger log = System.getLogger("io.avaje.inject.aop");
+
+  private final Method method;
+  private final String executorName;
+  private final Executor executor;
+  private final List<ContextPropagator> propagators;
+  private final boolean returnsFuture;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  MethodDispatcher(Method method, String executorName, Executor executor, List<ContextPropagator> propagators, boolean returnsFuture) {
+    this.method = method;
+    this.executorName = executorName;
+    this.executor = executor;
+    this.propagators = propagators;
+    this.returnsFuture = returnsFuture;
+  }
+
+  /**
+   * Return the method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the name of the executor, empty for the default executor.
+   */
+  public String executorName() {
+    return executorName;
+  }
+
+  /**
+   * Return the number of invocations waiting to be executed.
+   */
+  public int queued() {
+    return queued.get();
+  }
+
+  /**
+   * Return the number of invocations executing.
+   */
+  public int active() {
+    return active.get();
+  }
+
+  /**
+   * Return the number of invocations that completed successfully.
+   */
+  public long completed() {
+    return completed.sum();
+  }
+
+  /**
+   * Return the number of invocations that failed or were rejected by the executor.
+   */
+  public long failures() {
+    return failures.sum();
+  }
+
+  @Override
+  public void invoke(Invocation invocation) {
+    final Invocation detached = invocation.detach();
+    final CompletableFuture<Object> future = returnsFuture ? new CompletableFuture<>() : null;
+    Runnable task = () -> execute(detached, future);
+    for (final ContextPropagator propagator : propagators) {
+      task = propagator.propagate(task);
+    }
+    queued.incrementAndGet();
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      queued.decrementAndGet();
+      failures.increment();
+      if (future == null) {
+        throw e;
+      }
+      future.completeExceptionally(e);
+    }
+    invocation.result(future);
+  }
+
+  private void execute(Invocation invocation, CompletableFuture<Object> future) {
+    queued.decrementAndGet();
+    active.incrementAndGet();
+    try {
+      final Object result = invocation.invoke();
+      if (future == null) {
+        completed.increment();
+      } else {
+        complete(future, result);
+      }
+    } catch (Throwable e) {
+      failed(future, e);
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+
+  private void complete(CompletableFuture<Object> future, Object result) throws Throwable {
+    if (result instanceof CompletionStage) {
+      ((CompletionStage<?>) result).whenComplete((value, e) -> {
+        if (e != null) {
+          failed(future, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        } else {
+          completed.increment();
+          future.complete(value);
+        }
+      });
+    } else if (result instanceof Future) {
+      try {
+        final Object value = ((Future<?>) result).get();
+        completed.increment();
+        future.complete(value);
+      } catch (ExecutionException e) {
+        throw e.getCause();
+      }
+    } else {
+      completed.increment();
+      future.complete(result);
+    }
+  }
+
+  private void failed(CompletableFuture<Object> future, Throwable e) {
+    failures.increment();
+    if (future != null) {
+      future.completeExceptionally(e);
+    } else {
+      log.log(ERROR, "@Async method " + method.getDeclaringClass().getName() + '.' + method.getName() + " failed", e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MethodDispatcher{" + method.getDeclaringClass().getSimpleName() + '.' + method.getName()
+      + ", executor=" + (executorName.isEmpty() ? "default" : executorName)
+      + ", queued=" + queued() + ", active=" + active() + ", completed=" + completed() + ", failures=" + failures() + '}';
+  }
+}
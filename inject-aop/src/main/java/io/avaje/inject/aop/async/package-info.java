@@ -0,0 +1,7 @@
+/**
+ * Built-in asynchronous execution aspect.
+ * <p>
+ * Annotate a method with {@link io.avaje.inject.aop.async.Async @Async} to execute it on an
+ * executor, by default on a virtual thread per invocation.
+ */
+package io.avaje.inject.aop.async;
@@ -0,0 +1,62 @@
+package io.avaje.inject.aop.batch;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collect concurrent invocations of a single key method into one invocation of a batch method.
+ * <p>
+ * The annotated method takes one argument, the key. The batch method is declared on the same
+ * class, is named by {@link #by()} and takes a {@code List}, {@code Set} or {@code Collection} of
+ * distinct keys. It returns either a {@code Map} of key to result, where a missing key has a null
+ * result, or a {@code List} of results in the order of the keys. The batch method can also return
+ * a {@code CompletionStage} of the map or list.
+ * <p>
+ * The first invocation of a batch waits up to {@link #maxDelayMicros()} for other invocations to
+ * join the batch, or less if the batch reaches {@link #maxBatch()} keys, and then invokes the batch
+ * method in its thread. Other invocations wait for their result or for methods returning
+ * {@code CompletionStage} return a stage completed with their result. A failure of the batch
+ * method fails all the invocations of the batch.
+ * <p>
+ * The annotated method itself is not invoked. The batch method is invoked reflectively so when
+ * using modules its package must be opened or exported to {@code io.avaje.inject.aop}.
+ * <p>
+ * The statistics are available via {@link BatchedAspect#batchers()}.
+ *
+ * <pre>{@code
+ *
+ *   @Batched(by = "findAllByIds", maxBatch = 200, maxDelayMicros = 500)
+ *   public Customer findById(long id) {
+ *     throw new UnsupportedOperationException();
+ *   }
+ *
+ *   public Map<Long, Customer> findAllByIds(List<Long> ids) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(ordering = 2000)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+  /**
+   * The name of the batch method.
+   */
+  String by();
+
+  /**
+   * The maximum number of distinct keys in a batch.
+   */
+  int maxBatch() default 100;
+
+  /**
+   * The maximum time in microseconds the first invocation of a batch waits for other invocations.
+   */
+  long maxDelayMicros() default 1000;
+}
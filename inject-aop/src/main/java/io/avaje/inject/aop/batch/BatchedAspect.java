@@ -0,0 +1,69 @@
+package io.avaje.inject.aop.batch;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the {@link MethodBatcher} for {@link Batched} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<Batched>} and can be injected as that
+ * type to obtain the statistics of each method such as the average batch size.
+ */
+public final class BatchedAspect implements AspectProvider<Batched> {
+
+  private final List<MethodBatcher> batchers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Batched batched) {
+    if (method.getParameterCount() != 1 || method.getReturnType() == void.class) {
+      throw new IllegalStateException("@Batched requires a method with a single key parameter and a result but not " + method);
+    }
+    if (batched.maxBatch() < 1) {
+      throw new IllegalStateException("@Batched maxBatch must be at least 1 on " + method);
+    }
+    final var batcher = new MethodBatcher(method, batchMethod(method, batched.by()), batched.maxBatch(), TimeUnit.MICROSECONDS.toNanos(batched.maxDelayMicros()));
+    return batcher.registerOnFirstUse(this);
+  }
+
+  void register(MethodBatcher batcher) {
+    batchers.add(batcher);
+  }
+
+  static Method batchMethod(Method method, String name) {
+    for (final Method candidate : method.getDeclaringClass().getDeclaredMethods()) {
+      if (candidate.getName().equals(name) && candidate.getParameterCount() == 1 && acceptsKeys(candidate) && returnsResults(candidate)) {
+        candidate.trySetAccessible();
+        return candidate;
+      }
+    }
+    throw new IllegalStateException("@Batched method " + method + " has no method " + name
+      + " taking a List, Set or Collection of keys and returning a Map, List or CompletionStage");
+  }
+
+  private static boolean acceptsKeys(Method candidate) {
+    final Class<?> type = candidate.getParameterTypes()[0];
+    return type.isAssignableFrom(ArrayList.class) || type.isAssignableFrom(LinkedHashSet.class);
+  }
+
+  private static boolean returnsResults(Method candidate) {
+    final Class<?> type = candidate.getReturnType();
+    return Map.class.isAssignableFrom(type) || List.class.isAssignableFrom(type) || CompletionStage.class.isAssignableFrom(type);
+  }
+
+  /**
+   * Return the batched methods invoked so far.
+   */
+  public List<MethodBatcher> batchers() {
+    return Collections.unmodifiableList(batchers);
+  }
+}
@@ -0,0 +1,235 @@
+package io.avaje.inject.aop.batch;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects the invocations of a {@link Batched} method into batches and invokes the batch method.
+ */
+public final class MethodBatcher implements MethodInterceptor {
+
+  private static final AtomicReferenceFieldUpdater<MethodBatcher, BatchedAspect> ASPECT =
+    AtomicReferenceFieldUpdater.newUpdater(MethodBatcher.class, BatchedAspect.class, "aspect");
+
+  private final Method method;
+  private final Method batchMethod;
+  private final boolean async;
+  private final boolean setOfKeys;
+  private final int maxBatch;
+  private final long maxDelayNanos;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedKeys = new LongAdder();
+  private final Object lock = new Object();
+  private Batch current;
+  private volatile BatchedAspect aspect;
+
+  MethodBatcher(Method method, Method batchMethod, int maxBatch, long maxDelayNanos) {
+    this.method = method;
+    this.batchMethod = batchMethod;
+    this.maxBatch = maxBatch;
+    this.maxDelayNanos = maxDelayNanos;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    this.setOfKeys = !batchMethod.getParameterTypes()[0].isAssignableFrom(ArrayList.class);
+    if (async && !method.getReturnType().isAssignableFrom(CompletableFuture.class)) {
+      throw new IllegalStateException("@Batched supports CompletionStage and CompletableFuture return types but not " + method);
+    }
+  }
+
+  /**
+   * Return the method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the batch method.
+   */
+  public Method batchMethod() {
+    return batchMethod;
+  }
+
+  /**
+   * Return the number of invocations.
+   */
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Return the number of invocations of the batch method.
+   */
+  public long batches() {
+    return batches.sum();
+  }
+
+  /**
+   * Return the average number of distinct keys per batch, 0 when there have been none.
+   */
+  public double averageBatchSize() {
+    final long keys = batchedKeys.sum();
+    final long count = batches.sum();
+    return count == 0 ? 0 : (double) keys / count;
+  }
+
+  /**
+   * Register with the aspect on first invocation, such that a batcher of a chain that lost the
+   * race to be published is never listed.
+   */
+  MethodBatcher registerOnFirstUse(BatchedAspect aspect) {
+    this.aspect = aspect;
+    return this;
+  }
+
+  @Override
+  public void invoke(Invocation invocation) throws Throwable {
+    final BatchedAspect unregistered = aspect;
+    if (unregistered != null && ASPECT.compareAndSet(this, unregistered, null)) {
+      unregistered.register(this);
+    }
+    calls.increment();
+    final Object key = invocation.argument(0);
+    final Batch batch;
+    final CompletableFuture<Object> result;
+    final boolean leader;
+    synchronized (lock) {
+      leader = current == null;
+      if (leader) {
+        current = new Batch(invocation.instance(), Thread.currentThread());
+      }
+      batch = current;
+      result = batch.add(key);
+      if (batch.size() >= maxBatch) {
+        current = null;
+        batch.closed = true;
+      }
+    }
+    if (leader) {
+      awaitBatch(batch);
+      dispatch(batch);
+    } else if (batch.closed) {
+      LockSupport.unpark(batch.leader);
+    }
+    invocation.result(async ? result.copy() : await(result));
+  }
+
+  private void awaitBatch(Batch batch) {
+    final long deadline = System.nanoTime() + maxDelayNanos;
+    long remaining = maxDelayNanos;
+    while (!batch.closed && remaining > 0 && !Thread.currentThread().isInterrupted()) {
+      LockSupport.parkNanos(this, remaining);
+      remaining = deadline - System.nanoTime();
+    }
+    synchronized (lock) {
+      if (current == batch) {
+        current = null;
+      }
+    }
+  }
+
+  private void dispatch(Batch batch) {
+    batches.increment();
+    batchedKeys.add(batch.size());
+    final var keys = batch.entries.keySet();
+    try {
+      final Object results = batchMethod.invoke(batch.instance, setOfKeys ? new LinkedHashSet<>(keys) : new ArrayList<>(keys));
+      if (results instanceof CompletionStage) {
+        ((CompletionStage<?>) results).whenComplete((value, e) -> {
+          if (e != null) {
+            batch.fail(unwrap(e));
+          } else {
+            batch.complete(value);
+          }
+        });
+      } else {
+        batch.complete(results);
+      }
+    } catch (InvocationTargetException e) {
+      batch.fail(e.getCause());
+    } catch (Throwable e) {
+      batch.fail(e);
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> result) throws Throwable {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  @Override
+  public String toString() {
+    return "MethodBatcher{" + method.getDeclaringClass().getSimpleName() + '.' + method.getName()
+      + ", calls=" + calls() + ", batches=" + batches() + ", averageBatchSize=" + averageBatchSize() + '}';
+  }
+
+  /**
+   * The distinct keys of a batch and their results, added to while the batch is open.
+   */
+  private final class Batch {
+
+    private final Object instance;
+    private final Thread leader;
+    private final Map<Object, CompletableFuture<Object>> entries = new LinkedHashMap<>();
+    private volatile boolean closed;
+
+    private Batch(Object instance, Thread leader) {
+      this.instance = instance;
+      this.leader = leader;
+    }
+
+    private CompletableFuture<Object> add(Object key) {
+      return entries.computeIfAbsent(key, k -> new CompletableFuture<>());
+    }
+
+    private int size() {
+      return entries.size();
+    }
+
+    private void complete(Object results) {
+      if (results == null) {
+        entries.values().forEach(result -> result.complete(null));
+      } else if (results instanceof Map) {
+        final Map<?, ?> map = (Map<?, ?>) results;
+        entries.forEach((key, result) -> result.complete(map.get(key)));
+      } else if (results instanceof List) {
+        final List<?> list = (List<?>) results;
+        if (list.size() != entries.size()) {
+          fail(new IllegalStateException(batchMethod.getName() + " returned " + list.size() + " results for " + entries.size() + " keys"));
+          return;
+        }
+        int index = 0;
+        for (final CompletableFuture<Object> result : entries.values()) {
+          result.complete(list.get(index++));
+        }
+      } else {
+        fail(new IllegalStateException(batchMethod.getName() + " returned " + results.getClass() + " rather than a Map or List"));
+      }
+    }
+
+    private void fail(Throwable e) {
+      entries.values().forEach(result -> result.completeExceptionally(e));
+    }
+  }
+}
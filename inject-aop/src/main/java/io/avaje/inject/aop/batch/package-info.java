@@ -0,0 +1,7 @@
+/**
+ * Built-in call batching aspect.
+ * <p>
+ * Annotate a single key method with {@link io.avaje.inject.aop.batch.Batched @Batched} such that
+ * concurrent invocations are collected into one invocation of a batch method.
+ */
+package io.avaje.inject.aop.batch;
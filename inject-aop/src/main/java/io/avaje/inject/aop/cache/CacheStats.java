@@ -0,0 +1,72 @@
+package io.avaje.inject.aop.cache;
+
+/**
+ * Snapshot of the statistics of a {@link MethodCache}.
+ */
+public final class CacheStats {
+
+  private final long hits;
+  private final long misses;
+  private final long loads;
+  private final long loadFailures;
+  private final long refreshes;
+  private final long evictions;
+
+  CacheStats(long hits, long misses, long loads, long loadFailures, long refreshes, long evictions) {
+    this.hits = hits;
+    this.misses = misses;
+    this.loads = loads;
+    this.loadFailures = loadFailures;
+    this.refreshes = refreshes;
+    this.evictions = evictions;
+  }
+
+  /** Return the number of calls that returned a cached value. */
+  public long hits() {
+    return hits;
+  }
+
+  /** Return the number of calls that did not find a cached value. */
+  public long misses() {
+    return misses;
+  }
+
+  /** Return the ratio of hits to calls, 1 when there have been no calls. */
+  public double hitRate() {
+    final long requests = hits + misses;
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  /**
+   * Return the number of invocations of the method to load a value. This is less than the
+   * number of misses when concurrent misses for the same key share a load.
+   */
+  public long loads() {
+    return loads;
+  }
+
+  /** Return the number of loads and refreshes that failed. */
+  public long loadFailures() {
+    return loadFailures;
+  }
+
+  /** Return the number of refreshes started. */
+  public long refreshes() {
+    return refreshes;
+  }
+
+  /** Return the number of entries evicted due to the maximum size. */
+  public long evictions() {
+    return evictions;
+  }
+
+  @Override
+  public String toString() {
+    return "hits=" + hits
+      + ", misses=" + misses
+      + ", loads=" + loads
+      + ", loadFailures=" + loadFailures
+      + ", refreshes=" + refreshes
+      + ", evictions=" + evictions;
+  }
+}
@@ -0,0 +1,59 @@
+package io.avaje.inject.aop.cache;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache the results of the method keyed by the method arguments.
+ * <p>
+ * Concurrent calls with the same arguments that miss the cache invoke the method once with the
+ * other callers waiting for and sharing that result. Exceptions are not cached.
+ * <p>
+ * For methods returning {@code CompletionStage} the stage itself is cached, removed if it
+ * completes exceptionally, and refreshed asynchronously such that the current stage continues to
+ * be returned until the refreshed stage completes successfully.
+ * <p>
+ * The caches are available via {@link CachedAspect#caches()}.
+ *
+ * <pre>{@code
+ *
+ *   @Cached(maxSize = 1000, expireAfterWrite = 10, timeUnit = TimeUnit.MINUTES)
+ *   public Customer customer(long id) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(ordering = 3000)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cached {
+
+  /**
+   * The maximum number of entries. When exceeded the entries used least frequently are evicted.
+   */
+  long maxSize() default 10_000;
+
+  /**
+   * The time after an entry is written that it expires, 0 for no expiry.
+   */
+  long expireAfterWrite() default 0;
+
+  /**
+   * The time after an entry is written that it is refreshed, 0 for no refresh.
+   * <p>
+   * The first call after this time invokes the method to refresh the entry while other callers
+   * continue to get the current value.
+   */
+  long refreshAfterWrite() default 0;
+
+  /**
+   * The unit of {@link #expireAfterWrite()} and {@link #refreshAfterWrite()}.
+   */
+  TimeUnit timeUnit() default TimeUnit.SECONDS;
+}
@@ -0,0 +1,42 @@
+package io.avaje.inject.aop.cache;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Provides the {@link MethodCache} for {@link Cached} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<Cached>} and can be injected as that
+ * type to obtain the caches, for example to report their statistics. A {@code MethodCache} is
+ * created when the proxied method is first invoked.
+ */
+public final class CachedAspect implements AspectProvider<Cached> {
+
+  private final List<MethodCache> caches = new CopyOnWriteArrayList<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Cached cached) {
+    if (method.getReturnType() == void.class) {
+      throw new IllegalStateException("@Cached is not supported on void method " + method);
+    }
+    final var unit = cached.timeUnit();
+    final var cache = new MethodCache(method, cached.maxSize(), unit.toNanos(cached.expireAfterWrite()), unit.toNanos(cached.refreshAfterWrite()));
+    return cache.registerOnFirstUse(this);
+  }
+
+  void register(MethodCache cache) {
+    caches.add(cache);
+  }
+
+  /**
+   * Return the caches of the methods invoked so far.
+   */
+  public List<MethodCache> caches() {
+    return Collections.unmodifiableList(caches);
+  }
+}
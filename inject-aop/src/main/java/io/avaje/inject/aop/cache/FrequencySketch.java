@@ -0,0 +1,93 @@
+package io.avaje.inject.aop.cache;
+
+/**
+ * Count-min sketch estimating how often keys are used, in the style of TinyLFU.
+ * <p>
+ * Each key is counted in 4 saturating 4-bit counters packed into longs. When the number of
+ * increments reaches 10 times the maximum size all counters are halved such that the estimate
+ * favours recent use.
+ * <p>
+ * Updates are not synchronised. Concurrent increments can be lost which is acceptable for an
+ * estimate.
+ */
+final class FrequencySketch {
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(long maxSize) {
+    final int max = (int) Math.min(Math.max(maxSize, 16), 1 << 30);
+    this.table = new long[Integer.highestOneBit(max - 1) << 1];
+    this.tableMask = table.length - 1;
+    this.sampleSize = (int) Math.min(10L * max, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Return the estimated number of times the key was used, at most 15.
+   */
+  int frequency(Object key) {
+    final int hash = spread(key.hashCode());
+    int frequency = 15;
+    for (int i = 0; i < 4; i++) {
+      final int shift = counterOffset(hash, i) << 2;
+      frequency = Math.min(frequency, (int) ((table[indexOf(hash, i)] >>> shift) & 0xfL));
+    }
+    return frequency;
+  }
+
+  /**
+   * Increment the estimated number of times the key was used.
+   */
+  void increment(Object key) {
+    final int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    final int shift = counter << 2;
+    final long mask = 0xfL << shift;
+    final long current = table[index];
+    if ((current & mask) != mask) {
+      table[index] = current + (1L << shift);
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int counterOffset(int hash, int i) {
+    return (hash >>> (i << 3)) & 0xf;
+  }
+
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,351 @@
+package io.avaje.inject.aop.cache;
+
+import io.avaje.inject.aop.ArgumentsKey;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The cache of a {@link Cached} method.
+ * <p>
+ * Entries are held in a concurrent map bounded by the maximum size. When the maximum size is
+ * exceeded a sample of the oldest entries is taken and the entry with the lowest estimated
+ * frequency of use is evicted, the others being moved to the back of the queue. Misses for the
+ * same key are loaded once with concurrent callers sharing the result.
+ * <p>
+ * For methods returning a {@link CompletionStage} the stage returned by the method is cached and
+ * each caller is given a copy of it.
+ * <p>
+ * Replaced, expired and invalidated entries are removed from the queue when the queue grows past
+ * twice the maximum size, such that the queue stays bounded when the cache does not need to evict.
+ */
+public final class MethodCache implements MethodInterceptor {
+
+  private static final int EVICTION_SAMPLE = 4;
+  private static final int PURGE_FACTOR = 2;
+  private static final AtomicReferenceFieldUpdater<MethodCache, CachedAspect> ASPECT =
+    AtomicReferenceFieldUpdater.newUpdater(MethodCache.class, CachedAspect.class, "aspect");
+
+  private final Method method;
+  private final long maxSize;
+  private final long expireNanos;
+  private final long refreshNanos;
+  private final boolean async;
+  private final ConcurrentHashMap<Object, Node> map = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Object, CompletableFuture<Node>> loading = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Node> order = new ConcurrentLinkedQueue<>();
+  private final AtomicLong queued = new AtomicLong();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final FrequencySketch sketch;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private volatile CachedAspect aspect;
+
+  MethodCache(Method method, long maxSize, long expireNanos, long refreshNanos) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("@Cached maxSize must be greater than 0 on " + method);
+    }
+    this.method = method;
+    this.maxSize = maxSize;
+    this.expireNanos = expireNanos;
+    this.refreshNanos = refreshNanos;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    this.sketch = new FrequencySketch(maxSize);
+  }
+
+  /**
+   * Return the cached method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the number of entries including any that have expired but not yet been removed.
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * Return a snapshot of the statistics.
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), refreshes.sum(), evictions.sum());
+  }
+
+  /**
+   * Remove the entry for the given method arguments.
+   */
+  public void invalidate(Object... args) {
+    map.remove(ArgumentsKey.ofArguments(args));
+  }
+
+  /**
+   * Remove all the entries.
+   */
+  public void invalidateAll() {
+    map.clear();
+    while (dequeue() != null) {
+      // discard
+    }
+  }
+
+  /**
+   * Return the number of nodes in the eviction queue, including replaced and removed entries that
+   * have not yet been purged.
+   */
+  long queued() {
+    return queued.get();
+  }
+
+  /**
+   * Register with the aspect on first invocation, such that a cache of a chain that lost the
+   * race to be published is never listed.
+   */
+  MethodCache registerOnFirstUse(CachedAspect aspect) {
+    this.aspect = aspect;
+    return this;
+  }
+
+  @Override
+  public void invoke(Invocation invocation) throws Throwable {
+    final CachedAspect unregistered = aspect;
+    if (unregistered != null && ASPECT.compareAndSet(this, unregistered, null)) {
+      unregistered.register(this);
+    }
+    final Object value = get(ArgumentsKey.of(invocation), invocation);
+    // each caller gets its own future such that completing or cancelling it does not affect the cache
+    invocation.result(async && value != null ? ((CompletionStage<?>) value).toCompletableFuture().copy() : value);
+  }
+
+  private Object get(Object key, Invocation invocation) throws Throwable {
+    sketch.increment(key);
+    final Node node = map.get(key);
+    if (node != null) {
+      final long now = System.nanoTime();
+      if (!expired(node, now)) {
+        hits.increment();
+        if (refreshNanos > 0 && now - node.writeNanos >= refreshNanos) {
+          return refresh(node, invocation);
+        }
+        return node.value;
+      }
+      map.remove(key, node);
+    }
+    misses.increment();
+    return load(key, invocation);
+  }
+
+  private boolean expired(Node node, long now) {
+    return expireNanos > 0 && now - node.writeNanos >= expireNanos;
+  }
+
+  private Object load(Object key, Invocation invocation) throws Throwable {
+    final var flight = new CompletableFuture<Node>();
+    final var existing = loading.putIfAbsent(key, flight);
+    if (existing != null) {
+      return await(existing).value;
+    }
+    try {
+      Node node = map.get(key);
+      if (node == null || expired(node, System.nanoTime())) {
+        node = put(key, loadValue(invocation));
+      }
+      flight.complete(node);
+      return node.value;
+    } catch (Throwable e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, flight);
+    }
+  }
+
+  private static Node await(CompletableFuture<Node> flight) throws Throwable {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private Object loadValue(Invocation invocation) throws Throwable {
+    loads.increment();
+    try {
+      return invocation.invoke();
+    } catch (Throwable e) {
+      loadFailures.increment();
+      throw e;
+    }
+  }
+
+  private Node put(Object key, Object value) {
+    final var node = new Node(key, value, System.nanoTime());
+    map.put(key, node);
+    enqueue(node);
+    if (async && value != null) {
+      ((CompletionStage<?>) value).whenComplete((result, e) -> {
+        if (e != null) {
+          loadFailures.increment();
+          map.remove(key, node);
+        }
+      });
+    }
+    if (map.size() > maxSize) {
+      evict();
+    }
+    return node;
+  }
+
+  private Object refresh(Node node, Invocation invocation) {
+    if (!node.refreshing.compareAndSet(false, true)) {
+      return node.value;
+    }
+    refreshes.increment();
+    final Object value;
+    try {
+      value = loadValue(invocation);
+    } catch (Throwable e) {
+      // continue with the current value, the next call refreshes again
+      node.refreshing.set(false);
+      return node.value;
+    }
+    if (async && value != null) {
+      ((CompletionStage<?>) value).whenComplete((result, e) -> {
+        if (e == null) {
+          replace(node, value);
+        } else {
+          loadFailures.increment();
+          node.refreshing.set(false);
+        }
+      });
+      return node.value;
+    }
+    return replace(node, value).value;
+  }
+
+  private Node replace(Node node, Object value) {
+    final var fresh = new Node(node.key, value, System.nanoTime());
+    if (map.replace(node.key, node, fresh)) {
+      enqueue(fresh);
+    }
+    return fresh;
+  }
+
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      // another thread is evicting
+      return;
+    }
+    try {
+      final var sample = new Node[EVICTION_SAMPLE];
+      while (map.size() > maxSize) {
+        int count = 0;
+        while (count < EVICTION_SAMPLE) {
+          final Node node = dequeue();
+          if (node == null) {
+            break;
+          }
+          if (map.get(node.key) == node) {
+            sample[count++] = node;
+          }
+        }
+        if (count == 0) {
+          return;
+        }
+        int victim = 0;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+          final int frequency = sketch.frequency(sample[i].key);
+          if (frequency < victimFrequency) {
+            victim = i;
+            victimFrequency = frequency;
+          }
+        }
+        if (map.remove(sample[victim].key, sample[victim])) {
+          evictions.increment();
+        }
+        for (int i = 0; i < count; i++) {
+          if (i != victim) {
+            enqueue(sample[i]);
+          }
+          sample[i] = null;
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void enqueue(Node node) {
+    order.add(node);
+    if (queued.incrementAndGet() > PURGE_FACTOR * maxSize) {
+      purge();
+    }
+  }
+
+  private Node dequeue() {
+    final Node node = order.poll();
+    if (node != null) {
+      queued.decrementAndGet();
+    }
+    return node;
+  }
+
+  /**
+   * Remove the nodes of replaced and removed entries from the queue.
+   */
+  private void purge() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      final Iterator<Node> it = order.iterator();
+      while (it.hasNext()) {
+        final Node node = it.next();
+        if (map.get(node.key) != node) {
+          it.remove();
+          queued.decrementAndGet();
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MethodCache{" + method.getDeclaringClass().getSimpleName() + '.' + method.getName() + ", size=" + size() + ", " + stats() + '}';
+  }
+
+  private static final class Node {
+
+    final Object key;
+    final Object value;
+    final long writeNanos;
+    final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Node(Object key, Object value, long writeNanos) {
+      this.key = key;
+      this.value = value;
+      this.writeNanos = writeNanos;
+    }
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Built-in method result caching aspect.
+ * <p>
+ * Annotate a method with {@link io.avaje.inject.aop.cache.Cached @Cached} to cache its results
+ * keyed by the method arguments.
+ */
+package io.avaje.inject.aop.cache;
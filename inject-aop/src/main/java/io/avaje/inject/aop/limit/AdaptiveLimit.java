@@ -0,0 +1,128 @@
+package io.avaje.inject.aop.limit;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit updated from the latency of completed invocations.
+ * <p>
+ * The limit is read without locking while updates are serialised with a lock that, unlike
+ * {@code synchronized}, does not pin virtual threads.
+ */
+abstract class AdaptiveLimit {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final int minLimit;
+  private final int maxLimit;
+  private volatile int limit;
+
+  AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = initialLimit;
+  }
+
+  static AdaptiveLimit of(ConcurrencyLimit config) {
+    if (config.algorithm() == ConcurrencyLimit.Algorithm.AIMD) {
+      return new AimdLimit(config.initialLimit(), config.minLimit(), config.maxLimit(), config.latencyThresholdMillis() * 1_000_000);
+    }
+    return new GradientLimit(config.initialLimit(), config.minLimit(), config.maxLimit());
+  }
+
+  /**
+   * Return the current limit.
+   */
+  final int limit() {
+    return limit;
+  }
+
+  /**
+   * Update the limit given the latency of a completed invocation.
+   *
+   * @param latencyNanos the latency of the invocation
+   * @param inflight     the number of invocations in flight including this one
+   */
+  final void sample(long latencyNanos, int inflight) {
+    lock.lock();
+    try {
+      limit = (int) clamp(update(latencyNanos, inflight));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Return the new estimate of the limit, called holding the lock.
+   */
+  abstract double update(long latencyNanos, int inflight);
+
+  final double clamp(double estimate) {
+    return Math.max(minLimit, Math.min(maxLimit, estimate));
+  }
+
+  /**
+   * Additive increase multiplicative decrease limit.
+   */
+  static final class AimdLimit extends AdaptiveLimit {
+
+    private static final double BACKOFF = 0.9;
+
+    private final long thresholdNanos;
+    private double estimate;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, long thresholdNanos) {
+      super(initialLimit, minLimit, maxLimit);
+      this.thresholdNanos = thresholdNanos;
+      this.estimate = initialLimit;
+    }
+
+    @Override
+    double update(long latencyNanos, int inflight) {
+      if (latencyNanos > thresholdNanos) {
+        estimate = clamp(estimate * BACKOFF);
+      } else if (inflight * 2 >= estimate) {
+        estimate = clamp(estimate + 1);
+      }
+      return estimate;
+    }
+  }
+
+  /**
+   * Gradient limit comparing the current latency to the long term average latency.
+   * <p>
+   * The gradient {@code longLatency / latency} is 1 while the latency is stable and falls as the
+   * latency increases due to queuing. The new limit is the limit scaled by the gradient plus
+   * headroom of the square root of the limit to probe for more capacity, smoothed with the prior
+   * limit. The limit is not increased while less than half of it is in use.
+   */
+  static final class GradientLimit extends AdaptiveLimit {
+
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private double estimate;
+    private double longLatency;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+      super(initialLimit, minLimit, maxLimit);
+      this.estimate = initialLimit;
+    }
+
+    @Override
+    double update(long latencyNanos, int inflight) {
+      final double latency = Math.max(1, latencyNanos);
+      if (longLatency == 0) {
+        longLatency = latency;
+      } else {
+        longLatency += (latency - longLatency) * LONG_WINDOW_ALPHA;
+      }
+      final double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatency / latency));
+      final double next = estimate * gradient + Math.sqrt(estimate);
+      if (next > estimate && inflight * 2 < estimate) {
+        return estimate;
+      }
+      estimate = clamp(estimate * (1 - SMOOTHING) + next * SMOOTHING);
+      return estimate;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package io.avaje.inject.aop.limit;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bound the number of concurrent invocations of the method by a limit that adapts to the observed
+ * latency of the invocations.
+ * <p>
+ * An invocation over the limit is rejected with a {@link LimitExceededException} or, when
+ * {@link #maxQueue()} is greater than 0, waits up to {@link #maxWaitMillis()} for an invocation to
+ * complete. A rejected invocation is given to the {@code @AOPFallback} method when there is one.
+ * For methods returning {@code CompletionStage} the invocation is in flight until the returned
+ * stage completes and a rejection without fallback is returned as a failed stage.
+ * <p>
+ * The limiters are available via {@link ConcurrencyLimitAspect#limiters()}.
+ *
+ * <pre>{@code
+ *
+ *   @ConcurrencyLimit(maxLimit = 50, maxQueue = 20, maxWaitMillis = 50)
+ *   public Quote quote(String symbol) {
+ *     ...
+ *   }
+ *
+ * }</pre>
+ */
+@Aspect(ordering = 1500)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimit {
+
+  /**
+   * The algorithm adapting the limit.
+   */
+  Algorithm algorithm() default Algorithm.GRADIENT;
+
+  /**
+   * The limit before any latency has been observed.
+   */
+  int initialLimit() default 20;
+
+  /**
+   * The lowest the limit can be reduced to.
+   */
+  int minLimit() default 1;
+
+  /**
+   * The highest the limit can be increased to.
+   */
+  int maxLimit() default 200;
+
+  /**
+   * The maximum number of invocations waiting for the limit, 0 to reject invocations over the
+   * limit immediately.
+   */
+  int maxQueue() default 0;
+
+  /**
+   * The maximum time an invocation waits for the limit before it is rejected.
+   */
+  long maxWaitMillis() default 100;
+
+  /**
+   * For {@link Algorithm#AIMD} the latency above which the limit is reduced.
+   */
+  long latencyThresholdMillis() default 1000;
+
+  /**
+   * The algorithm adapting the limit.
+   */
+  enum Algorithm {
+
+    /**
+     * Additive increase multiplicative decrease. The limit is increased by 1 when the latency is
+     * below {@link #latencyThresholdMillis()} and the limit is being used, and reduced by 10% when
+     * the latency is above it.
+     */
+    AIMD,
+
+    /**
+     * The limit follows the ratio of the long term average latency to the current latency, such
+     * that it is reduced as the latency increases with queuing and grows while the latency is
+     * stable.
+     */
+    GRADIENT
+  }
+}
@@ -0,0 +1,38 @@
+package io.avaje.inject.aop.limit;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides the {@link MethodLimiter} for {@link ConcurrencyLimit} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<ConcurrencyLimit>} and can be injected
+ * as that type to obtain the limit, in flight and rejection metrics of each method.
+ */
+public final class ConcurrencyLimitAspect implements AspectProvider<ConcurrencyLimit> {
+
+  private final List<MethodLimiter> limiters = new CopyOnWriteArrayList<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, ConcurrencyLimit config) {
+    if (config.minLimit() < 1 || config.minLimit() > config.initialLimit() || config.initialLimit() > config.maxLimit()) {
+      throw new IllegalStateException("@ConcurrencyLimit requires 1 <= minLimit <= initialLimit <= maxLimit on " + method);
+    }
+    final var limiter = new MethodLimiter(method, AdaptiveLimit.of(config), Math.max(0, config.maxQueue()), TimeUnit.MILLISECONDS.toNanos(config.maxWaitMillis()));
+    limiters.add(limiter);
+    return limiter;
+  }
+
+  /**
+   * Return the limiters of the methods invoked so far.
+   */
+  public List<MethodLimiter> limiters() {
+    return Collections.unmodifiableList(limiters);
+  }
+}
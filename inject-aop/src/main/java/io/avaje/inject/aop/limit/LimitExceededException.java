@@ -0,0 +1,25 @@
+package io.avaje.inject.aop.limit;
+
+/**
+ * Thrown when an invocation of a {@link ConcurrencyLimit} method is rejected.
+ * <p>
+ * This does not fill in its stack trace such that rejecting invocations under overload is cheap.
+ */
+public final class LimitExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int limit;
+
+  public LimitExceededException(String message, int limit) {
+    super(message, null, false, false);
+    this.limit = limit;
+  }
+
+  /**
+   * Return the limit at the time of the rejection.
+   */
+  public int limit() {
+    return limit;
+  }
+}
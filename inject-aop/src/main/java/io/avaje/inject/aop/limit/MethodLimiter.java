@@ -0,0 +1,190 @@
+package io.avaje.inject.aop.limit;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The adaptive concurrency limit of a {@link ConcurrencyLimit} method.
+ * <p>
+ * Invocations are admitted by incrementing the in flight count while it is below the limit. When
+ * queuing is enabled invocations over the limit park until an invocation completes or the wait
+ * times out, which does not pin virtual threads.
+ */
+public final class MethodLimiter implements MethodInterceptor {
+
+  private final Method method;
+  private final boolean async;
+  private final AdaptiveLimit limit;
+  private final int maxQueue;
+  private final long maxWaitNanos;
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder rejections = new LongAdder();
+
+  MethodLimiter(Method method, AdaptiveLimit limit, int maxQueue, long maxWaitNanos) {
+    this.method = method;
+    this.limit = limit;
+    this.maxQueue = maxQueue;
+    this.maxWaitNanos = maxWaitNanos;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    if (async && !method.getReturnType().isAssignableFrom(CompletableFuture.class)) {
+      throw new IllegalStateException("@ConcurrencyLimit supports CompletionStage and CompletableFuture return types but not " + method);
+    }
+  }
+
+  /**
+   * Return the method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the current limit.
+   */
+  public int limit() {
+    return limit.limit();
+  }
+
+  /**
+   * Return the number of invocations in flight.
+   */
+  public int inflight() {
+    return inflight.get();
+  }
+
+  /**
+   * Return the number of invocations waiting for the limit.
+   */
+  public int waiting() {
+    return waiting.get();
+  }
+
+  /**
+   * Return the number of invocations.
+   */
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Return the number of rejected invocations.
+   */
+  public long rejections() {
+    return rejections.sum();
+  }
+
+  @Override
+  public void invoke(Invocation invocation) throws Throwable {
+    calls.increment();
+    if (!tryAcquire() && !awaitAcquire()) {
+      reject(invocation);
+      return;
+    }
+    final long start = System.nanoTime();
+    final Object result;
+    try {
+      result = invocation.invoke();
+    } catch (Throwable e) {
+      release(start);
+      throw e;
+    }
+    if (async && result != null) {
+      ((CompletionStage<?>) result).whenComplete((value, e) -> release(start));
+    } else {
+      release(start);
+    }
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      final int current = inflight.get();
+      if (current >= limit.limit()) {
+        return false;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private boolean awaitAcquire() {
+    if (!enterQueue()) {
+      return false;
+    }
+    final Thread thread = Thread.currentThread();
+    waiters.add(thread);
+    boolean acquired = false;
+    try {
+      final long deadline = System.nanoTime() + maxWaitNanos;
+      while (!(acquired = tryAcquire())) {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || thread.isInterrupted()) {
+          return false;
+        }
+        LockSupport.parkNanos(this, remaining);
+      }
+      return true;
+    } finally {
+      waiters.remove(thread);
+      waiting.decrementAndGet();
+      if (!acquired) {
+        signal();
+      }
+    }
+  }
+
+  private boolean enterQueue() {
+    while (true) {
+      final int current = waiting.get();
+      if (current >= maxQueue) {
+        return false;
+      }
+      if (waiting.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void release(long start) {
+    final int current = inflight.getAndDecrement();
+    limit.sample(System.nanoTime() - start, current);
+    signal();
+  }
+
+  private void signal() {
+    final Thread next = waiters.peek();
+    if (next != null && inflight.get() < limit.limit()) {
+      LockSupport.unpark(next);
+    }
+  }
+
+  private void reject(Invocation invocation) {
+    rejections.increment();
+    final int current = limit.limit();
+    final var e = new LimitExceededException(method.getName() + " concurrency limit of " + current + " exceeded", current);
+    if (invocation.hasRecoveryMethod()) {
+      invocation.result(invocation.invokeRecoveryMethod(e));
+    } else if (async) {
+      invocation.result(CompletableFuture.failedFuture(e));
+    } else {
+      throw e;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MethodLimiter{" + method.getDeclaringClass().getSimpleName() + '.' + method.getName()
+      + ", limit=" + limit() + ", inflight=" + inflight() + ", waiting=" + waiting() + ", rejections=" + rejections() + '}';
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Built-in adaptive concurrency limit aspect.
+ * <p>
+ * Annotate a method with {@link io.avaje.inject.aop.limit.ConcurrencyLimit @ConcurrencyLimit} to
+ * bound its concurrent invocations by a limit that adapts to the observed latency.
+ */
+package io.avaje.inject.aop.limit;
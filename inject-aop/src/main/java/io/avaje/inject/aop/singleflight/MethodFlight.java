@@ -0,0 +1,146 @@
+package io.avaje.inject.aop.singleflight;
+
+import io.avaje.inject.aop.ArgumentsKey;
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The in-flight executions of a {@link SingleFlight} method keyed by the method arguments.
+ */
+public final class MethodFlight implements MethodInterceptor {
+
+  private final Method method;
+  private final boolean async;
+  private final ConcurrentHashMap<Object, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder executions = new LongAdder();
+
+  MethodFlight(Method method) {
+    this.method = method;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+    if (async && !method.getReturnType().isAssignableFrom(CompletableFuture.class)) {
+      throw new IllegalStateException("@SingleFlight supports CompletionStage and CompletableFuture return types but not " + method);
+    }
+  }
+
+  /**
+   * Return the method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the number of invocations.
+   */
+  public long calls() {
+    return calls.sum();
+  }
+
+  /**
+   * Return the number of executions of the underlying method.
+   */
+  public long executions() {
+    return executions.sum();
+  }
+
+  /**
+   * Return the number of invocations that shared the execution of another invocation.
+   */
+  public long coalesced() {
+    return calls() - executions();
+  }
+
+  /**
+   * Return the ratio of coalesced invocations to all invocations, 0 when there have been none.
+   */
+  public double coalescingRatio() {
+    final long executed = executions.sum();
+    final long called = calls.sum();
+    return called == 0 ? 0 : (double) (called - executed) / called;
+  }
+
+  /**
+   * Return the number of executions currently in flight.
+   */
+  public int inflight() {
+    return inflight.size();
+  }
+
+  @Override
+  public void invoke(Invocation invocation) throws Throwable {
+    calls.increment();
+    final Object key = ArgumentsKey.of(invocation);
+    final var flight = new CompletableFuture<Object>();
+    final var existing = inflight.putIfAbsent(key, flight);
+    if (existing != null) {
+      invocation.result(async ? existing.copy() : await(existing));
+    } else if (async) {
+      executeAsync(key, flight, invocation);
+    } else {
+      execute(key, flight, invocation);
+    }
+  }
+
+  private void execute(Object key, CompletableFuture<Object> flight, Invocation invocation) throws Throwable {
+    executions.increment();
+    try {
+      flight.complete(invocation.invoke());
+    } catch (Throwable e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inflight.remove(key, flight);
+    }
+  }
+
+  private void executeAsync(Object key, CompletableFuture<Object> flight, Invocation invocation) throws Throwable {
+    executions.increment();
+    final Object stage;
+    try {
+      stage = invocation.invoke();
+    } catch (Throwable e) {
+      inflight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+    if (stage == null) {
+      inflight.remove(key, flight);
+      flight.complete(null);
+      return;
+    }
+    ((CompletionStage<?>) stage).whenComplete((value, e) -> {
+      inflight.remove(key, flight);
+      if (e != null) {
+        flight.completeExceptionally(unwrap(e));
+      } else {
+        flight.complete(value);
+      }
+    });
+  }
+
+  private static Object await(CompletableFuture<Object> flight) throws Throwable {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  @Override
+  public String toString() {
+    return "MethodFlight{" + method.getDeclaringClass().getSimpleName() + '.' + method.getName()
+      + ", calls=" + calls() + ", executions=" + executions() + ", coalescingRatio=" + coalescingRatio() + '}';
+  }
+}
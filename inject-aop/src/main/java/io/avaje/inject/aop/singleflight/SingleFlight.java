@@ -0,0 +1,25 @@
+package io.avaje.inject.aop.singleflight;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent invocations of the method with equal arguments share one in-flight execution and
+ * its result or exception.
+ * <p>
+ * Use on idempotent methods such as remote lookups. For methods returning
+ * {@code CompletionStage} the execution is in flight until the returned stage completes, with the
+ * other callers given a copy of the stage.
+ * <p>
+ * The statistics are available via {@link SingleFlightAspect#flights()}.
+ */
+@Aspect(ordering = 2500)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+}
@@ -0,0 +1,34 @@
+package io.avaje.inject.aop.singleflight;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Provides the {@link MethodFlight} for {@link SingleFlight} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<SingleFlight>} and can be injected as
+ * that type to obtain the statistics of each method such as the coalescing ratio.
+ */
+public final class SingleFlightAspect implements AspectProvider<SingleFlight> {
+
+  private final List<MethodFlight> flights = new CopyOnWriteArrayList<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, SingleFlight singleFlight) {
+    final var flight = new MethodFlight(method);
+    flights.add(flight);
+    return flight;
+  }
+
+  /**
+   * Return the single flight methods invoked so far.
+   */
+  public List<MethodFlight> flights() {
+    return Collections.unmodifiableList(flights);
+  }
+}
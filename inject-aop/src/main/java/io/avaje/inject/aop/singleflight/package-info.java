@@ -0,0 +1,7 @@
+/**
+ * Built-in single flight aspect.
+ * <p>
+ * Annotate a method with {@link io.avaje.inject.aop.singleflight.SingleFlight @SingleFlight} such
+ * that concurrent invocations with equal arguments share one execution.
+ */
+package io.avaje.inject.aop.singleflight;
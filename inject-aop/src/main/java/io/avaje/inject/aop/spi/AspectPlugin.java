@@ -0,0 +1,79 @@
+package io.avaje.inject.aop.spi;
+
+import io.avaje.inject.BeanScopeBuilder;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.async.Async;
+import io.avaje.inject.aop.async.AsyncAspect;
+import io.avaje.inject.aop.batch.Batched;
+import io.avaje.inject.aop.batch.BatchedAspect;
+import io.avaje.inject.aop.cache.Cached;
+import io.avaje.inject.aop.cache.CachedAspect;
+import io.avaje.inject.aop.limit.ConcurrencyLimit;
+import io.avaje.inject.aop.limit.ConcurrencyLimitAspect;
+import io.avaje.inject.aop.singleflight.SingleFlight;
+import io.avaje.inject.aop.singleflight.SingleFlightAspect;
+import io.avaje.inject.aop.timed.Timed;
+import io.avaje.inject.aop.timed.TimedAspect;
+import io.avaje.inject.spi.GenericType;
+import io.avaje.inject.spi.InjectPlugin;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+/**
+ * Plugin for avaje inject that provides the built-in aspects.
+ * <p>
+ * Only the aspects used by the modules of the scope are provided.
+ */
+public final class AspectPlugin implements InjectPlugin {
+
+  private static final Type ASYNC_PROVIDER = new GenericType<AspectProvider<Async>>(){}.type();
+  private static final Type BATCHED_PROVIDER = new GenericType<AspectProvider<Batched>>(){}.type();
+  private static final Type CACHED_PROVIDER = new GenericType<AspectProvider<Cached>>(){}.type();
+  private static final Type CONCURRENCY_LIMIT_PROVIDER = new GenericType<AspectProvider<ConcurrencyLimit>>(){}.type();
+  private static final Type SINGLE_FLIGHT_PROVIDER = new GenericType<AspectProvider<SingleFlight>>(){}.type();
+  private static final Type TIMED_PROVIDER = new GenericType<AspectProvider<Timed>>(){}.type();
+
+  @Override
+  public Class<?>[] providesAspects() {
+    return new Class<?>[] {Async.class, Batched.class, Cached.class, ConcurrencyLimit.class, SingleFlight.class, Timed.class};
+  }
+
+  @Override
+  public void apply(BeanScopeBuilder builder) {
+    apply(builder, null);
+  }
+
+  /**
+   * Provide the aspects used by the modules, or all the aspects when null.
+   * <p>
+   * Not annotated with {@code @Override} as this module compiles against an earlier avaje-inject
+   * that only has {@link #apply(BeanScopeBuilder)}.
+   */
+  public void apply(BeanScopeBuilder builder, Set<String> requiresAspects) {
+    if (requires(requiresAspects, Async.class)) {
+      final var async = new AsyncAspect();
+      builder.provideDefault(null, ASYNC_PROVIDER, () -> async);
+      builder.addPostConstruct(async::resolveFrom);
+    }
+    if (requires(requiresAspects, Batched.class)) {
+      builder.provideDefault(null, BATCHED_PROVIDER, BatchedAspect::new);
+    }
+    if (requires(requiresAspects, Cached.class)) {
+      builder.provideDefault(null, CACHED_PROVIDER, CachedAspect::new);
+    }
+    if (requires(requiresAspects, ConcurrencyLimit.class)) {
+      builder.provideDefault(null, CONCURRENCY_LIMIT_PROVIDER, ConcurrencyLimitAspect::new);
+    }
+    if (requires(requiresAspects, SingleFlight.class)) {
+      builder.provideDefault(null, SINGLE_FLIGHT_PROVIDER, SingleFlightAspect::new);
+    }
+    if (requires(requiresAspects, Timed.class)) {
+      builder.provideDefault(null, TIMED_PROVIDER, TimedAspect::new);
+    }
+  }
+
+  private static boolean requires(Set<String> requiresAspects, Class<?> aspect) {
+    return requiresAspects == null || requiresAspects.contains(aspect.getName());
+  }
+}
@@ -0,0 +1,84 @@
+package io.avaje.inject.aop.timed;
+
+import io.avaje.inject.aop.Invocation;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The timer of a {@link Timed} method recording the latency of each invocation in nanos.
+ */
+public final class MethodTimer implements MethodInterceptor {
+
+  private final String name;
+  private final Method method;
+  private final boolean async;
+  private final StripedHistogram histogram = new StripedHistogram();
+  private final LongAdder failures = new LongAdder();
+
+  MethodTimer(String name, Method method) {
+    this.name = name;
+    this.method = method;
+    this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+  }
+
+  /**
+   * Return the name of the timer.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the timed method.
+   */
+  public Method method() {
+    return method;
+  }
+
+  /**
+   * Return the number of invocations that threw an exception, or for methods returning
+   * {@code CompletionStage} that completed exceptionally.
+   */
+  public long failures() {
+    return failures.sum();
+  }
+
+  /**
+   * Return a snapshot of the latency of the invocations in nanos.
+   */
+  public StripedHistogram.Snapshot snapshot() {
+    return histogram.snapshot();
+  }
+
+  @Override
+  public void invoke(Invocation invocation) throws Throwable {
+    final long start = System.nanoTime();
+    final Object result;
+    try {
+      result = invocation.invoke();
+    } catch (Throwable e) {
+      record(start, true);
+      throw e;
+    }
+    if (async && result != null) {
+      ((CompletionStage<?>) result).whenComplete((value, e) -> record(start, e != null));
+    } else {
+      record(start, false);
+    }
+  }
+
+  private void record(long start, boolean failed) {
+    histogram.record(System.nanoTime() - start);
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MethodTimer{" + name + ", failures=" + failures() + ", " + snapshot() + '}';
+  }
+}
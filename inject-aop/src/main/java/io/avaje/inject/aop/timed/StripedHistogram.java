@@ -0,0 +1,164 @@
+package io.avaje.inject.aop.timed;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free, fixed bucket latency histogram striped by thread.
+ * <p>
+ * Values are counted in log-linear buckets, 8 linear sub-buckets per power of two, giving a
+ * relative error of at most 12.5% over the full range of long values. Each stripe has its own
+ * buckets, total and max such that concurrent recording threads mostly update different cells.
+ * All cells are allocated up front such that recording a value is allocation free.
+ */
+public final class StripedHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+  private static final int TOTAL = BUCKETS;
+  private static final int MAX = BUCKETS + 1;
+  /** Buckets, total and max padded such that stripes do not share a cache line. */
+  private static final int STRIDE = BUCKETS + 16;
+  private static final int MAX_STRIPES = 8;
+
+  private final AtomicLongArray cells;
+  private final int stripeMask;
+
+  public StripedHistogram() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  StripedHistogram(int parallelism) {
+    final int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, parallelism - 1)) << 1);
+    this.stripeMask = stripes - 1;
+    this.cells = new AtomicLongArray(stripes * STRIDE);
+  }
+
+  /**
+   * Record a value, typically a duration in nanos. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    final long v = Math.max(0, value);
+    final int base = stripe() * STRIDE;
+    cells.getAndIncrement(base + index(v));
+    cells.getAndAdd(base + TOTAL, v);
+    final int max = base + MAX;
+    long current;
+    while (v > (current = cells.get(max)) && !cells.compareAndSet(max, current, v)) {
+      // retry
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private int stripe() {
+    final long id = Thread.currentThread().getId();
+    return (int) ((id * 0x9e3779b97f4a7c15L) >>> 32) & stripeMask;
+  }
+
+  /**
+   * Return a snapshot of the recorded values.
+   */
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKETS];
+    long count = 0;
+    long total = 0;
+    long max = 0;
+    for (int stripe = 0; stripe <= stripeMask; stripe++) {
+      final int base = stripe * STRIDE;
+      for (int i = 0; i < BUCKETS; i++) {
+        final long c = cells.get(base + i);
+        counts[i] += c;
+        count += c;
+      }
+      total += cells.get(base + TOTAL);
+      max = Math.max(max, cells.get(base + MAX));
+    }
+    return new Snapshot(counts, count, total, max);
+  }
+
+  static int index(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+  }
+
+  /**
+   * Return the highest value counted in the bucket.
+   */
+  static long highestValue(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    final int shift = (index >>> SUB_BITS) - 1;
+    final long sub = SUB_COUNT + (index & (SUB_COUNT - 1));
+    return ((sub + 1) << shift) - 1;
+  }
+
+  /**
+   * Immutable snapshot of a {@link StripedHistogram}.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    private Snapshot(long[] counts, long count, long total, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.total = total;
+      this.max = max;
+    }
+
+    /** Return the number of recorded values. */
+    public long count() {
+      return count;
+    }
+
+    /** Return the sum of the recorded values. */
+    public long total() {
+      return total;
+    }
+
+    /** Return the mean of the recorded values. */
+    public long mean() {
+      return count == 0 ? 0 : total / count;
+    }
+
+    /** Return the maximum recorded value. */
+    public long max() {
+      return max;
+    }
+
+    /**
+     * Return the value at the given percentile, for example 99.9, within the precision of the
+     * buckets.
+     */
+    public long percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(max, highestValue(i));
+        }
+      }
+      return max;
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count
+        + ", mean=" + mean()
+        + ", p50=" + percentile(50)
+        + ", p99=" + percentile(99)
+        + ", max=" + max;
+    }
+  }
+}
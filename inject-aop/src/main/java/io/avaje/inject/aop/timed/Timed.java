@@ -0,0 +1,27 @@
+package io.avaje.inject.aop.timed;
+
+import io.avaje.inject.aop.Aspect;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Record the latency of invocations of the method.
+ * <p>
+ * For methods returning {@code CompletionStage} the latency is measured to the completion of the
+ * returned stage rather than the return of the method.
+ * <p>
+ * The timers are available via {@link TimedAspect#timers()}.
+ */
+@Aspect(ordering = 4000)
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timed {
+
+  /**
+   * The name of the timer, defaults to the simple class name and method name.
+   */
+  String name() default "";
+}
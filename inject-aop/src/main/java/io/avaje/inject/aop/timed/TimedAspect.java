@@ -0,0 +1,38 @@
+package io.avaje.inject.aop.timed;
+
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Provides the {@link MethodTimer} for {@link Timed} methods.
+ * <p>
+ * This is provided by default as the {@code AspectProvider<Timed>} and can be injected as that
+ * type to obtain the timers, for example to report their percentiles. A {@code MethodTimer} is
+ * created when the proxied method is first invoked.
+ */
+public final class TimedAspect implements AspectProvider<Timed> {
+
+  private final List<MethodTimer> timers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public MethodInterceptor interceptor(Method method, Timed timed) {
+    final String name = timed.name().isEmpty()
+      ? method.getDeclaringClass().getSimpleName() + '.' + method.getName()
+      : timed.name();
+    final var timer = new MethodTimer(name, method);
+    timers.add(timer);
+    return timer;
+  }
+
+  /**
+   * Return the timers of the methods invoked so far.
+   */
+  public List<MethodTimer> timers() {
+    return Collections.unmodifiableList(timers);
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Built-in method timing aspect.
+ * <p>
+ * Annotate a method with {@link io.avaje.inject.aop.timed.Timed @Timed} to record the latency of
+ * its invocations into a histogram.
+ */
+package io.avaje.inject.aop.timed;
@@ -1,5 +1,14 @@
 module io.avaje.inject.aop {
 
   exports io.avaje.inject.aop;
+  exports io.avaje.inject.aop.async;
+  exports io.avaje.inject.aop.batch;
+  exports io.avaje.inject.aop.cache;
+  exports io.avaje.inject.aop.limit;
+  exports io.avaje.inject.aop.singleflight;
+  exports io.avaje.inject.aop.timed;
 
+  requires static io.avaje.inject;
+
+  provides io.avaje.inject.spi.InjectExtension with io.avaje.inject.aop.spi.AspectPlugin;
 }
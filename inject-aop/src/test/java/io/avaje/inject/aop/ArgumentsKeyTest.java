@@ -0,0 +1,34 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArgumentsKeyTest {
+
+  @Test
+  void singleArgumentIsKey() {
+    assertThat(ArgumentsKey.ofArguments("a")).isEqualTo("a");
+    assertThat(ArgumentsKey.ofArguments(42L)).isEqualTo(42L);
+  }
+
+  @Test
+  void empty() {
+    assertThat(ArgumentsKey.ofArguments()).isSameAs(ArgumentsKey.ofArguments());
+  }
+
+  @Test
+  void multipleAndArrays() {
+    assertThat(ArgumentsKey.ofArguments("a", 1)).isEqualTo(ArgumentsKey.ofArguments("a", 1));
+    assertThat(ArgumentsKey.ofArguments("a", 1)).hasSameHashCodeAs(ArgumentsKey.ofArguments("a", 1));
+    assertThat(ArgumentsKey.ofArguments("a", 1)).isNotEqualTo(ArgumentsKey.ofArguments("a", 2));
+    assertThat(ArgumentsKey.ofArguments((Object) new int[] {1, 2})).isEqualTo(ArgumentsKey.ofArguments((Object) new int[] {1, 2}));
+    assertThat(ArgumentsKey.ofArguments((Object) null)).isEqualTo(ArgumentsKey.ofArguments((Object) null));
+  }
+
+  @Test
+  void fromInvocation() {
+    var call = new Invocation.Call<>(() -> "x").with(this, null, "a", 1);
+    assertThat(ArgumentsKey.of(call)).isEqualTo(ArgumentsKey.ofArguments("a", 1));
+  }
+}
@@ -0,0 +1,69 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InterceptorChainTest {
+
+  @Test
+  void lazy_resolvedOnFirstGet() {
+    var resolveCount = new AtomicInteger();
+    var lazy = InterceptorChain.lazy(() -> {
+      resolveCount.incrementAndGet();
+      Method method = InterceptorChainTest.class.getDeclaredMethod("lazy_resolvedOnFirstGet");
+      return InterceptorChain.of(method, MethodInterceptor.noop());
+    });
+    assertThat(lazy.isResolved()).isFalse();
+    assertThat(resolveCount).hasValue(0);
+
+    var chain = lazy.get();
+    assertThat(chain.isEmpty()).isTrue();
+    assertThat(chain.method().getName()).isEqualTo("lazy_resolvedOnFirstGet");
+    assertThat(lazy.isResolved()).isTrue();
+    assertThat(lazy.get()).isSameAs(chain);
+    assertThat(resolveCount).hasValue(1);
+  }
+
+  @Test
+  void lazy_concurrentFirstUsesShareOneChain() throws Exception {
+    var resolveCount = new AtomicInteger();
+    var lazy = InterceptorChain.lazy(() -> {
+      resolveCount.incrementAndGet();
+      Thread.sleep(50);
+      return InterceptorChain.of(InterceptorChainTest.class.getDeclaredMethod("lazy_concurrentFirstUsesShareOneChain"));
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      var futures = new ArrayList<Future<InterceptorChain>>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(lazy::get));
+      }
+      var chain = lazy.get();
+      for (Future<InterceptorChain> future : futures) {
+        assertThat(future.get()).isSameAs(chain);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(resolveCount.get()).isBetween(1, 5);
+  }
+
+  @Test
+  void lazy_resolveFails() {
+    var lazy = InterceptorChain.lazy(() -> InterceptorChain.of(InterceptorChainTest.class.getDeclaredMethod("missing")));
+
+    assertThatThrownBy(lazy::get)
+      .isInstanceOf(IllegalStateException.class)
+      .hasCauseInstanceOf(NoSuchMethodException.class);
+    assertThat(lazy.isResolved()).isFalse();
+  }
+}
@@ -0,0 +1,206 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvocationAsyncTest {
+
+  private final List<String> trace = new ArrayList<>();
+  private final Method fetchMethod;
+  private CompletableFuture<String> pending;
+  private int failures;
+  private boolean throwSync;
+
+  InvocationAsyncTest() {
+    try {
+      fetchMethod = InvocationAsyncTest.class.getDeclaredMethod("fetch", String.class);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  CompletableFuture<String> fetch(String key) {
+    trace.add("fetch");
+    if (throwSync) {
+      throw new IllegalArgumentException("sync");
+    }
+    if (failures-- > 0) {
+      return CompletableFuture.failedFuture(new IllegalStateException("async"));
+    }
+    return pending != null ? pending : CompletableFuture.completedFuture("value-" + key);
+  }
+
+  CompletableFuture<String> fetchFallback(String key, Throwable e) {
+    return CompletableFuture.completedFuture("fallback-" + key);
+  }
+
+  class FetchCall extends Invocation.Chained<CompletableFuture<String>> {
+
+    private final String key;
+
+    FetchCall(InterceptorChain chain, String key) {
+      super(chain, InvocationAsyncTest.this);
+      this.key = key;
+    }
+
+    @Override
+    protected CompletableFuture<String> target() {
+      return fetch(key);
+    }
+
+    @Override
+    protected Object[] createArguments() {
+      return new Object[] {key};
+    }
+  }
+
+  final class FetchCallWithFallback extends FetchCall {
+
+    FetchCallWithFallback(InterceptorChain chain, String key) {
+      super(chain, key);
+    }
+
+    @Override
+    public boolean hasRecoveryMethod() {
+      return true;
+    }
+
+    @Override
+    public Object invokeRecoveryMethod(Throwable e) {
+      var recovered = fetchFallback((String) argument(0), e);
+      result(recovered);
+      return recovered;
+    }
+  }
+
+  private CompletableFuture<String> call(FetchCall call) throws Throwable {
+    call.invoke();
+    return call.finalResult();
+  }
+
+  @Test
+  void observesCompletion() throws Throwable {
+    pending = new CompletableFuture<>();
+    AsyncMethodInterceptor completion = invocation -> {
+      trace.add("before");
+      return invocation.proceed().whenComplete((result, e) -> trace.add("completed " + result));
+    };
+    var chain = InterceptorChain.of(fetchMethod, completion, new Inter("inner"));
+
+    var result = call(new FetchCall(chain, "a"));
+    assertThat(trace).containsExactly("before", "b-inner", "fetch", "a-inner");
+
+    pending.complete("done");
+    assertThat(result.join()).isEqualTo("done");
+    assertThat(trace).endsWith("completed done");
+  }
+
+  @Test
+  void retryAfterAsyncFailure() throws Throwable {
+    failures = 2;
+    var chain = InterceptorChain.of(fetchMethod, new AsyncRetry(3), new Inter("inner"));
+
+    var result = call(new FetchCall(chain, "b"));
+
+    assertThat(result.join()).isEqualTo("value-b");
+    assertThat(trace).containsExactly(
+      "b-inner", "fetch", "a-inner",
+      "b-inner", "fetch", "a-inner",
+      "b-inner", "fetch", "a-inner");
+  }
+
+  @Test
+  void synchronousThrowAsFailedStage() throws Throwable {
+    throwSync = true;
+    var chain = InterceptorChain.of(fetchMethod, (AsyncMethodInterceptor) invocation -> invocation.proceed()
+      .exceptionally(e -> "handled " + e.getMessage()));
+
+    assertThat(call(new FetchCall(chain, "c")).join()).isEqualTo("handled sync");
+  }
+
+  @Test
+  void recoverWithFallback() throws Throwable {
+    failures = 1;
+    AsyncMethodInterceptor recovering = invocation -> invocation.proceed()
+      .exceptionally(e -> null)
+      .thenCompose(value -> value != null ? CompletableFuture.completedFuture(value) : invocation.recover(new IllegalStateException()));
+    var chain = InterceptorChain.of(fetchMethod, recovering);
+
+    assertThat(call(new FetchCallWithFallback(chain, "d")).join()).isEqualTo("fallback-d");
+
+    failures = 1;
+    assertThatThrownBy(() -> call(new FetchCall(chain, "d")).join())
+      .isInstanceOf(CompletionException.class)
+      .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void legacyCallAdapted() throws Throwable {
+    failures = 1;
+    var call = new Invocation.Call<>(() -> fetch("e")).with(this, fetchMethod, "e");
+
+    new AsyncRetry(2).invoke(call);
+
+    assertThat(call.finalResult().join()).isEqualTo("value-e");
+    assertThat(trace).containsExactly("fetch", "fetch");
+  }
+
+  @Test
+  void notAsyncMethodProceeds() throws Throwable {
+    var doStuff = InvocationChainedTest.class.getDeclaredMethod("doStuff", String.class, int.class);
+    var call = new Invocation.Call<>(() -> "sync").with(this, doStuff, "a", 1);
+    AsyncMethodInterceptor never = invocation -> {
+      throw new AssertionError();
+    };
+
+    never.invoke(call);
+    assertThat(call.finalResult()).isEqualTo("sync");
+  }
+
+  static final class AsyncRetry implements AsyncMethodInterceptor {
+
+    private final int attempts;
+
+    AsyncRetry(int attempts) {
+      this.attempts = attempts;
+    }
+
+    @Override
+    public CompletionStage<?> invokeAsync(Invocation.Async invocation) {
+      return attempt(invocation, 1);
+    }
+
+    private CompletionStage<Object> attempt(Invocation.Async invocation, int attempt) {
+      return invocation.proceed()
+        .handle((value, e) -> e == null || attempt == attempts
+          ? (e == null ? CompletableFuture.completedFuture(value) : CompletableFuture.failedFuture(e))
+          : attempt(invocation, attempt + 1))
+        .thenCompose(stage -> stage);
+    }
+  }
+
+  class Inter implements MethodInterceptor {
+
+    private final String name;
+
+    Inter(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      trace.add("b-" + name);
+      invocation.invoke();
+      trace.add("a-" + name);
+    }
+  }
+}
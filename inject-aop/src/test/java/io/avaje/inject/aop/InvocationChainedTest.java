@@ -0,0 +1,210 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvocationChainedTest {
+
+  private final List<String> trace = new ArrayList<>();
+  private final Method doStuffMethod;
+  private int failures;
+
+  InvocationChainedTest() {
+    try {
+      doStuffMethod = InvocationChainedTest.class.getDeclaredMethod("doStuff", String.class, int.class);
+    } catch (NoSuchMethodException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  String doStuff(String arg, int count) {
+    trace.add("doStuff");
+    if (failures-- > 0) {
+      throw new IllegalStateException();
+    }
+    return arg + count;
+  }
+
+  final class DoStuffCall extends Invocation.Chained<String> {
+
+    private final String arg;
+    private final int count;
+
+    DoStuffCall(InterceptorChain chain, String arg, int count) {
+      super(chain, InvocationChainedTest.this);
+      this.arg = arg;
+      this.count = count;
+    }
+
+    @Override
+    protected String target() {
+      return doStuff(arg, count);
+    }
+
+    @Override
+    protected Object[] createArguments() {
+      return new Object[] {arg, count};
+    }
+
+    @Override
+    public Object argument(int index) {
+      switch (index) {
+        case 0: return arg;
+        case 1: return count;
+        default: throw new IndexOutOfBoundsException(index);
+      }
+    }
+
+    @Override
+    public int argumentCount() {
+      return 2;
+    }
+  }
+
+  @Test
+  void outerMostFirst() throws Throwable {
+    var chain = InterceptorChain.of(doStuffMethod, new Inter("outer"), new Inter("inner"));
+    var call = new DoStuffCall(chain, "a", 1);
+
+    call.invoke();
+
+    assertThat(call.finalResult()).isEqualTo("a1");
+    assertThat(trace).containsExactly("b-outer", "b-inner", "doStuff", "a-inner", "a-outer");
+    assertThat(call.method()).isSameAs(doStuffMethod);
+    assertThat(call.argument(1)).isEqualTo(1);
+    assertThat(call.arguments()).containsExactly("a", 1);
+  }
+
+  @Test
+  void emptyChain() throws Throwable {
+    var call = new DoStuffCall(InterceptorChain.of(doStuffMethod), "a", 2);
+
+    call.invoke();
+
+    assertThat(call.finalResult()).isEqualTo("a2");
+    assertThat(trace).containsExactly("doStuff");
+  }
+
+  @Test
+  void noopRemoved() throws Throwable {
+    var chain = InterceptorChain.of(doStuffMethod, MethodInterceptor.noop(), new Inter("inner"), MethodInterceptor.noop());
+    assertThat(chain.size()).isEqualTo(1);
+    assertThat(chain.isEmpty()).isFalse();
+    assertThat(InterceptorChain.of(doStuffMethod, MethodInterceptor.noop()).isEmpty()).isTrue();
+
+    var call = new DoStuffCall(chain, "a", 3);
+    call.invoke();
+
+    assertThat(call.finalResult()).isEqualTo("a3");
+    assertThat(trace).containsExactly("b-inner", "doStuff", "a-inner");
+  }
+
+  @Test
+  void retryReinvokesInnerInterceptors() throws Throwable {
+    failures = 2;
+    MethodInterceptor retry = invocation -> {
+      for (int attempt = 1; ; attempt++) {
+        try {
+          invocation.invoke();
+          return;
+        } catch (IllegalStateException e) {
+          if (attempt == 3) {
+            throw e;
+          }
+        }
+      }
+    };
+    var chain = InterceptorChain.of(doStuffMethod, retry, new Inter("inner"));
+    var call = new DoStuffCall(chain, "b", 3);
+
+    call.invoke();
+
+    assertThat(call.finalResult()).isEqualTo("b3");
+    assertThat(trace).containsExactly("b-inner", "doStuff", "b-inner", "doStuff", "b-inner", "doStuff", "a-inner");
+  }
+
+  @Test
+  void skipTarget() throws Throwable {
+    MethodInterceptor skip = invocation -> invocation.result("skipped");
+    var call = new DoStuffCall(InterceptorChain.of(doStuffMethod, skip, new Inter("inner")), "c", 4);
+
+    call.invoke();
+
+    assertThat(call.finalResult()).isEqualTo("skipped");
+    assertThat(trace).isEmpty();
+    assertThat(call.hasRecoveryMethod()).isFalse();
+    assertThatThrownBy(() -> call.invokeRecoveryMethod(new Exception())).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void detachProceedsFromNextInterceptor() throws Throwable {
+    var detached = new ArrayList<Invocation>();
+    MethodInterceptor detach = invocation -> {
+      detached.add(invocation.detach());
+      invocation.result("dispatched");
+    };
+    var call = new DoStuffCall(InterceptorChain.of(doStuffMethod, new Inter("outer"), detach, new Inter("inner")), "d", 5);
+
+    call.invoke();
+    assertThat(call.finalResult()).isEqualTo("dispatched");
+    assertThat(trace).containsExactly("b-outer", "a-outer");
+
+    assertThat(detached.get(0).invoke()).isEqualTo("d5");
+    assertThat(call.finalResult()).isEqualTo("dispatched");
+    assertThat(trace).containsExactly("b-outer", "a-outer", "b-inner", "doStuff", "a-inner");
+  }
+
+  @Test
+  void proceedLaterOnAnotherThread() throws Throwable {
+    var stored = new ArrayList<Invocation>();
+    MethodInterceptor later = invocation -> {
+      stored.add(invocation);
+      invocation.result("later");
+    };
+    var call = new DoStuffCall(InterceptorChain.of(doStuffMethod, new Inter("outer"), later, new Inter("inner")), "e", 6);
+
+    call.invoke();
+    assertThat(call.finalResult()).isEqualTo("later");
+
+    var result = CompletableFuture.supplyAsync(() -> stored.get(0).invokeUnchecked()).join();
+    assertThat(result).isEqualTo("e6");
+    assertThat(call.finalResult()).isEqualTo("later");
+    assertThat(trace).containsExactly("b-outer", "a-outer", "b-inner", "doStuff", "a-inner");
+  }
+
+  @Test
+  void outerMostProceedLater() throws Throwable {
+    var stored = new ArrayList<Invocation>();
+    MethodInterceptor later = invocation -> stored.add(invocation);
+    var call = new DoStuffCall(InterceptorChain.of(doStuffMethod, later, new Inter("inner")), "f", 7);
+
+    call.invoke();
+    assertThat(trace).isEmpty();
+
+    assertThat(CompletableFuture.supplyAsync(() -> stored.get(0).invokeUnchecked()).join()).isEqualTo("f7");
+    assertThat(trace).containsExactly("b-inner", "doStuff", "a-inner");
+  }
+
+  class Inter implements MethodInterceptor {
+
+    private final String name;
+
+    Inter(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void invoke(Invocation invocation) throws Throwable {
+      trace.add("b-" + name);
+      invocation.invoke();
+      trace.add("a-" + name);
+    }
+  }
+}
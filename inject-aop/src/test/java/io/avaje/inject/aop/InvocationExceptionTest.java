@@ -0,0 +1,31 @@
+package io.avaje.inject.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvocationExceptionTest {
+
+  @Test
+  void stackless() {
+    var marker = InvocationException.stackless("foo proxy threw exception");
+    assertThat(marker.getStackTrace()).isEmpty();
+    assertThat(marker).hasMessage("foo proxy threw exception");
+
+    marker.addSuppressed(new IllegalStateException());
+    assertThat(marker.getSuppressed()).isEmpty();
+
+    var first = new IllegalArgumentException();
+    var second = new IllegalArgumentException();
+    first.addSuppressed(marker);
+    second.addSuppressed(marker);
+    assertThat(first.getSuppressed()).containsExactly(marker);
+    assertThat(second.getSuppressed()).containsExactly(marker);
+  }
+
+  @Test
+  void full() {
+    var exception = new InvocationException("foo proxy threw exception");
+    assertThat(exception.getStackTrace()).isNotEmpty();
+  }
+}
@@ -0,0 +1,131 @@
+package io.avaje.inject.aop.async;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodDispatcherTest {
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final ThreadLocal<String> context = new ThreadLocal<>();
+  private volatile String executedOn;
+  private volatile String executedWith;
+
+  void fireAndForget() throws InterruptedException {
+    release.await(5, TimeUnit.SECONDS);
+    executedOn = Thread.currentThread().getName();
+    executedWith = context.get();
+  }
+
+  CompletableFuture<String> stage() {
+    return CompletableFuture.completedFuture("stage " + Thread.currentThread().getName());
+  }
+
+  Future<String> future() {
+    throw new IllegalStateException("failed");
+  }
+
+  private static Method method(String name) throws NoSuchMethodException {
+    return MethodDispatcherTest.class.getDeclaredMethod(name);
+  }
+
+  private MethodDispatcher dispatcher(String name, List<ContextPropagator> propagators) throws NoSuchMethodException {
+    var method = method(name);
+    return new MethodDispatcher(method, "test", executor, propagators, method.getReturnType() != void.class);
+  }
+
+  @Test
+  void voidMethod() throws Throwable {
+    ContextPropagator propagator = task -> {
+      var captured = context.get();
+      return () -> {
+        context.set(captured);
+        try {
+          task.run();
+        } finally {
+          context.remove();
+        }
+      };
+    };
+    var dispatcher = dispatcher("fireAndForget", List.of(propagator));
+    context.set("request-1");
+    try {
+      var call = new Invocation.Run(this::fireAndForget).with(this, dispatcher.method());
+      dispatcher.invoke(call);
+      assertThat(call.finalResult()).isNull();
+      while (dispatcher.active() == 0) {
+        Thread.sleep(5);
+      }
+      assertThat(dispatcher.queued()).isZero();
+
+      release.countDown();
+      executor.shutdown();
+      assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(executedOn).isNotEqualTo(Thread.currentThread().getName());
+      assertThat(executedWith).isEqualTo("request-1");
+      assertThat(dispatcher.completed()).isEqualTo(1);
+      assertThat(dispatcher.active()).isZero();
+    } finally {
+      context.remove();
+    }
+  }
+
+  @Test
+  void stageMethod() throws Throwable {
+    var dispatcher = dispatcher("stage", List.of());
+    var call = new Invocation.Call<>(this::stage).with(this, dispatcher.method());
+    dispatcher.invoke(call);
+
+    assertThat(call.finalResult().get(5, TimeUnit.SECONDS))
+      .startsWith("stage ")
+      .isNotEqualTo("stage " + Thread.currentThread().getName());
+    executor.shutdown();
+  }
+
+  @Test
+  void futureFailure() throws Throwable {
+    var dispatcher = dispatcher("future", List.of());
+    var call = new Invocation.Call<>(this::future).with(this, dispatcher.method());
+    dispatcher.invoke(call);
+
+    assertThatThrownBy(() -> call.finalResult().get(5, TimeUnit.SECONDS))
+      .hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(dispatcher.failures()).isEqualTo(1);
+    executor.shutdown();
+  }
+
+  @Test
+  void rejected() throws Throwable {
+    executor.shutdown();
+    var dispatcher = dispatcher("stage", List.of());
+    var call = new Invocation.Call<>(this::stage).with(this, dispatcher.method());
+    dispatcher.invoke(call);
+
+    assertThat(call.finalResult()).isCompletedExceptionally();
+    assertThatThrownBy(() -> call.finalResult().join()).hasCauseInstanceOf(RejectedExecutionException.class);
+    assertThat(dispatcher.queued()).isZero();
+  }
+
+  @Test
+  void unsupportedReturnType() {
+    assertThatThrownBy(() -> new AsyncAspect().interceptor(MethodDispatcherTest.class.getDeclaredMethod("unsupported"), null))
+      .isInstanceOf(IllegalStateException.class);
+  }
+
+  String unsupported() {
+    return null;
+  }
+}
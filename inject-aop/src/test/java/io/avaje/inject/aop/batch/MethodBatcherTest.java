@@ -0,0 +1,175 @@
+package io.avaje.inject.aop.batch;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodBatcherTest {
+
+  private final List<Collection<Integer>> batches = new CopyOnWriteArrayList<>();
+  private boolean fail;
+
+  @Batched(by = "findAll", maxBatch = 10, maxDelayMicros = 200_000)
+  String find(Integer id) {
+    throw new UnsupportedOperationException();
+  }
+
+  Map<Integer, String> findAll(List<Integer> ids) {
+    batches.add(ids);
+    if (fail) {
+      throw new IllegalStateException("failed");
+    }
+    return ids.stream().filter(id -> id != 0).collect(Collectors.toMap(Function.identity(), id -> "v" + id));
+  }
+
+  @Batched(by = "findList", maxBatch = 1)
+  String findPositional(Integer id) {
+    throw new UnsupportedOperationException();
+  }
+
+  List<String> findList(Set<Integer> ids) {
+    batches.add(ids);
+    return ids.stream().map(id -> "p" + id).collect(Collectors.toList());
+  }
+
+  @Batched(by = "findAsync", maxDelayMicros = 0)
+  CompletableFuture<String> async(Integer id) {
+    throw new UnsupportedOperationException();
+  }
+
+  CompletableFuture<List<String>> findAsync(Collection<Integer> ids) {
+    batches.add(ids);
+    return CompletableFuture.completedFuture(ids.stream().map(id -> "a" + id).collect(Collectors.toList()));
+  }
+
+  @Batched(by = "missing")
+  String noBatchMethod(Integer id) {
+    return null;
+  }
+
+  @Batched(by = "findAll")
+  String twoKeys(Integer id, Integer other) {
+    return null;
+  }
+
+  private MethodBatcher batcher(String name) throws NoSuchMethodException {
+    var method = MethodBatcherTest.class.getDeclaredMethod(name, Integer.class);
+    return (MethodBatcher) new BatchedAspect().interceptor(method, method.getAnnotation(Batched.class));
+  }
+
+  private Object call(MethodBatcher batcher, Integer id) throws Throwable {
+    var call = new Invocation.Call<>(() -> (Object) null).with(this, batcher.method(), id);
+    batcher.invoke(call);
+    return call.finalResult();
+  }
+
+  private List<Object> concurrentCalls(MethodBatcher batcher, Integer... ids) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(ids.length);
+    try {
+      var start = new CountDownLatch(1);
+      var futures = new ArrayList<Future<Object>>();
+      for (Integer id : ids) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          try {
+            return call(batcher, id);
+          } catch (Throwable e) {
+            return e;
+          }
+        }));
+      }
+      start.countDown();
+      var results = new ArrayList<>();
+      for (Future<Object> future : futures) {
+        results.add(future.get(5, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void batchesConcurrentCalls() throws Exception {
+    var batcher = batcher("find");
+    var results = concurrentCalls(batcher, 1, 2, 2, 0, 3);
+
+    assertThat(results).containsExactly("v1", "v2", "v2", null, "v3");
+    assertThat(batches).hasSize(1);
+    assertThat(batches.get(0)).containsExactlyInAnyOrder(0, 1, 2, 3);
+    assertThat(batcher.calls()).isEqualTo(5);
+    assertThat(batcher.batches()).isEqualTo(1);
+    assertThat(batcher.averageBatchSize()).isEqualTo(4.0);
+  }
+
+  @Test
+  void maxBatch() throws Throwable {
+    var batcher = batcher("findPositional");
+    assertThat(call(batcher, 1)).isEqualTo("p1");
+    assertThat(call(batcher, 2)).isEqualTo("p2");
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0)).isInstanceOf(Set.class);
+  }
+
+  @Test
+  void batchFailure() throws Exception {
+    fail = true;
+    var batcher = batcher("find");
+    var results = concurrentCalls(batcher, 1, 2, 3, 4);
+
+    assertThat(results).allSatisfy(result -> assertThat(result)
+      .isInstanceOf(IllegalStateException.class)
+      .hasFieldOrPropertyWithValue("message", "failed"));
+    assertThat(batches).hasSize(1);
+  }
+
+  @Test
+  void async() throws Throwable {
+    var batcher = batcher("async");
+    var call = new Invocation.Call<>(() -> (CompletableFuture<String>) null).with(this, batcher.method(), 7);
+    batcher.invoke(call);
+    assertThat(call.finalResult().join()).isEqualTo("a7");
+  }
+
+  @Test
+  void listedOnFirstInvocation() throws Throwable {
+    var method = MethodBatcherTest.class.getDeclaredMethod("findPositional", Integer.class);
+    var aspect = new BatchedAspect();
+    var used = (MethodBatcher) aspect.interceptor(method, method.getAnnotation(Batched.class));
+    aspect.interceptor(method, method.getAnnotation(Batched.class));
+    assertThat(aspect.batchers()).isEmpty();
+
+    call(used, 1);
+    call(used, 2);
+    assertThat(aspect.batchers()).containsExactly(used);
+  }
+
+  @Test
+  void invalid() {
+    assertThatThrownBy(() -> batcher("noBatchMethod"))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("no method missing");
+
+    assertThatThrownBy(() -> {
+      var method = MethodBatcherTest.class.getDeclaredMethod("twoKeys", Integer.class, Integer.class);
+      new BatchedAspect().interceptor(method, method.getAnnotation(Batched.class));
+    }).isInstanceOf(IllegalStateException.class);
+  }
+}
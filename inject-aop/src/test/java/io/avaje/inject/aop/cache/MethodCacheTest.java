@@ -0,0 +1,234 @@
+package io.avaje.inject.aop.cache;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private CountDownLatch release;
+  private CompletableFuture<String> nextStage;
+
+  String find(String name, int count) throws InterruptedException {
+    loads.incrementAndGet();
+    if (release != null) {
+      release.await(5, TimeUnit.SECONDS);
+    }
+    if (name == null) {
+      throw new IllegalArgumentException("name");
+    }
+    return name + count + ":" + loads.get();
+  }
+
+  CompletableFuture<String> findAsync(String name) {
+    loads.incrementAndGet();
+    return nextStage;
+  }
+
+  private static Method method(String name, Class<?>... types) {
+    try {
+      return MethodCacheTest.class.getDeclaredMethod(name, types);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static MethodCache findCache(long maxSize, long expireNanos, long refreshNanos) {
+    return new MethodCache(method("find", String.class, int.class), maxSize, expireNanos, refreshNanos);
+  }
+
+  private String call(MethodCache cache, String name, int count) throws Throwable {
+    var call = new Invocation.Call<>(() -> find(name, count)).with(this, cache.method(), name, count);
+    cache.invoke(call);
+    return call.finalResult();
+  }
+
+  private CompletableFuture<String> callAsync(MethodCache cache, String name) throws Throwable {
+    var call = new Invocation.Call<>(() -> findAsync(name)).with(this, cache.method(), name);
+    cache.invoke(call);
+    return call.finalResult();
+  }
+
+  @Test
+  void hitAndMiss() throws Throwable {
+    var cache = findCache(100, 0, 0);
+
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:1");
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:1");
+    assertThat(call(cache, "a", 2)).isEqualTo("a2:2");
+    assertThat(call(cache, "b", 1)).isEqualTo("b1:3");
+
+    var stats = cache.stats();
+    assertThat(stats.hits()).isEqualTo(1);
+    assertThat(stats.misses()).isEqualTo(3);
+    assertThat(stats.loads()).isEqualTo(3);
+    assertThat(stats.hitRate()).isEqualTo(0.25);
+    assertThat(cache.size()).isEqualTo(3);
+
+    cache.invalidate("a", 1);
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:4");
+    cache.invalidateAll();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void exceptionNotCached() throws Throwable {
+    var cache = findCache(100, 0, 0);
+
+    assertThatThrownBy(() -> call(cache, null, 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> call(cache, null, 1)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(loads).hasValue(2);
+    assertThat(cache.stats().loadFailures()).isEqualTo(2);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void singleFlight() throws Exception {
+    var cache = findCache(100, 0, 0);
+    release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      var started = new CountDownLatch(4);
+      var futures = new java.util.ArrayList<Future<String>>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          started.countDown();
+          try {
+            return call(cache, "x", 1);
+          } catch (Throwable e) {
+            throw new IllegalStateException(e);
+          }
+        }));
+      }
+      started.await();
+      Thread.sleep(50);
+      release.countDown();
+      for (Future<String> future : futures) {
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("x1:1");
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(loads).hasValue(1);
+    assertThat(cache.stats().loads()).isEqualTo(1);
+  }
+
+  @Test
+  void boundedKeepsFrequentlyUsed() throws Throwable {
+    var cache = findCache(10, 0, 0);
+    for (int i = 0; i < 20; i++) {
+      call(cache, "hot", 0);
+    }
+    for (int i = 1; i <= 100; i++) {
+      call(cache, "k", i);
+    }
+    assertThat(cache.size()).isLessThanOrEqualTo(10);
+    assertThat(cache.stats().evictions()).isEqualTo(91);
+
+    int before = loads.get();
+    call(cache, "hot", 0);
+    assertThat(loads).hasValue(before);
+  }
+
+  @Test
+  void expireAfterWrite() throws Throwable {
+    var cache = findCache(100, TimeUnit.MILLISECONDS.toNanos(300), 0);
+
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:1");
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:1");
+    Thread.sleep(350);
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:2");
+  }
+
+  @Test
+  void refreshAfterWrite() throws Throwable {
+    var cache = findCache(100, 0, TimeUnit.MILLISECONDS.toNanos(300));
+
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:1");
+    Thread.sleep(350);
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:2");
+    assertThat(call(cache, "a", 1)).isEqualTo("a1:2");
+    assertThat(cache.stats().refreshes()).isEqualTo(1);
+  }
+
+  @Test
+  void refreshKeepsQueueBounded() throws Throwable {
+    var cache = findCache(10, 0, 1);
+
+    for (int i = 0; i < 1_000; i++) {
+      call(cache, "a", 1);
+    }
+    assertThat(cache.stats().refreshes()).isGreaterThan(900);
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.queued()).isLessThanOrEqualTo(20);
+
+    cache.invalidateAll();
+    assertThat(cache.queued()).isZero();
+  }
+
+  @Test
+  void async_failedStageRemoved() throws Throwable {
+    var cache = new MethodCache(method("findAsync", String.class), 100, 0, 0);
+    nextStage = new CompletableFuture<>();
+
+    var first = callAsync(cache, "a");
+    var second = callAsync(cache, "a");
+    assertThat(second).isNotSameAs(first);
+    assertThat(loads).hasValue(1);
+
+    nextStage.completeExceptionally(new IllegalStateException());
+    assertThat(first).isCompletedExceptionally();
+    assertThat(second).isCompletedExceptionally();
+    assertThat(cache.size()).isZero();
+    assertThat(cache.stats().loadFailures()).isEqualTo(1);
+  }
+
+  @Test
+  void async_refreshReplacesOnCompletion() throws Throwable {
+    var cache = new MethodCache(method("findAsync", String.class), 100, 0, TimeUnit.MILLISECONDS.toNanos(300));
+    nextStage = CompletableFuture.completedFuture("one");
+    assertThat(callAsync(cache, "a").join()).isEqualTo("one");
+
+    Thread.sleep(350);
+    var refreshed = new CompletableFuture<String>();
+    nextStage = refreshed;
+    assertThat(callAsync(cache, "a").join()).isEqualTo("one");
+    assertThat(callAsync(cache, "a").join()).isEqualTo("one");
+    assertThat(loads).hasValue(2);
+
+    refreshed.complete("two");
+    assertThat(callAsync(cache, "a").join()).isEqualTo("two");
+  }
+
+  @Test
+  void async_callerCompletingFutureDoesNotAffectCache() throws Throwable {
+    var cache = new MethodCache(method("findAsync", String.class), 100, 0, 0);
+    nextStage = CompletableFuture.completedFuture("original");
+
+    var first = callAsync(cache, "a");
+    first.obtrudeValue("poisoned");
+    var pending = new MethodCache(method("findAsync", String.class), 100, 0, 0);
+    nextStage = new CompletableFuture<>();
+    var unfinished = callAsync(pending, "a");
+    unfinished.complete("poisoned");
+    callAsync(pending, "b").cancel(true);
+
+    assertThat(callAsync(cache, "a").join()).isEqualTo("original");
+    assertThat(callAsync(pending, "a")).isNotCompleted();
+    nextStage.complete("loaded");
+    assertThat(callAsync(pending, "a").join()).isEqualTo("loaded");
+    assertThat(loads).hasValue(3);
+  }
+}
@@ -0,0 +1,64 @@
+package io.avaje.inject.aop.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+
+  private static final long MILLIS = 1_000_000;
+
+  @Test
+  void aimd_increasesWhenUsed() {
+    var limit = new AdaptiveLimit.AimdLimit(10, 2, 12, 100 * MILLIS);
+    limit.sample(5 * MILLIS, 1);
+    assertThat(limit.limit()).isEqualTo(10);
+
+    limit.sample(5 * MILLIS, 5);
+    assertThat(limit.limit()).isEqualTo(11);
+    limit.sample(5 * MILLIS, 10);
+    limit.sample(5 * MILLIS, 10);
+    assertThat(limit.limit()).isEqualTo(12);
+  }
+
+  @Test
+  void aimd_decreasesOverThreshold() {
+    var limit = new AdaptiveLimit.AimdLimit(10, 2, 20, 100 * MILLIS);
+    limit.sample(200 * MILLIS, 10);
+    assertThat(limit.limit()).isEqualTo(9);
+    for (int i = 0; i < 50; i++) {
+      limit.sample(200 * MILLIS, 1);
+    }
+    assertThat(limit.limit()).isEqualTo(2);
+  }
+
+  @Test
+  void gradient_growsWhileLatencyStable() {
+    var limit = new AdaptiveLimit.GradientLimit(10, 1, 50);
+    for (int i = 0; i < 20; i++) {
+      limit.sample(10 * MILLIS, limit.limit());
+    }
+    assertThat(limit.limit()).isGreaterThan(20);
+  }
+
+  @Test
+  void gradient_notIncreasedWhenUnused() {
+    var limit = new AdaptiveLimit.GradientLimit(10, 1, 50);
+    for (int i = 0; i < 20; i++) {
+      limit.sample(10 * MILLIS, 1);
+    }
+    assertThat(limit.limit()).isEqualTo(10);
+  }
+
+  @Test
+  void gradient_reducedWhenLatencyIncreases() {
+    var limit = new AdaptiveLimit.GradientLimit(40, 1, 50);
+    for (int i = 0; i < 20; i++) {
+      limit.sample(10 * MILLIS, 40);
+    }
+    for (int i = 0; i < 20; i++) {
+      limit.sample(100 * MILLIS, 40);
+    }
+    assertThat(limit.limit()).isLessThan(20);
+  }
+}
@@ -0,0 +1,139 @@
+package io.avaje.inject.aop.limit;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodLimiterTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  String blocking() throws InterruptedException {
+    release.await(5, TimeUnit.SECONDS);
+    return "done";
+  }
+
+  CompletableFuture<String> async() {
+    return new CompletableFuture<>();
+  }
+
+  private static Method method(String name) throws NoSuchMethodException {
+    return MethodLimiterTest.class.getDeclaredMethod(name);
+  }
+
+  private static MethodLimiter limiter(Method method, int limit, int maxQueue, long maxWaitMillis) {
+    return new MethodLimiter(method, new AdaptiveLimit.AimdLimit(limit, limit, limit, Long.MAX_VALUE), maxQueue, TimeUnit.MILLISECONDS.toNanos(maxWaitMillis));
+  }
+
+  private Future<Object> submit(MethodLimiter limiter) {
+    return executor.submit(() -> {
+      var call = new Invocation.Call<>(this::blocking).with(this, limiter.method());
+      try {
+        limiter.invoke(call);
+        return call.finalResult();
+      } catch (Throwable e) {
+        return e;
+      }
+    });
+  }
+
+  private static void awaitInflight(MethodLimiter limiter, int inflight, int waiting) throws InterruptedException {
+    while (limiter.inflight() < inflight || limiter.waiting() < waiting) {
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  void fastFail() throws Throwable {
+    var limiter = limiter(method("blocking"), 2, 0, 0);
+    try {
+      var first = submit(limiter);
+      var second = submit(limiter);
+      awaitInflight(limiter, 2, 0);
+
+      var call = new Invocation.Call<>(this::blocking).with(this, limiter.method());
+      assertThatThrownBy(() -> limiter.invoke(call))
+        .isInstanceOf(LimitExceededException.class)
+        .hasMessage("blocking concurrency limit of 2 exceeded");
+      assertThat(limiter.rejections()).isEqualTo(1);
+
+      release.countDown();
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+      assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+      assertThat(limiter.inflight()).isZero();
+      assertThat(limiter.calls()).isEqualTo(3);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void queued() throws Throwable {
+    var limiter = limiter(method("blocking"), 1, 1, 5_000);
+    try {
+      var first = submit(limiter);
+      awaitInflight(limiter, 1, 0);
+      var queued = submit(limiter);
+      awaitInflight(limiter, 1, 1);
+
+      var call = new Invocation.Call<>(this::blocking).with(this, limiter.method());
+      assertThatThrownBy(() -> limiter.invoke(call)).isInstanceOf(LimitExceededException.class);
+
+      release.countDown();
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+      assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+      assertThat(limiter.waiting()).isZero();
+      assertThat(limiter.rejections()).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void queueTimeout() throws Throwable {
+    var limiter = limiter(method("blocking"), 1, 1, 20);
+    try {
+      var first = submit(limiter);
+      awaitInflight(limiter, 1, 0);
+
+      var call = new Invocation.Call<>(this::blocking).with(this, limiter.method());
+      assertThatThrownBy(() -> limiter.invoke(call)).isInstanceOf(LimitExceededException.class);
+      assertThat(limiter.waiting()).isZero();
+
+      release.countDown();
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void async_inflightUntilComplete() throws Throwable {
+    executor.shutdown();
+    var limiter = limiter(method("async"), 1, 0, 0);
+    var pending = new CompletableFuture<String>();
+
+    var call = new Invocation.Call<>(() -> pending).with(this, limiter.method());
+    limiter.invoke(call);
+    assertThat(call.finalResult()).isSameAs(pending);
+    assertThat(limiter.inflight()).isEqualTo(1);
+
+    var rejected = new Invocation.Call<>(this::async).with(this, limiter.method());
+    limiter.invoke(rejected);
+    assertThat(rejected.finalResult()).isCompletedExceptionally();
+
+    pending.complete("done");
+    assertThat(limiter.inflight()).isZero();
+  }
+}
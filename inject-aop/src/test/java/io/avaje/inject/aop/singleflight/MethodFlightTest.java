@@ -0,0 +1,173 @@
+package io.avaje.inject.aop.singleflight;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodFlightTest {
+
+  private final AtomicInteger executions = new AtomicInteger();
+  private final CountDownLatch release = new CountDownLatch(1);
+  private CompletableFuture<String> pending;
+  private boolean fail;
+
+  String lookup(String key) throws InterruptedException {
+    executions.incrementAndGet();
+    release.await(5, TimeUnit.SECONDS);
+    if (fail) {
+      throw new IllegalStateException("failed " + key);
+    }
+    return "value-" + key + "-" + executions.get();
+  }
+
+  CompletableFuture<String> lookupAsync(String key) {
+    executions.incrementAndGet();
+    return pending;
+  }
+
+  CompletionStage<String> lookupStage(String key) {
+    return pending;
+  }
+
+  private static Method method(String name) throws NoSuchMethodException {
+    return MethodFlightTest.class.getDeclaredMethod(name, String.class);
+  }
+
+  private Object call(MethodFlight flight, String key) throws Throwable {
+    var call = new Invocation.Call<>(() -> lookup(key)).with(this, flight.method(), key);
+    flight.invoke(call);
+    return call.finalResult();
+  }
+
+  private List<Future<Object>> concurrentCalls(MethodFlight flight, ExecutorService executor, String... keys) throws InterruptedException {
+    var started = new CountDownLatch(keys.length);
+    var futures = new ArrayList<Future<Object>>();
+    for (String key : keys) {
+      futures.add(executor.submit(() -> {
+        started.countDown();
+        try {
+          return call(flight, key);
+        } catch (Throwable e) {
+          return e;
+        }
+      }));
+    }
+    started.await();
+    while (flight.calls() < keys.length) {
+      Thread.sleep(5);
+    }
+    return futures;
+  }
+
+  @Test
+  void sharesExecution() throws Exception {
+    var flight = new MethodFlight(method("lookup"));
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      var futures = concurrentCalls(flight, executor, "a", "a", "a", "a", "b");
+      assertThat(flight.inflight()).isEqualTo(2);
+      release.countDown();
+      var results = new ArrayList<>();
+      for (Future<Object> future : futures) {
+        results.add(future.get(5, TimeUnit.SECONDS));
+      }
+      assertThat(results.subList(0, 4)).containsOnly(results.get(0));
+      assertThat(results.get(4)).isNotEqualTo(results.get(0));
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(executions).hasValue(2);
+    assertThat(flight.calls()).isEqualTo(5);
+    assertThat(flight.executions()).isEqualTo(2);
+    assertThat(flight.coalesced()).isEqualTo(3);
+    assertThat(flight.coalescingRatio()).isEqualTo(0.6);
+    assertThat(flight.inflight()).isZero();
+  }
+
+  @Test
+  void sharesException() throws Exception {
+    fail = true;
+    var flight = new MethodFlight(method("lookup"));
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      var futures = concurrentCalls(flight, executor, "a", "a", "a");
+      release.countDown();
+      for (Future<Object> future : futures) {
+        assertThat(future.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(IllegalStateException.class)
+          .hasFieldOrPropertyWithValue("message", "failed a");
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(executions).hasValue(1);
+  }
+
+  @Test
+  void async() throws Throwable {
+    var flight = new MethodFlight(method("lookupAsync"));
+    pending = new CompletableFuture<>();
+
+    var first = new Invocation.Call<>(() -> lookupAsync("a")).with(this, flight.method(), "a");
+    var second = new Invocation.Call<>(() -> lookupAsync("a")).with(this, flight.method(), "a");
+    flight.invoke(first);
+    flight.invoke(second);
+
+    assertThat(first.finalResult()).isSameAs(pending);
+    assertThat(second.finalResult()).isNotSameAs(pending);
+    assertThat(executions).hasValue(1);
+
+    pending.complete("done");
+    assertThat(second.finalResult().join()).isEqualTo("done");
+    assertThat(flight.inflight()).isZero();
+
+    pending = CompletableFuture.failedFuture(new IllegalStateException("boom"));
+    var third = new Invocation.Call<>(() -> lookupAsync("a")).with(this, flight.method(), "a");
+    flight.invoke(third);
+    assertThat(third.finalResult()).isCompletedExceptionally();
+    assertThat(flight.inflight()).isZero();
+    assertThat(executions).hasValue(2);
+  }
+
+  @Test
+  void completionStage() throws Throwable {
+    var flight = new MethodFlight(method("lookupStage"));
+    pending = new CompletableFuture<>();
+
+    var first = new Invocation.Call<>(() -> lookupStage("a")).with(this, flight.method(), "a");
+    var second = new Invocation.Call<>(() -> lookupStage("a")).with(this, flight.method(), "a");
+    flight.invoke(first);
+    flight.invoke(second);
+    pending.complete("done");
+
+    assertThat(second.finalResult().toCompletableFuture().join()).isEqualTo("done");
+    assertThat(flight.coalesced()).isEqualTo(1);
+  }
+
+  @Test
+  void unsupportedStageType() {
+    assertThatThrownBy(() -> new MethodFlight(MethodFlightTest.class.getDeclaredMethod("custom")))
+      .isInstanceOf(IllegalStateException.class);
+  }
+
+  CustomStage custom() {
+    return null;
+  }
+
+  abstract static class CustomStage implements CompletionStage<String> {
+  }
+}
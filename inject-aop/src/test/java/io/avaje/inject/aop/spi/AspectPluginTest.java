@@ -0,0 +1,44 @@
+package io.avaje.inject.aop.spi;
+
+import io.avaje.inject.BeanScopeBuilder;
+import io.avaje.inject.aop.AspectProvider;
+import io.avaje.inject.aop.cache.Cached;
+import io.avaje.inject.aop.timed.Timed;
+import io.avaje.inject.spi.GenericType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AspectPluginTest {
+
+  private static final Type CACHED = new GenericType<AspectProvider<Cached>>(){}.type();
+  private static final Type TIMED = new GenericType<AspectProvider<Timed>>(){}.type();
+
+  @Test
+  void providesOnlyRequiredAspects() {
+    var builder = mock(BeanScopeBuilder.class);
+    new AspectPlugin().apply(builder, Set.of(Cached.class.getName()));
+
+    verify(builder).provideDefault(isNull(), eq(CACHED), any());
+    verify(builder, never()).provideDefault(isNull(), eq(TIMED), any());
+    verify(builder, times(1)).provideDefault(any(), any(Type.class), any());
+  }
+
+  @Test
+  void providesAllWhenUnknown() {
+    var builder = mock(BeanScopeBuilder.class);
+    new AspectPlugin().apply(builder);
+
+    verify(builder).provideDefault(isNull(), eq(CACHED), any());
+    verify(builder).provideDefault(isNull(), eq(TIMED), any());
+  }
+}
@@ -0,0 +1,78 @@
+package io.avaje.inject.aop.timed;
+
+import io.avaje.inject.aop.Invocation;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodTimerTest {
+
+  private CompletableFuture<String> stage;
+
+  String work(boolean fail) throws InterruptedException {
+    Thread.sleep(5);
+    if (fail) {
+      throw new IllegalStateException();
+    }
+    return "done";
+  }
+
+  CompletableFuture<String> workAsync() {
+    return stage;
+  }
+
+  private MethodTimer timer(String method, Class<?>... types) throws NoSuchMethodException {
+    var timed = new TimedAspect();
+    var interceptor = (MethodTimer) timed.interceptor(MethodTimerTest.class.getDeclaredMethod(method, types), timed(""));
+    assertThat(timed.timers()).containsExactly(interceptor);
+    return interceptor;
+  }
+
+  @Test
+  void sync() throws Throwable {
+    var timer = timer("work", boolean.class);
+    assertThat(timer.name()).isEqualTo("MethodTimerTest.work");
+
+    timer.invoke(new Invocation.Call<>(() -> work(false)).with(this, timer.method(), false));
+    assertThatThrownBy(() -> timer.invoke(new Invocation.Call<>(() -> work(true)).with(this, timer.method(), true)))
+      .isInstanceOf(IllegalStateException.class);
+
+    var snapshot = timer.snapshot();
+    assertThat(snapshot.count()).isEqualTo(2);
+    assertThat(snapshot.percentile(50)).isGreaterThanOrEqualTo(4_000_000L);
+    assertThat(timer.failures()).isEqualTo(1);
+  }
+
+  @Test
+  void async_measuredToCompletion() throws Throwable {
+    var timer = timer("workAsync");
+    stage = new CompletableFuture<>();
+
+    timer.invoke(new Invocation.Call<>(this::workAsync).with(this, timer.method()));
+    assertThat(timer.snapshot().count()).isZero();
+
+    Thread.sleep(20);
+    stage.complete("done");
+    var snapshot = timer.snapshot();
+    assertThat(snapshot.count()).isEqualTo(1);
+    assertThat(snapshot.max()).isGreaterThanOrEqualTo(15_000_000L);
+    assertThat(timer.failures()).isZero();
+  }
+
+  private static Timed timed(String name) {
+    return new Timed() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public Class<? extends java.lang.annotation.Annotation> annotationType() {
+        return Timed.class;
+      }
+    };
+  }
+}
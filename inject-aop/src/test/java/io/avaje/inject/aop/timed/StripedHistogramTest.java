@@ -0,0 +1,58 @@
+package io.avaje.inject.aop.timed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedHistogramTest {
+
+  @Test
+  void index_highestValue() {
+    for (long value : new long[] {0, 1, 7, 8, 9, 15, 16, 1000, 123_456_789, Long.MAX_VALUE}) {
+      int index = StripedHistogram.index(value);
+      assertThat(StripedHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+      if (index > 0) {
+        assertThat(StripedHistogram.highestValue(index - 1)).isLessThan(value);
+      }
+    }
+  }
+
+  @Test
+  void percentiles() {
+    var histogram = new StripedHistogram(4);
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    var snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(1000);
+    assertThat(snapshot.max()).isEqualTo(1_000_000);
+    assertThat(snapshot.mean()).isEqualTo(500_500);
+    assertThat(snapshot.percentile(50)).isBetween(500_000L, 562_500L);
+    assertThat(snapshot.percentile(99)).isBetween(990_000L, 1_000_000L);
+    assertThat(snapshot.percentile(100)).isEqualTo(1_000_000);
+  }
+
+  @Test
+  void concurrentRecording() throws InterruptedException {
+    var histogram = new StripedHistogram(8);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int t = 0; t < 8; t++) {
+      executor.execute(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          histogram.record(i);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    var snapshot = histogram.snapshot();
+    assertThat(snapshot.count()).isEqualTo(80_000);
+    assertThat(snapshot.total()).isEqualTo(8L * (9_999L * 10_000 / 2));
+    assertThat(snapshot.max()).isEqualTo(9_999);
+  }
+}
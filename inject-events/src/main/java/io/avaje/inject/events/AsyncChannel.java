@@ -0,0 +1,405 @@
+package io.avaje.inject.events;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, partitioned delivery channel for an asynchronous observer.
+ * <p>
+ * Events are queued into one of a fixed number of partitions, each a bounded ring buffer. The
+ * partition is chosen from the partition key of the event (see {@link ObserverManager#partitionBy}),
+ * such that events with the same key are delivered in the order they were fired while different
+ * partitions are drained in parallel on the {@link ObserverManager#asyncExecutor()}.
+ * <p>
+ * When a partition is full the {@link OverflowPolicy} determines what happens to the new event.
+ *
+ * <pre>{@code
+ *
+ *   public void onOrder(@ObservesAsync(capacity = 1024, partitions = 8) OrderEvent event) { ... }
+ *
+ * }</pre>
+ */
+public final class AsyncChannel {
+
+  /** Maximum events drained by a partition before yielding the executor thread. */
+  private static final int DRAIN_BATCH = 256;
+
+  private final int capacity;
+  private final OverflowPolicy overflow;
+  private final Partition[] partitions;
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder callerRuns = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private AsyncChannel(int capacity, int partitions, OverflowPolicy overflow) {
+    this.capacity = capacity;
+    this.overflow = overflow;
+    this.partitions = new Partition[partitions];
+    for (int i = 0; i < partitions; i++) {
+      this.partitions[i] = new Partition(capacity);
+    }
+  }
+
+  /**
+   * Create a channel with the given capacity per partition, number of partitions and overflow
+   * policy.
+   *
+   * @param capacity  the maximum number of queued events per partition
+   * @param partitions the number of partitions
+   * @param overflow  what to do when a partition is full
+   */
+  public static AsyncChannel bounded(int capacity, int partitions, OverflowPolicy overflow) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("AsyncChannel capacity must be positive but was " + capacity);
+    }
+    if (partitions < 1) {
+      throw new IllegalArgumentException("AsyncChannel partitions must be positive but was " + partitions);
+    }
+    return new AsyncChannel(capacity, partitions, overflow);
+  }
+
+  /**
+   * Return the maximum number of queued events per partition.
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Return the number of partitions.
+   */
+  public int partitions() {
+    return partitions.length;
+  }
+
+  /**
+   * Return the overflow policy.
+   */
+  public OverflowPolicy overflow() {
+    return overflow;
+  }
+
+  /**
+   * Return the number of events currently queued across all partitions.
+   */
+  public int depth() {
+    int depth = 0;
+    for (Partition partition : partitions) {
+      depth += partition.queue.size();
+    }
+    return depth;
+  }
+
+  /**
+   * Return a snapshot of the channel metrics.
+   *
+   * @param eventType the type of event the observer observes
+   * @param qualifier the qualifier of the observer
+   */
+  public Metrics metrics(Type eventType, String qualifier) {
+    return new Metrics(this, eventType, qualifier);
+  }
+
+  /**
+   * Queue the event for delivery to the observer method returning a future that completes when
+   * the observer has processed (or the channel has dropped) the event.
+   */
+  <T> CompletableFuture<Void> offer(Observer<T> observer, T event, Object partitionKey, Executor executor) {
+    var task = new Task<>(observer, event);
+    partitions[index(partitionKey)].offer(task, executor);
+    return task;
+  }
+
+  private int index(Object partitionKey) {
+    if (partitionKey == null || partitions.length == 1) {
+      return 0;
+    }
+    int h = partitionKey.hashCode();
+    return Math.floorMod(h ^ (h >>> 16), partitions.length);
+  }
+
+  private void deliver(Task<?> task) {
+    final long wait = System.nanoTime() - task.queuedNanos;
+    waitNanos.add(wait);
+    if (wait > maxWaitNanos.get()) {
+      maxWaitNanos.accumulateAndGet(wait, Math::max);
+    }
+    try {
+      task.observer.queueWait(task.queuedNanos);
+      task.deliver();
+      delivered.increment();
+      task.complete(null);
+    } catch (Throwable e) {
+      // an Error must not leave the partition scheduled with nothing draining it
+      failed.increment();
+      task.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * A single partition, a bounded ring buffer drained by at most one executor task at a time.
+   */
+  private final class Partition implements Runnable {
+
+    private final ArrayBlockingQueue<Task<?>> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Executor executor;
+    private volatile Thread drainThread;
+
+    Partition(int capacity) {
+      this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void offer(Task<?> task, Executor executor) {
+      this.executor = executor;
+      task.queuedNanos = System.nanoTime();
+      if (!queue.offer(task) && !overflow(task)) {
+        return;
+      }
+      enqueued.increment();
+      schedule();
+    }
+
+    /**
+     * Apply the overflow policy returning true if the task was queued.
+     */
+    private boolean overflow(Task<?> task) {
+      switch (overflow) {
+        case DROP_OLDEST:
+          while (!queue.offer(task)) {
+            var oldest = queue.poll();
+            if (oldest != null) {
+              dropped.increment();
+              oldest.completeExceptionally(new DroppedException());
+            }
+          }
+          return true;
+        case CALLER_RUNS:
+          callerRuns.increment();
+          deliver(task);
+          return false;
+        default:
+          if (drainThread == Thread.currentThread()) {
+            // an observer of this partition firing into it would wait for itself to drain
+            callerRuns.increment();
+            deliver(task);
+            return false;
+          }
+          try {
+            queue.put(task);
+            return true;
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.completeExceptionally(e);
+            return false;
+          }
+      }
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        try {
+          executor.execute(this);
+        } catch (RejectedExecutionException e) {
+          scheduled.set(false);
+          throw e;
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      drainThread = Thread.currentThread();
+      try {
+        drain();
+      } finally {
+        drainThread = null;
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        for (int i = 0; i < DRAIN_BATCH; i++) {
+          var task = queue.poll();
+          if (task == null) {
+            scheduled.set(false);
+            // re-check for an event queued after the poll but before the flag was cleared
+            if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+              return;
+            }
+          } else {
+            deliver(task);
+          }
+        }
+        // yield the executor thread to other work
+        try {
+          executor.execute(this);
+          return;
+        } catch (RejectedExecutionException e) {
+          // keep draining on this thread rather than leave the partition scheduled
+        }
+      }
+    }
+  }
+
+  /**
+   * Return true if the exception completed the future of an event discarded by
+   * {@link OverflowPolicy#DROP_OLDEST}.
+   */
+  static boolean isDropped(Throwable e) {
+    return (e instanceof CompletionException ? e.getCause() : e) instanceof DroppedException;
+  }
+
+  /**
+   * Completes the future of an event discarded by {@link OverflowPolicy#DROP_OLDEST} such that it
+   * is not mistaken for a delivered event.
+   */
+  static final class DroppedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    DroppedException() {
+      super("Event dropped by OverflowPolicy.DROP_OLDEST", null, false, false);
+    }
+  }
+
+  /**
+   * A queued event, completed once delivered to the observer.
+   */
+  private static final class Task<T> extends CompletableFuture<Void> {
+
+    private final Observer<T> observer;
+    private final T event;
+    private long queuedNanos;
+
+    Task(Observer<T> observer, T event) {
+      this.observer = observer;
+      this.event = event;
+    }
+
+    void deliver() {
+      observer.invoke(event);
+    }
+  }
+
+  /**
+   * Snapshot of the metrics for an {@link AsyncChannel}.
+   */
+  public static final class Metrics {
+
+    private final Type eventType;
+    private final String qualifier;
+    private final int capacity;
+    private final int partitions;
+    private final int depth;
+    private final long enqueued;
+    private final long delivered;
+    private final long dropped;
+    private final long callerRuns;
+    private final long failed;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    private Metrics(AsyncChannel channel, Type eventType, String qualifier) {
+      this.eventType = eventType;
+      this.qualifier = qualifier;
+      this.capacity = channel.capacity;
+      this.partitions = channel.partitions.length;
+      this.depth = channel.depth();
+      this.enqueued = channel.enqueued.sum();
+      this.delivered = channel.delivered.sum();
+      this.dropped = channel.dropped.sum();
+      this.callerRuns = channel.callerRuns.sum();
+      this.failed = channel.failed.sum();
+      this.totalWaitNanos = channel.waitNanos.sum();
+      this.maxWaitNanos = channel.maxWaitNanos.get();
+    }
+
+    /** Return the type of event the observer observes. */
+    public Type eventType() {
+      return eventType;
+    }
+
+    /** Return the qualifier of the observer. */
+    public String qualifier() {
+      return qualifier;
+    }
+
+    /** Return the maximum number of queued events per partition. */
+    public int capacity() {
+      return capacity;
+    }
+
+    /** Return the number of partitions. */
+    public int partitions() {
+      return partitions;
+    }
+
+    /** Return the number of events queued at the time of the snapshot. */
+    public int depth() {
+      return depth;
+    }
+
+    /** Return the number of events that have been queued. */
+    public long enqueued() {
+      return enqueued;
+    }
+
+    /** Return the number of events successfully processed by the observer. */
+    public long delivered() {
+      return delivered;
+    }
+
+    /** Return the number of events discarded by {@link OverflowPolicy#DROP_OLDEST}. */
+    public long dropped() {
+      return dropped;
+    }
+
+    /** Return the number of events delivered on the firing thread by {@link OverflowPolicy#CALLER_RUNS}. */
+    public long callerRuns() {
+      return callerRuns;
+    }
+
+    /** Return the number of events where the observer threw an exception. */
+    public long failed() {
+      return failed;
+    }
+
+    /** Return the mean time in nanos events waited in the queue before delivery. */
+    public long meanWaitNanos() {
+      final long count = delivered + failed;
+      return count == 0 ? 0 : totalWaitNanos / count;
+    }
+
+    /** Return the maximum time in nanos an event waited in the queue before delivery. */
+    public long maxWaitNanos() {
+      return maxWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "AsyncChannel.Metrics{eventType=" + eventType.getTypeName()
+        + ", qualifier='" + qualifier + '\''
+        + ", depth=" + depth
+        + ", enqueued=" + enqueued
+        + ", delivered=" + delivered
+        + ", dropped=" + dropped
+        + ", callerRuns=" + callerRuns
+        + ", failed=" + failed
+        + ", meanWaitNanos=" + meanWaitNanos()
+        + ", maxWaitNanos=" + maxWaitNanos
+        + '}';
+    }
+  }
+}
@@ -2,11 +2,12 @@ package io.avaje.inject.events;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 /**
  * Allows the application to fire events of a particular type.
@@ -36,10 +37,10 @@ import java.util.concurrent.CompletionStage;
  */
 public abstract class Event<T> {
 
-  private static final Comparator<Observer<?>> PRIORITY = Comparator.comparing(Observer::priority);
-
   protected final List<Observer<T>> observers;
   protected final String defaultQualifier;
+  private final ObserverManager manager;
+  private final Type type;
 
   protected Event(ObserverManager manager, Type type) {
     this(manager, type, "");
@@ -48,6 +49,8 @@ public abstract class Event<T> {
   protected Event(ObserverManager manager, Type type, String qualifier) {
     this.observers = manager.observersByType(type);
     this.defaultQualifier = qualifier;
+    this.manager = manager;
+    this.type = type;
   }
 
   /**
@@ -57,9 +60,15 @@ public abstract class Event<T> {
    * @param event the event object
    */
   public void fire(T event, String qualifier) {
-    observers.stream()
-        .sorted(PRIORITY)
-        .forEach(observer -> observer.observe(event, qualifier, false));
+    for (Observer<T> observer : observers) {
+      if (observer.coalescer() == null) {
+        observer.observe(event, qualifier, false);
+      } else if (observer.matches(event, qualifier, false)) {
+        // delivered on the async executor once the coalescing window closes
+        observer.observeCoalesced(event, coalesceKey(event), manager.coalesceMerge(type), manager.partitionKey(type),
+          manager.asyncExecutor(), manager.uncaughtExceptionHandler());
+      }
+    }
   }
 
   /**
@@ -72,22 +81,76 @@ public abstract class Event<T> {
    */
   public CompletionStage<T> fireAsync(T event, String qualifier) {
     var exceptionHandler = new CollectingExceptionHandler();
-
-    return observers.stream()
-      .sorted(PRIORITY)
-      .reduce(CompletableFuture.<Void>completedFuture(null), (future, observer) ->
-          future.thenRunAsync(() -> {
-            try {
-              observer.observe(event, qualifier, true);
-            } catch (Exception e) {
+    var executor = manager.asyncExecutor();
+    final long fired = System.nanoTime();
+    final EventJournal<T> journal = manager.journal(type);
+    final long offset = journal == null ? -1 : journal.append(event, qualifier, observers);
+    CompletableFuture<Void> sequential = CompletableFuture.completedFuture(null);
+    List<CompletableFuture<Void>> channelled = null;
+    for (Observer<T> observer : observers) {
+      if (!observer.matches(event, qualifier, true)) {
+        continue;
+      }
+      if (observer.coalescer() != null || observer.channel() != null) {
+        // coalesced or bounded channel, delivered independently of the priority ordered observers
+        if (channelled == null) {
+          channelled = new ArrayList<>();
+        }
+        var stage = observer.coalescer() != null
+          ? observer.observeCoalesced(event, coalesceKey(event), manager.coalesceMerge(type), manager.partitionKey(type), executor, null)
+          : observer.observeChannel(event, partitionKey(event), executor);
+        if (journal != null) {
+          // a coalesced event may have been merged and a dropped event is not retried
+          final boolean retry = observer.coalescer() == null;
+          stage = stage.handle((v, e) -> {
+            if (e == null) {
+              journal.ack(observer, offset);
+            } else if (!journal.failed(observer, offset, event, e, retry && !AsyncChannel.isDropped(e))) {
+              throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            return null;
+          });
+        }
+        channelled.add(stage.exceptionally(e -> {
+          if (!AsyncChannel.isDropped(e)) {
+            exceptionHandler.handle(e);
+          }
+          return null;
+        }));
+      } else {
+        sequential = sequential.thenRunAsync(() -> {
+          try {
+            observer.queueWait(fired);
+            observer.observe(event, qualifier, true);
+            if (journal != null) {
+              journal.ack(observer, offset);
+            }
+          } catch (Exception e) {
+            if (journal == null || !journal.failed(observer, offset, event, e, true)) {
               exceptionHandler.handle(e);
             }
-          }),
-        (future1, future2) -> future1)
-      .thenApply(v -> {
-        handleExceptions(exceptionHandler);
-        return event;
-      });
+          }
+        }, executor);
+      }
+    }
+    if (channelled != null) {
+      channelled.add(sequential);
+      sequential = CompletableFuture.allOf(channelled.toArray(new CompletableFuture[0]));
+    }
+    return sequential.thenApply(v -> {
+      handleExceptions(exceptionHandler);
+      return event;
+    });
+  }
+
+  private Object partitionKey(T event) {
+    Function<? super T, ?> keyExtractor = manager.partitionKey(type);
+    return keyExtractor == null ? null : keyExtractor.apply(event);
+  }
+
+  private Object coalesceKey(T event) {
+    Function<? super T, ?> keyExtractor = manager.coalesceKey(type);
+    return keyExtractor == null ? null : keyExtractor.apply(event);
   }
 
   /**
@@ -112,21 +175,23 @@ public abstract class Event<T> {
 
   private static final class CollectingExceptionHandler {
 
-    private final List<Exception> throwables;
+    private final List<Throwable> throwables;
 
     CollectingExceptionHandler() {
-      this(new ArrayList<>());
+      this(Collections.synchronizedList(new ArrayList<>()));
     }
 
-    CollectingExceptionHandler(List<Exception> throwables) {
+    CollectingExceptionHandler(List<Throwable> throwables) {
       this.throwables = throwables;
     }
 
-    void handle(Exception throwable) {
-      throwables.add(throwable);
+    void handle(Throwable throwable) {
+      throwables.add(throwable instanceof CompletionException && throwable.getCause() != null
+        ? throwable.getCause()
+        : throwable);
     }
 
-    List<Exception> handledExceptions() {
+    List<Throwable> handledExceptions() {
       return throwables;
     }
   }
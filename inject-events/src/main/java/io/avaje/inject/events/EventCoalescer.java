@@ -0,0 +1,235 @@
+package io.avaje.inject.events;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Coalesces bursts of events for an observer.
+ * <p>
+ * The first event for a coalescing key (see {@link ObserverManager#coalesceBy}) opens a window.
+ * Further events with the same key fired before the window closes are merged into the pending
+ * event, by default keeping the latest. When the window closes the merged event is delivered to
+ * the observer on the {@link ObserverManager#asyncExecutor()}.
+ *
+ * <pre>{@code
+ *
+ *   public void onConfig(@Observes(coalesceMillis = 50) ConfigChanged event) { ... }
+ *
+ * }</pre>
+ */
+public final class EventCoalescer {
+
+  /** Key used for events when no coalescing key extractor is registered. */
+  private static final Object NO_KEY = new Object();
+
+  private final long windowMillis;
+  private final ConcurrentHashMap<Object, Pending<?>> pending = new ConcurrentHashMap<>();
+  private final LongAdder received = new LongAdder();
+  private final LongAdder collapsed = new LongAdder();
+  private final LongAdder delivered = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  EventCoalescer(long windowMillis) {
+    if (windowMillis < 1) {
+      throw new IllegalArgumentException("Coalescing window must be positive but was " + windowMillis);
+    }
+    this.windowMillis = windowMillis;
+  }
+
+  /**
+   * Return the coalescing window in milliseconds.
+   */
+  public long windowMillis() {
+    return windowMillis;
+  }
+
+  /**
+   * Return the number of keys with an open window.
+   */
+  public int pending() {
+    return pending.size();
+  }
+
+  /**
+   * Return a snapshot of the coalescing metrics.
+   *
+   * @param eventType the type of event the observer observes
+   * @param qualifier the qualifier of the observer
+   */
+  public Metrics metrics(Type eventType, String qualifier) {
+    return new Metrics(this, eventType, qualifier);
+  }
+
+  /**
+   * Merge the event into the pending event for its key, opening a window if there is none.
+   * <p>
+   * Returns a future that completes when the merged event has been delivered to the observer. The
+   * partition key of a bounded channel is extracted from the merged event. When given, the uncaught
+   * handler is passed the exception of a failed delivery once per window.
+   */
+  @SuppressWarnings("unchecked")
+  <T> CompletableFuture<Void> offer(Observer<T> observer, T event, Object key, BinaryOperator<T> merge,
+                                    Function<? super T, ?> partitionBy, Executor executor,
+                                    Consumer<Throwable> uncaught) {
+    received.increment();
+    final Object coalesceKey = key == null ? NO_KEY : key;
+    Pending<T> result = (Pending<T>) pending.compute(coalesceKey, (k, existing) -> {
+      if (existing == null) {
+        var created = new Pending<>(event);
+        if (uncaught != null) {
+          created.whenComplete((v, e) -> {
+            if (e != null && !AsyncChannel.isDropped(e)) {
+              uncaught.accept(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+          });
+        }
+        Timer.INSTANCE.schedule(() -> flush(observer, k, created, partitionBy, executor), windowMillis, TimeUnit.MILLISECONDS);
+        return created;
+      }
+      var current = (Pending<T>) existing;
+      current.event = merge == null ? event : merge.apply(current.event, event);
+      collapsed.increment();
+      return current;
+    });
+    return result;
+  }
+
+  private <T> void flush(Observer<T> observer, Object key, Pending<T> window, Function<? super T, ?> partitionBy, Executor executor) {
+    if (!pending.remove(key, window)) {
+      return;
+    }
+    try {
+      observer.deliverCoalesced(window.event, partitionBy, executor)
+        .whenComplete((v, e) -> complete(window, e));
+    } catch (RuntimeException e) {
+      complete(window, e);
+    }
+  }
+
+  private void complete(Pending<?> window, Throwable e) {
+    if (e == null) {
+      delivered.increment();
+      window.complete(null);
+    } else {
+      if (!AsyncChannel.isDropped(e)) {
+        failed.increment();
+      }
+      window.completeExceptionally(e);
+    }
+  }
+
+  /**
+   * The merged event of an open window, completed once delivered to the observer.
+   */
+  private static final class Pending<T> extends CompletableFuture<Void> {
+
+    /** Guarded by the map entry, read by the flush after removal from the map. */
+    private T event;
+
+    Pending(T event) {
+      this.event = event;
+    }
+  }
+
+  /**
+   * Shared timer closing the windows. Delivery is handed off to the async executor such that the
+   * timer thread never runs observer code.
+   */
+  private static final class Timer {
+
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+      var thread = new Thread(r, "avaje-event-coalescer");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Snapshot of the metrics for an {@link EventCoalescer}.
+   */
+  public static final class Metrics {
+
+    private final Type eventType;
+    private final String qualifier;
+    private final long windowMillis;
+    private final int pending;
+    private final long received;
+    private final long collapsed;
+    private final long delivered;
+    private final long failed;
+
+    private Metrics(EventCoalescer coalescer, Type eventType, String qualifier) {
+      this.eventType = eventType;
+      this.qualifier = qualifier;
+      this.windowMillis = coalescer.windowMillis;
+      this.pending = coalescer.pending.size();
+      this.received = coalescer.received.sum();
+      this.collapsed = coalescer.collapsed.sum();
+      this.delivered = coalescer.delivered.sum();
+      this.failed = coalescer.failed.sum();
+    }
+
+    /** Return the type of event the observer observes. */
+    public Type eventType() {
+      return eventType;
+    }
+
+    /** Return the qualifier of the observer. */
+    public String qualifier() {
+      return qualifier;
+    }
+
+    /** Return the coalescing window in milliseconds. */
+    public long windowMillis() {
+      return windowMillis;
+    }
+
+    /** Return the number of keys with an open window at the time of the snapshot. */
+    public int pending() {
+      return pending;
+    }
+
+    /** Return the number of events fired to the observer. */
+    public long received() {
+      return received;
+    }
+
+    /** Return the number of events merged into an already pending event. */
+    public long collapsed() {
+      return collapsed;
+    }
+
+    /** Return the number of merged events successfully processed by the observer. */
+    public long delivered() {
+      return delivered;
+    }
+
+    /** Return the number of merged events where the observer threw an exception. */
+    public long failed() {
+      return failed;
+    }
+
+    @Override
+    public String toString() {
+      return "EventCoalescer.Metrics{eventType=" + eventType.getTypeName()
+        + ", qualifier='" + qualifier + '\''
+        + ", windowMillis=" + windowMillis
+        + ", pending=" + pending
+        + ", received=" + received
+        + ", collapsed=" + collapsed
+        + ", delivered=" + delivered
+        + ", failed=" + failed
+        + '}';
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package io.avaje.inject.events;
+
+/**
+ * Serialises events to and from bytes for an {@link EventJournal}.
+ *
+ * @param <T> the type of the event
+ */
+public interface EventCodec<T> {
+
+  /**
+   * Encode the event to bytes.
+   */
+  byte[] encode(T event);
+
+  /**
+   * Decode the event from the bytes produced by {@link #encode(Object)}.
+   */
+  T decode(byte[] bytes);
+}
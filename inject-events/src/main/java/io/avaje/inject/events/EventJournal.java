@@ -0,0 +1,574 @@
+package io.avaje.inject.events;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.avaje.applog.AppLog;
+
+/**
+ * Durable, append-only journal of the events of a type delivered to asynchronous observers.
+ * <p>
+ * Events are encoded using the {@link EventCodec} and appended to memory-mapped segment files in
+ * the journal directory. The delivery position of each observer, identified by its
+ * {@link Observer#name()} which must be given explicitly for observers registered by hand, is tracked in a position file such that events fired but not yet
+ * delivered when the process stopped are replayed when the journal is next registered with the
+ * {@link ObserverManager}. A new segment is started when the active segment is full, and segments
+ * that have been delivered to all observers are deleted.
+ * <p>
+ * When an observer throws an exception for an event it is invoked again, up to
+ * {@link #maxAttempts(int)} times in total. An event that still fails is passed to the
+ * {@link DeadLetterHandler} and the position of the observer moves past it, such that a failing
+ * observer does not hold back compaction or have the event replayed on every restart.
+ * <p>
+ * The journal relies on memory-mapped files and must be on a local filesystem. Appended events
+ * survive the process being killed; use {@link #force()} to also survive the machine failing.
+ *
+ * <pre>{@code
+ *
+ *   @PostConstruct
+ *   void durableOrders(ObserverManager manager) {
+ *     manager.journal(OrderEvent.class, EventJournal.open(Path.of("/var/lib/app/orders"), new OrderCodec()));
+ *   }
+ *
+ * }</pre>
+ *
+ * @param <T> the type of the event
+ */
+public final class EventJournal<T> implements AutoCloseable {
+
+  /** The default segment size of 16MB. */
+  public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  /** The default number of times an observer is invoked with an event before it is dead lettered. */
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+  private static final System.Logger log = AppLog.getLogger("io.avaje.inject.events");
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String POSITION_SUFFIX = ".pos";
+
+  private final Path directory;
+  private final EventCodec<T> codec;
+  private final int segmentSize;
+  private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+  private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  private volatile DeadLetterHandler<T> deadLetterHandler = (observer, event, error) ->
+    log.log(System.Logger.Level.ERROR, "Observer " + observer.name() + " failed to process journaled event " + event, error);
+
+  /** Guarded by this. */
+  private long activeBase;
+  /** Guarded by this. */
+  private MappedByteBuffer active;
+  /** The offset of the next appended event. */
+  private volatile long end;
+
+  private EventJournal(Path directory, EventCodec<T> codec, int segmentSize) throws IOException {
+    this.directory = directory;
+    this.codec = codec;
+    this.segmentSize = segmentSize;
+    final var segments = segments();
+    this.activeBase = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+    this.active = map(activeBase);
+    int pos = 0;
+    while (pos + Integer.BYTES <= segmentSize) {
+      final int length = active.getInt(pos);
+      if (length <= 0) {
+        break;
+      }
+      pos += Integer.BYTES + length;
+    }
+    active.position(pos);
+    this.end = activeBase + pos;
+  }
+
+  /**
+   * Open the journal in the given directory using the default segment size.
+   *
+   * @param directory the local directory holding the journal files
+   * @param codec     the codec used to serialise the events
+   */
+  public static <T> EventJournal<T> open(Path directory, EventCodec<T> codec) {
+    return open(directory, codec, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Open the journal in the given directory.
+   * <p>
+   * The segment size must not change between runs and must be larger than the largest encoded
+   * event.
+   *
+   * @param directory   the local directory holding the journal files
+   * @param codec       the codec used to serialise the events
+   * @param segmentSize the size in bytes of each segment file
+   */
+  public static <T> EventJournal<T> open(Path directory, EventCodec<T> codec, int segmentSize) {
+    if (segmentSize < 64) {
+      throw new IllegalArgumentException("EventJournal segmentSize must be at least 64 but was " + segmentSize);
+    }
+    try {
+      Files.createDirectories(directory);
+      return new EventJournal<>(directory, codec, segmentSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Set the number of times an observer is invoked with an event before the event is passed to the
+   * dead letter handler. Defaults to {@link #DEFAULT_MAX_ATTEMPTS}.
+   * <p>
+   * The attempts are made immediately one after the other on the delivering thread.
+   */
+  public EventJournal<T> maxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("EventJournal maxAttempts must be positive but was " + maxAttempts);
+    }
+    this.maxAttempts = maxAttempts;
+    return this;
+  }
+
+  /**
+   * Set the handler of events an observer failed to process, or that a bounded channel discarded
+   * via {@link OverflowPolicy#DROP_OLDEST}. Defaults to logging the event and exception.
+   * <p>
+   * Once the handler returns the event counts as delivered to the observer.
+   */
+  public EventJournal<T> deadLetterHandler(DeadLetterHandler<T> deadLetterHandler) {
+    this.deadLetterHandler = deadLetterHandler;
+    return this;
+  }
+
+  /**
+   * Return the directory holding the journal files.
+   */
+  public Path directory() {
+    return directory;
+  }
+
+  /**
+   * Return the size in bytes of each segment.
+   */
+  public int segmentSize() {
+    return segmentSize;
+  }
+
+  /**
+   * Return the offset the next event is appended at.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Return the delivery position of the given observer, the offset of the first event it has not
+   * been delivered.
+   */
+  public long position(Observer<?> observer) {
+    return cursor(observer).position();
+  }
+
+  /**
+   * Append the event for delivery to the matching asynchronous observers returning its offset.
+   */
+  long append(T event, String qualifier, List<Observer<T>> observers) {
+    final byte[] payload = codec.encode(event);
+    final byte[] qualifierBytes = qualifier.getBytes(UTF_8);
+    final int length = Short.BYTES + qualifierBytes.length + payload.length;
+    if (Integer.BYTES + length > segmentSize) {
+      throw new IllegalArgumentException("Event of " + length + " bytes exceeds the EventJournal segmentSize " + segmentSize);
+    }
+    synchronized (this) {
+      int pos = active.position();
+      if (pos + Integer.BYTES + length > segmentSize) {
+        roll();
+        pos = 0;
+      }
+      final long offset = activeBase + pos;
+      active.position(pos + Integer.BYTES);
+      active.putShort((short) qualifierBytes.length).put(qualifierBytes).put(payload);
+      // length written last such that a partially written event is never read
+      active.putInt(pos, length);
+      for (Observer<T> observer : observers) {
+        if (observer.matches(event, qualifier, true)) {
+          cursor(observer).inflight.add(offset);
+        }
+      }
+      end = offset + Integer.BYTES + length;
+      return offset;
+    }
+  }
+
+  /**
+   * Acknowledge successful delivery of the event at the given offset to the observer.
+   * <p>
+   * Events that are not acknowledged hold back the position of the observer such that they are
+   * replayed when the journal is next registered.
+   */
+  void ack(Observer<?> observer, long offset) {
+    final var cursor = cursors.get(observer.name());
+    if (cursor != null) {
+      cursor.ack(offset);
+    }
+  }
+
+  /**
+   * Handle the failed delivery of the event at the given offset returning true if a retry delivered
+   * the event to the observer.
+   * <p>
+   * When retry is true the observer is invoked again for the remaining attempts. An event that is
+   * still not delivered is passed to the dead letter handler and acknowledged.
+   */
+  boolean failed(Observer<T> observer, long offset, T event, Throwable error, boolean retry) {
+    if (retry && maxAttempts > 1 && deliver(observer, event, maxAttempts - 1) == null) {
+      ack(observer, offset);
+      return true;
+    }
+    deadLetter(observer, event, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+    ack(observer, offset);
+    return false;
+  }
+
+  /**
+   * Invoke the observer up to the given number of attempts returning the exception if all failed.
+   */
+  private RuntimeException deliver(Observer<T> observer, T event, int attempts) {
+    RuntimeException failure = null;
+    for (int i = 0; i < attempts; i++) {
+      try {
+        observer.invoke(event);
+        return null;
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        } else if (failure != e) {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    return failure;
+  }
+
+  private void deadLetter(Observer<T> observer, T event, Throwable error) {
+    try {
+      deadLetterHandler.deadLetter(observer, event, error);
+    } catch (RuntimeException e) {
+      log.log(System.Logger.Level.ERROR, "DeadLetterHandler failed for observer " + observer.name(), e);
+    }
+  }
+
+  /**
+   * Replay the events that have not been delivered to the given asynchronous observers.
+   * <p>
+   * Each observer is given its events in order on the executor. Events an observer fails to process
+   * are passed to the dead letter handler and the returned future completes exceptionally.
+   */
+  public CompletableFuture<Void> replay(List<Observer<T>> observers, Executor executor) {
+    final List<CompletableFuture<Void>> replays = new ArrayList<>();
+    for (Observer<T> observer : observers) {
+      if (observer.isAsync()) {
+        replays.add(replay(observer, executor));
+      }
+    }
+    return CompletableFuture.allOf(replays.toArray(new CompletableFuture[0]));
+  }
+
+  private CompletableFuture<Void> replay(Observer<T> observer, Executor executor) {
+    final var cursor = cursor(observer);
+    final long to = end;
+    final long from = cursor.startReplay();
+    if (from >= to) {
+      cursor.endReplay();
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(() -> {
+      RuntimeException failure = null;
+      try {
+        long offset = from;
+        while (offset < to) {
+          final var record = read(offset);
+          if (record == null) {
+            offset = next(offset);
+            continue;
+          }
+          if (observer.qualifier().equalsIgnoreCase(record.qualifier)) {
+            final T event = codec.decode(record.payload);
+            final RuntimeException error = deliver(observer, event, maxAttempts);
+            if (error != null) {
+              deadLetter(observer, event, error);
+              if (failure == null) {
+                failure = error;
+              } else if (failure != error) {
+                failure.addSuppressed(error);
+              }
+            }
+          }
+          offset = record.next;
+          cursor.replayed(offset);
+        }
+      } finally {
+        cursor.endReplay();
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }, executor);
+  }
+
+  /**
+   * Return the event at the given offset or null if the segment has no further events.
+   */
+  private Record read(long offset) {
+    final long base = offset - Math.floorMod(offset, segmentSize);
+    final int pos = (int) (offset - base);
+    if (pos + Integer.BYTES > segmentSize) {
+      return null;
+    }
+    final var path = segment(base);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final var header = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+      channel.read(header, pos);
+      final int length = header.getInt(0);
+      if (length <= 0) {
+        return null;
+      }
+      final var body = ByteBuffer.allocate(length);
+      channel.read(body, pos + Integer.BYTES);
+      body.flip();
+      final byte[] qualifier = new byte[body.getShort()];
+      body.get(qualifier);
+      final byte[] payload = new byte[body.remaining()];
+      body.get(payload);
+      return new Record(new String(qualifier, UTF_8), payload, offset + Integer.BYTES + length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Return the offset of the start of the next segment. */
+  private long next(long offset) {
+    return offset - Math.floorMod(offset, segmentSize) + segmentSize;
+  }
+
+  /** Guarded by this. */
+  private void roll() {
+    active.force();
+    activeBase += segmentSize;
+    try {
+      active = map(activeBase);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    end = activeBase;
+    compact();
+  }
+
+  /**
+   * Delete the segments that have been delivered to all the observers using the journal.
+   */
+  public synchronized void compact() {
+    long min = end;
+    for (Cursor cursor : cursors.values()) {
+      min = Math.min(min, cursor.pending());
+    }
+    try {
+      for (long base : segments()) {
+        if (base + segmentSize <= min && base != activeBase) {
+          Files.deleteIfExists(segment(base));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Flush the active segment and positions to the storage device.
+   */
+  public synchronized void force() {
+    active.force();
+    for (Cursor cursor : cursors.values()) {
+      cursor.file.force();
+    }
+  }
+
+  @Override
+  public void close() {
+    force();
+  }
+
+  private Cursor cursor(Observer<?> observer) {
+    if (!observer.isNamed()) {
+      throw new IllegalStateException("Observer " + observer.name() + " of a journaled event requires an explicit name"
+        + " that is stable across restarts, use the Observer constructor taking the name");
+    }
+    return cursors.computeIfAbsent(observer.name(), this::openCursor);
+  }
+
+  private Cursor openCursor(String name) {
+    final var path = directory.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + POSITION_SUFFIX);
+    try {
+      final boolean exists = Files.exists(path);
+      final MappedByteBuffer file;
+      try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        file = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+      }
+      // a new observer starts at the end rather than being given past events
+      final long position = exists ? file.getLong(0) : end;
+      final var segments = segments();
+      final long first = segments.isEmpty() ? 0 : segments.get(0);
+      return new Cursor(file, Math.max(first, Math.min(position, end)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private List<Long> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+        .map(path -> path.getFileName().toString())
+        .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+        .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+        .sorted()
+        .collect(Collectors.toList());
+    }
+  }
+
+  private Path segment(long base) {
+    return directory.resolve(String.format("%020d", base) + SEGMENT_SUFFIX);
+  }
+
+  private MappedByteBuffer map(long base) throws IOException {
+    final var path = segment(base);
+    if (Files.exists(path) && Files.size(path) != segmentSize) {
+      throw new IllegalStateException("EventJournal segment " + path + " does not match segmentSize " + segmentSize);
+    }
+    try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+  }
+
+  /**
+   * Handler of the events an observer failed to process.
+   *
+   * @param <T> the type of the event
+   */
+  @FunctionalInterface
+  public interface DeadLetterHandler<T> {
+
+    /**
+     * Handle the event the observer failed to process.
+     *
+     * @param observer the observer that failed to process the event
+     * @param event    the event
+     * @param error    the exception thrown by the last attempt, or the reason the event was discarded
+     */
+    void deadLetter(Observer<T> observer, T event, Throwable error);
+  }
+
+  /**
+   * An event read from the journal.
+   */
+  private static final class Record {
+
+    private final String qualifier;
+    private final byte[] payload;
+    private final long next;
+
+    Record(String qualifier, byte[] payload, long next) {
+      this.qualifier = qualifier;
+      this.payload = payload;
+      this.next = next;
+    }
+  }
+
+  /**
+   * The delivery position of an observer.
+   */
+  private final class Cursor {
+
+    private final MappedByteBuffer file;
+    private final ConcurrentSkipListSet<Long> inflight = new ConcurrentSkipListSet<>();
+    /** Upper bound for the position while replaying, guarded by this. */
+    private long replayLimit = Long.MAX_VALUE;
+    /** Guarded by this. */
+    private long position;
+
+    Cursor(MappedByteBuffer file, long position) {
+      this.file = file;
+      this.position = position;
+      file.putLong(0, position);
+    }
+
+    synchronized long position() {
+      return position;
+    }
+
+    /**
+     * Advance the position past the acknowledged event and any earlier delivered events.
+     */
+    void ack(long offset) {
+      inflight.remove(offset);
+      advance(pending());
+    }
+
+    /**
+     * Return the offset of the first event still to be delivered.
+     */
+    long pending() {
+      // read end before the in flight events such that a concurrent append is not skipped
+      final long end = EventJournal.this.end;
+      synchronized (this) {
+        if (replayLimit != Long.MAX_VALUE) {
+          return position;
+        }
+      }
+      final Long first = inflight.ceiling(Long.MIN_VALUE);
+      return first == null ? end : Math.min(first, end);
+    }
+
+    synchronized long startReplay() {
+      replayLimit = position;
+      return position;
+    }
+
+    synchronized void replayed(long offset) {
+      replayLimit = offset;
+      advance(offset);
+    }
+
+    void endReplay() {
+      synchronized (this) {
+        replayLimit = Long.MAX_VALUE;
+      }
+      advance(pending());
+    }
+
+    private synchronized void advance(long offset) {
+      final long next = Math.min(offset, replayLimit);
+      if (next > position) {
+        position = next;
+        file.putLong(0, next);
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package io.avaje.inject.events;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in recorder using fixed bucket histograms.
+ */
+final class HistogramRecorder implements ObserverMetrics.Recorder {
+
+  private final Type eventType;
+  private final Observer<?> observer;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LatencyHistogram queueWait = new LatencyHistogram();
+  private final LongAdder failures = new LongAdder();
+
+  HistogramRecorder(Type eventType, Observer<?> observer) {
+    this.eventType = eventType;
+    this.observer = observer;
+  }
+
+  @Override
+  public void invocation(long latencyNanos, boolean failed) {
+    latency.record(latencyNanos);
+    if (failed) {
+      failures.increment();
+    }
+  }
+
+  @Override
+  public void queueWait(long waitNanos) {
+    queueWait.record(waitNanos);
+  }
+
+  @Override
+  public ObserverMetrics.Snapshot snapshot() {
+    return new ObserverMetrics.Snapshot(eventType, observer, failures.sum(), latency.snapshot(), queueWait.snapshot());
+  }
+}
@@ -0,0 +1,135 @@
+package io.avaje.inject.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed bucket latency histogram in the style of HdrHistogram.
+ * <p>
+ * Values are counted in log-linear buckets, 8 linear sub-buckets per power of two, giving a
+ * relative error of at most 12.5% over the full range of long values. The buckets are allocated
+ * up front such that recording a value is allocation free.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 3;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+  private final AtomicLongArray counts;
+  private final LongAdder total;
+  private final AtomicLong max;
+
+  public LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.total = new LongAdder();
+    this.max = new AtomicLong();
+  }
+
+  /**
+   * Record a value, typically a duration in nanos. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    final long v = Math.max(0, value);
+    counts.incrementAndGet(index(v));
+    total.add(v);
+    if (v > max.get()) {
+      max.accumulateAndGet(v, Math::max);
+    }
+  }
+
+  /**
+   * Return a snapshot of the recorded values.
+   */
+  public Snapshot snapshot() {
+    final long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    return new Snapshot(copy, count, total.sum(), max.get());
+  }
+
+  static int index(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+  }
+
+  /**
+   * Return the highest value counted in the bucket.
+   */
+  static long highestValue(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    final int shift = (index >>> SUB_BITS) - 1;
+    final long sub = SUB_COUNT + (index & (SUB_COUNT - 1));
+    return ((sub + 1) << shift) - 1;
+  }
+
+  /**
+   * Immutable snapshot of a {@link LatencyHistogram}.
+   */
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    private Snapshot(long[] counts, long count, long total, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.total = total;
+      this.max = max;
+    }
+
+    /** Return the number of recorded values. */
+    public long count() {
+      return count;
+    }
+
+    /** Return the mean of the recorded values. */
+    public long mean() {
+      return count == 0 ? 0 : total / count;
+    }
+
+    /** Return the maximum recorded value. */
+    public long max() {
+      return max;
+    }
+
+    /**
+     * Return the value at the given percentile, for example 99.9, within the precision of the
+     * buckets.
+     */
+    public long percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(max, highestValue(i));
+        }
+      }
+      return max;
+    }
+
+    @Override
+    public String toString() {
+      return "count=" + count
+        + ", mean=" + mean()
+        + ", p50=" + percentile(50)
+        + ", p99=" + percentile(99)
+        + ", max=" + max;
+    }
+  }
+}
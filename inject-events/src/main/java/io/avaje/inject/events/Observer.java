@@ -1,6 +1,10 @@
 package io.avaje.inject.events;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Container class for an observer method and its information
@@ -9,16 +13,75 @@ import java.util.function.Consumer;
  */
 public class Observer<T> {
 
+  private final String name;
+  private final boolean named;
   private final int priority;
   private final boolean async;
   private final Consumer<T> method;
   private final String qualifierString;
+  private final AsyncChannel channel;
+  private final EventCoalescer coalescer;
+  private volatile ObserverMetrics.Recorder recorder;
 
   public Observer(int priority, boolean async, Consumer<T> method, String qualifierString) {
+    this(priority, async, method, qualifierString, null, 0);
+  }
+
+  /**
+   * Create an asynchronous observer that has events delivered via the given bounded channel.
+   */
+  public Observer(int priority, Consumer<T> method, String qualifierString, AsyncChannel channel) {
+    this(priority, true, method, qualifierString, channel, 0);
+  }
+
+  /**
+   * Create an observer that coalesces events fired within the given window.
+   *
+   * @param channel        the bounded channel of an asynchronous observer, or null
+   * @param coalesceMillis the coalescing window in milliseconds, or 0 to deliver every event
+   */
+  public Observer(int priority, boolean async, Consumer<T> method, String qualifierString, AsyncChannel channel, long coalesceMillis) {
+    this(method.getClass().getName(), false, priority, async, method, qualifierString, channel, coalesceMillis);
+  }
+
+  /**
+   * Create an observer with the given name, typically the fully qualified bean type and method name.
+   * <p>
+   * The name must be stable across restarts and unique per event type when the events are
+   * journaled, as it identifies the delivery position of the observer in the {@link EventJournal}.
+   *
+   * @param name           the name of the observer used to identify it in metrics and the journal
+   * @param channel        the bounded channel of an asynchronous observer, or null
+   * @param coalesceMillis the coalescing window in milliseconds, or 0 to deliver every event
+   */
+  public Observer(String name, int priority, boolean async, Consumer<T> method, String qualifierString, AsyncChannel channel, long coalesceMillis) {
+    this(name, true, priority, async, method, qualifierString, channel, coalesceMillis);
+  }
+
+  private Observer(String name, boolean named, int priority, boolean async, Consumer<T> method, String qualifierString, AsyncChannel channel, long coalesceMillis) {
+    this.name = name;
+    this.named = named;
     this.priority = priority;
     this.async = async;
     this.method = method;
     this.qualifierString = qualifierString;
+    this.channel = channel;
+    this.coalescer = coalesceMillis > 0 ? new EventCoalescer(coalesceMillis) : null;
+  }
+
+  /**
+   * Return the name of the observer.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return true if the observer was created with an explicit name rather than one derived from
+   * the method reference, which is not stable across restarts.
+   */
+  public boolean isNamed() {
+    return named;
   }
 
   /**
@@ -28,12 +91,120 @@ public class Observer<T> {
     return priority;
   }
 
+  /**
+   * Return the qualifier.
+   */
+  public String qualifier() {
+    return qualifierString;
+  }
+
+  /**
+   * Return true if the observer is asynchronous.
+   */
+  public boolean isAsync() {
+    return async;
+  }
+
+  /**
+   * Set the metrics recorder for this observer, null to disable metrics.
+   */
+  public void recorder(ObserverMetrics.Recorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Return the metrics recorder or null when metrics are disabled.
+   */
+  public ObserverMetrics.Recorder recorder() {
+    return recorder;
+  }
+
+  /**
+   * Return the bounded channel used to deliver async events or null when events are not delivered
+   * via a channel.
+   */
+  public AsyncChannel channel() {
+    return channel;
+  }
+
+  /**
+   * Return the coalescer used to merge bursts of events or null when every event is delivered.
+   */
+  public EventCoalescer coalescer() {
+    return coalescer;
+  }
+
+  /**
+   * Return true if the observer is interested in the given event.
+   */
+  boolean matches(T event, String qualifier, boolean async) {
+    return this.async == async && event != null && qualifierString.equalsIgnoreCase(qualifier);
+  }
+
   /**
    * Invoke the registered consumer when matching qualifier and async processing.
    */
   void observe(T event, String qualifier, boolean async) {
-    if (this.async == async && event != null && qualifierString.equalsIgnoreCase(qualifier)) {
+    if (matches(event, qualifier, async)) {
+      invoke(event);
+    }
+  }
+
+  /**
+   * Invoke the observer method recording metrics when enabled.
+   */
+  void invoke(T event) {
+    final var recorder = this.recorder;
+    if (recorder == null) {
+      method.accept(event);
+      return;
+    }
+    final long start = System.nanoTime();
+    try {
       method.accept(event);
+    } catch (RuntimeException | Error e) {
+      recorder.invocation(System.nanoTime() - start, true);
+      throw e;
+    }
+    recorder.invocation(System.nanoTime() - start, false);
+  }
+
+  /**
+   * Record the time an asynchronous event waited before delivery when metrics are enabled.
+   */
+  void queueWait(long queuedNanos) {
+    final var recorder = this.recorder;
+    if (recorder != null) {
+      recorder.queueWait(System.nanoTime() - queuedNanos);
+    }
+  }
+
+  /**
+   * Queue the event on the channel of this observer.
+   */
+  CompletableFuture<Void> observeChannel(T event, Object partitionKey, Executor executor) {
+    return channel.offer(this, event, partitionKey, executor);
+  }
+
+  /**
+   * Merge the event into the pending event of its coalescing key.
+   *
+   * @param partitionBy the partition key extractor used when delivering via the channel, or null
+   * @param uncaught    handler of delivery exceptions not reported via the returned future, or null
+   */
+  CompletableFuture<Void> observeCoalesced(T event, Object key, BinaryOperator<T> merge,
+                                           Function<? super T, ?> partitionBy, Executor executor,
+                                           Consumer<Throwable> uncaught) {
+    return coalescer.offer(this, event, key, merge, partitionBy, executor, uncaught);
+  }
+
+  /**
+   * Deliver a merged event once its coalescing window has closed.
+   */
+  CompletableFuture<Void> deliverCoalesced(T event, Function<? super T, ?> partitionBy, Executor executor) {
+    if (channel != null) {
+      return channel.offer(this, event, partitionBy == null ? null : partitionBy.apply(event), executor);
     }
+    return CompletableFuture.runAsync(() -> invoke(event), executor);
   }
 }
@@ -2,11 +2,22 @@ package io.avaje.inject.events;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Manages all {@link Observer} instances in the BeanScope.
  * <p>
  * A default implementation is provided by avaje-inject.
+ * <p>
+ * Other implementations must implement {@link #observersByType(Type)} and at least one of
+ * {@link #register(Type, Observer)} and {@link #registerObserver(Type, Observer)}. The remaining
+ * methods have defaults such that implementations written against earlier versions still compile,
+ * where the configuration methods throw {@link UnsupportedOperationException}.
  */
 public interface ObserverManager {
 
@@ -17,14 +28,217 @@ public interface ObserverManager {
    * @param eventType the type of the event ()
    * @param observer  the consumer to execute when a matching event is found
    */
-  <T> void registerObserver(Type eventType, Observer<T> observer);
+  default <T> void registerObserver(Type eventType, Observer<T> observer) {
+    register(eventType, observer);
+  }
 
   /**
-   * Retrieves a list of all Observers registered by the given type
+   * Registers the given observer returning the handle used to unregister it.
+   * <p>
+   * Generated code registers the handle as a PreDestroy of the registering scope such that the
+   * observers of a child scope are removed when the child scope is closed.
+   *
+   * @param <T>       the type of the event
+   * @param eventType the type of the event
+   * @param observer  the consumer to execute when a matching event is found
+   * @return the registration handle, closing it unregisters the observer
+   */
+  default <T> Registration register(Type eventType, Observer<T> observer) {
+    registerObserver(eventType, observer);
+    return new Registration() {
+      private volatile boolean active = true;
+
+      @Override
+      public boolean isActive() {
+        return active;
+      }
+
+      @Override
+      public void close() {
+        if (active) {
+          active = false;
+          observersByType(eventType).remove(observer);
+        }
+      }
+    };
+  }
+
+  /**
+   * Retrieves a list of all Observers registered by the given type in priority order.
+   * <p>
+   * The list is a live view that reflects later registrations and unregistrations.
    *
    * @param <T>       the Type of the Event
    * @param eventType the type of the event
    * @return all observers registered
    */
   <T> List<Observer<T>> observersByType(Type eventType);
+
+  /**
+   * Register the function that extracts the partition key of events of the given type.
+   * <p>
+   * Observers with a bounded {@link AsyncChannel} deliver events with the same partition key in
+   * order. Without a key extractor all events of the type map to the same partition.
+   *
+   * @param <T>          the type of the event
+   * @param eventType    the type of the event
+   * @param keyExtractor function returning the partition key of an event
+   */
+  default <T> void partitionBy(Type eventType, Function<? super T, ?> keyExtractor) {
+    throw new UnsupportedOperationException("partitionBy");
+  }
+
+  /**
+   * Return the partition key extractor for the given event type or null if none is registered.
+   */
+  default <T> Function<? super T, ?> partitionKey(Type eventType) {
+    return null;
+  }
+
+  /**
+   * Register how observers with a coalescing window merge events of the given type.
+   * <p>
+   * Events with the same key fired within the window are merged using the merge function, which
+   * is given the pending event and the newly fired event. Without a key extractor all events of the
+   * type share the same window, and without a merge function the latest event is kept.
+   *
+   * @param <T>          the type of the event
+   * @param eventType    the type of the event
+   * @param keyExtractor function returning the coalescing key of an event, or null
+   * @param merge        function merging the pending and new event, or null to keep the latest
+   */
+  default <T> void coalesceBy(Type eventType, Function<? super T, ?> keyExtractor, BinaryOperator<T> merge) {
+    throw new UnsupportedOperationException("coalesceBy");
+  }
+
+  /**
+   * Return the coalescing key extractor for the given event type or null if none is registered.
+   */
+  default <T> Function<? super T, ?> coalesceKey(Type eventType) {
+    return null;
+  }
+
+  /**
+   * Return the coalescing merge function for the given event type or null if none is registered.
+   */
+  default <T> BinaryOperator<T> coalesceMerge(Type eventType) {
+    return null;
+  }
+
+  /**
+   * Set the executor used to deliver asynchronous events.
+   * <p>
+   * Defaults to {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+   */
+  default void asyncExecutor(Executor executor) {
+    throw new UnsupportedOperationException("asyncExecutor");
+  }
+
+  /**
+   * Return the executor used to deliver asynchronous events.
+   */
+  default Executor asyncExecutor() {
+    return ForkJoinPool.commonPool();
+  }
+
+  /**
+   * Set the handler of exceptions thrown by observers that can not be reported to the code firing
+   * the event, such as coalesced observers of events fired via {@code fire}.
+   * <p>
+   * Defaults to logging the exception.
+   */
+  default void uncaughtExceptionHandler(Consumer<Throwable> handler) {
+    throw new UnsupportedOperationException("uncaughtExceptionHandler");
+  }
+
+  /**
+   * Return the handler of exceptions thrown by observers that can not be reported to the code
+   * firing the event.
+   * <p>
+   * Defaults to the uncaught exception handler of the current thread.
+   */
+  default Consumer<Throwable> uncaughtExceptionHandler() {
+    return e -> {
+      final Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    };
+  }
+
+  /**
+   * Return a snapshot of the metrics of all the observers using a bounded {@link AsyncChannel}.
+   */
+  default List<AsyncChannel.Metrics> channelMetrics() {
+    return List.of();
+  }
+
+  /**
+   * Return a snapshot of the metrics of all the observers with a coalescing window.
+   */
+  default List<EventCoalescer.Metrics> coalescerMetrics() {
+    return List.of();
+  }
+
+  /**
+   * Make events of the given type durable for asynchronous observers using the journal.
+   * <p>
+   * Events fired via {@code fireAsync} are appended to the journal before delivery and the delivery
+   * position of each asynchronous observer is recorded. Events that were not delivered when the
+   * process stopped are replayed to the observers registered at the time this method is called,
+   * typically from a {@code @PostConstruct} method once all observers are registered.
+   *
+   * @param <T>       the type of the event
+   * @param eventType the type of the event
+   * @param journal   the journal for the event type
+   * @return a future that completes when undelivered events have been replayed
+   */
+  default <T> CompletableFuture<Void> journal(Type eventType, EventJournal<T> journal) {
+    throw new UnsupportedOperationException("journal");
+  }
+
+  /**
+   * Return the journal for the given event type or null if the events are not durable.
+   */
+  default <T> EventJournal<T> journal(Type eventType) {
+    return null;
+  }
+
+  /**
+   * Enable metrics for all registered and later registered observers, null to disable metrics.
+   * <p>
+   * Metrics are disabled by default in which case they have no overhead.
+   *
+   * <pre>{@code
+   *
+   *   observerManager.metrics(ObserverMetrics.histograms());
+   *
+   * }</pre>
+   */
+  default void metrics(ObserverMetrics metrics) {
+    throw new UnsupportedOperationException("metrics");
+  }
+
+  /**
+   * Return a snapshot of the metrics of all the observers, empty when metrics are disabled or the
+   * {@link ObserverMetrics} does not support snapshots.
+   */
+  default List<ObserverMetrics.Snapshot> observerMetrics() {
+    return List.of();
+  }
+
+  /**
+   * Handle for a registered observer.
+   */
+  interface Registration extends AutoCloseable {
+
+    /**
+     * Return true if the observer has not been unregistered.
+     */
+    boolean isActive();
+
+    /**
+     * Unregister the observer. Calling this more than once has no effect.
+     */
+    @Override
+    void close();
+  }
 }
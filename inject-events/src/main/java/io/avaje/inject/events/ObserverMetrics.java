@@ -0,0 +1,141 @@
+package io.avaje.inject.events;
+
+import java.lang.reflect.Type;
+
+/**
+ * SPI for recording metrics of observer methods.
+ * <p>
+ * Metrics are disabled by default. When enabled via {@link ObserverManager#metrics(ObserverMetrics)}
+ * a {@link Recorder} is obtained for each registered observer and is given the latency of each
+ * invocation of the observer, whether it failed, and for asynchronous observers the time the
+ * event waited before delivery.
+ *
+ * <pre>{@code
+ *
+ *   observerManager.metrics(ObserverMetrics.histograms());
+ *   ...
+ *   for (ObserverMetrics.Snapshot snapshot : observerManager.observerMetrics()) {
+ *     log.info("{}", snapshot);
+ *   }
+ *
+ * }</pre>
+ */
+public interface ObserverMetrics {
+
+  /**
+   * Return the built-in implementation recording into {@link LatencyHistogram}s.
+   */
+  static ObserverMetrics histograms() {
+    return HistogramRecorder::new;
+  }
+
+  /**
+   * Return the recorder for the given observer.
+   *
+   * @param eventType the type of event the observer observes
+   * @param observer  the observer
+   */
+  Recorder recorder(Type eventType, Observer<?> observer);
+
+  /**
+   * Records the metrics of a single observer. Implementations are invoked concurrently and
+   * should not allocate.
+   */
+  interface Recorder {
+
+    /**
+     * Record an invocation of the observer.
+     *
+     * @param latencyNanos the time taken by the observer method
+     * @param failed       true if the observer method threw an exception
+     */
+    void invocation(long latencyNanos, boolean failed);
+
+    /**
+     * Record the time an asynchronous event waited before delivery to the observer.
+     */
+    void queueWait(long waitNanos);
+
+    /**
+     * Return a snapshot of the recorded metrics or null if not supported by this recorder.
+     */
+    default Snapshot snapshot() {
+      return null;
+    }
+  }
+
+  /**
+   * Snapshot of the metrics of an observer.
+   */
+  final class Snapshot {
+
+    private final Type eventType;
+    private final String observer;
+    private final String qualifier;
+    private final boolean async;
+    private final long failures;
+    private final LatencyHistogram.Snapshot latency;
+    private final LatencyHistogram.Snapshot queueWait;
+
+    public Snapshot(Type eventType, Observer<?> observer, long failures, LatencyHistogram.Snapshot latency, LatencyHistogram.Snapshot queueWait) {
+      this.eventType = eventType;
+      this.observer = observer.name();
+      this.qualifier = observer.qualifier();
+      this.async = observer.isAsync();
+      this.failures = failures;
+      this.latency = latency;
+      this.queueWait = queueWait;
+    }
+
+    /** Return the type of event the observer observes. */
+    public Type eventType() {
+      return eventType;
+    }
+
+    /** Return the name of the observer. */
+    public String observer() {
+      return observer;
+    }
+
+    /** Return the qualifier of the observer. */
+    public String qualifier() {
+      return qualifier;
+    }
+
+    /** Return true if the observer is asynchronous. */
+    public boolean async() {
+      return async;
+    }
+
+    /** Return the number of invocations of the observer. */
+    public long count() {
+      return latency.count();
+    }
+
+    /** Return the number of invocations where the observer threw an exception. */
+    public long failures() {
+      return failures;
+    }
+
+    /** Return the latency of the observer invocations in nanos. */
+    public LatencyHistogram.Snapshot latency() {
+      return latency;
+    }
+
+    /** Return the time in nanos asynchronous events waited before delivery. */
+    public LatencyHistogram.Snapshot queueWait() {
+      return queueWait;
+    }
+
+    @Override
+    public String toString() {
+      return "ObserverMetrics.Snapshot{eventType=" + eventType.getTypeName()
+        + ", observer=" + observer
+        + ", qualifier='" + qualifier + '\''
+        + ", failures=" + failures
+        + ", latency={" + latency + '}'
+        + (async ? ", queueWait={" + queueWait + '}' : "")
+        + '}';
+    }
+  }
+}
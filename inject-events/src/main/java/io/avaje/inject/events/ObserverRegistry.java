@@ -0,0 +1,188 @@
+package io.avaje.inject.events;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free registry of the observers of an event type.
+ * <p>
+ * Observers are held in an immutable snapshot sorted by priority (and registration order for equal
+ * priority) such that firing an event iterates the snapshot without locking or sorting.
+ * Registration copies the snapshot. Unregistration marks the entry as removed in constant time
+ * and the removed entries are dropped from the snapshot when they exceed half of it, or on the
+ * next registration.
+ *
+ * @param <T> the type of the event
+ */
+public final class ObserverRegistry<T> extends AbstractList<Observer<T>> {
+
+  /** Number of removed entries tolerated before compacting regardless of the snapshot size. */
+  private static final int COMPACT_THRESHOLD = 16;
+
+  @SuppressWarnings("rawtypes")
+  private static final Entry[] EMPTY = new Entry[0];
+
+  @SuppressWarnings("unchecked")
+  private final AtomicReference<Entry<T>[]> snapshot = new AtomicReference<>(EMPTY);
+  private final AtomicInteger removed = new AtomicInteger();
+
+  /**
+   * Register the observer returning the handle used to unregister it.
+   */
+  public ObserverManager.Registration register(Observer<T> observer) {
+    final var entry = new Entry<>(this, observer);
+    for (;;) {
+      final var current = snapshot.get();
+      final var next = insert(current, entry);
+      if (snapshot.compareAndSet(current, next)) {
+        // removed entries were dropped by the copy
+        removed.addAndGet(next.length - 1 - current.length);
+        return entry;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Entry<T>[] insert(Entry<T>[] current, Entry<T> entry) {
+    final int priority = entry.observer.priority();
+    final Entry<T>[] next = new Entry[current.length + 1];
+    int n = 0;
+    boolean inserted = false;
+    for (Entry<T> existing : current) {
+      if (existing.removed.get()) {
+        continue;
+      }
+      if (!inserted && existing.observer.priority() > priority) {
+        next[n++] = entry;
+        inserted = true;
+      }
+      next[n++] = existing;
+    }
+    if (!inserted) {
+      next[n++] = entry;
+    }
+    return n == next.length ? next : Arrays.copyOf(next, n);
+  }
+
+  private void remove(Entry<T> entry) {
+    if (entry.removed.compareAndSet(false, true)) {
+      final int dead = removed.incrementAndGet();
+      if (dead >= COMPACT_THRESHOLD && dead * 2 >= snapshot.get().length) {
+        compact();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void compact() {
+    for (;;) {
+      final var current = snapshot.get();
+      final Entry<T>[] next = new Entry[current.length];
+      int n = 0;
+      for (Entry<T> existing : current) {
+        if (!existing.removed.get()) {
+          next[n++] = existing;
+        }
+      }
+      if (n == current.length) {
+        return;
+      }
+      if (snapshot.compareAndSet(current, Arrays.copyOf(next, n))) {
+        removed.addAndGet(n - current.length);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Iterate the registered observers in priority order.
+   * <p>
+   * The iterator is over the snapshot at the time of the call, excluding observers unregistered
+   * during the iteration.
+   */
+  @Override
+  public Iterator<Observer<T>> iterator() {
+    return new SnapshotIterator<>(snapshot.get());
+  }
+
+  @Override
+  public Observer<T> get(int index) {
+    int i = 0;
+    for (Entry<T> entry : snapshot.get()) {
+      if (!entry.removed.get() && i++ == index) {
+        return entry.observer;
+      }
+    }
+    throw new IndexOutOfBoundsException("Index: " + index);
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (Entry<T> entry : snapshot.get()) {
+      if (!entry.removed.get()) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * A registered observer, the registration handle for it.
+   */
+  private static final class Entry<T> implements ObserverManager.Registration {
+
+    private final ObserverRegistry<T> registry;
+    private final Observer<T> observer;
+    private final AtomicBoolean removed = new AtomicBoolean();
+
+    Entry(ObserverRegistry<T> registry, Observer<T> observer) {
+      this.registry = registry;
+      this.observer = observer;
+    }
+
+    @Override
+    public boolean isActive() {
+      return !removed.get();
+    }
+
+    @Override
+    public void close() {
+      registry.remove(this);
+    }
+  }
+
+  private static final class SnapshotIterator<T> implements Iterator<Observer<T>> {
+
+    private final Entry<T>[] entries;
+    private int index;
+
+    SnapshotIterator(Entry<T>[] entries) {
+      this.entries = entries;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (index < entries.length) {
+        if (!entries[index].removed.get()) {
+          return true;
+        }
+        index++;
+      }
+      return false;
+    }
+
+    @Override
+    public Observer<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return entries[index++].observer;
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package io.avaje.inject.events;
 
 import static java.lang.annotation.ElementType.PARAMETER;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -37,11 +37,30 @@ import java.lang.annotation.Target;
  *   public void afterLogin(@Observes LoggedInEvent event, @Manager User user, Logger log) { ... }
  *
  * }</pre>
+ *
+ * <p>Setting a {@link #coalesceMillis()} delivers bursts of events as a single event. Events with
+ * the same coalescing key fired within the window are merged, by default keeping the latest event,
+ * and delivered on the async executor once the window closes.
+ *
+ * <pre>{@code
+ *
+ *   public void onConfig(@Observes(coalesceMillis = 50) ConfigChanged event) { ... }
+ *
+ * }</pre>
  */
 @Target(PARAMETER)
-@Retention(SOURCE)
+@Retention(CLASS)
 public @interface Observes {
 
   /** The priority of the observe method */
   int priority() default 1000;
+
+  /**
+   * The window in milliseconds over which events are coalesced before delivery. When 0 (the
+   * default) every event is delivered.
+   * <p>
+   * Events with the same coalescing key (see {@link ObserverManager#coalesceBy}) fired within the
+   * window are merged and the observer receives a single event once the window closes.
+   */
+  long coalesceMillis() default 0;
 }
@@ -1,7 +1,7 @@
 package io.avaje.inject.events;
 
 import static java.lang.annotation.ElementType.PARAMETER;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -37,12 +37,50 @@ import java.lang.annotation.Target;
  *   public void afterLogin(@ObservesAsync LoggedInEvent event, @Manager User user, Logger log) { ... }
  *
  * }</pre>
+ *
+ * <p>By default asynchronous events are delivered in priority order on the async executor without
+ * any bound on the number of pending events. Setting a {@link #capacity()} instead delivers events
+ * via a bounded {@link AsyncChannel} with the given number of {@link #partitions()}. Events with the
+ * same partition key (see {@link ObserverManager#partitionBy}) are delivered in order while
+ * different partitions are delivered in parallel.
+ *
+ * <pre>{@code
+ *
+ *   public void onOrder(@ObservesAsync(capacity = 1024, partitions = 8, overflow = OverflowPolicy.DROP_OLDEST) OrderEvent event) { ... }
+ *
+ * }</pre>
+ *
+ * <p>Setting a {@link #coalesceMillis()} merges events with the same coalescing key (see {@link
+ * ObserverManager#coalesceBy}) fired within the window such that the observer receives a single
+ * event per key once the window closes. When combined with a bounded channel the merged event is
+ * queued to the partition of its partition key (see {@link ObserverManager#partitionBy}), as for
+ * events that are not coalesced.
  */
 @Target(PARAMETER)
-@Retention(SOURCE)
+@Retention(CLASS)
 public @interface ObservesAsync {
 
   /** The priority of the observe method */
   int priority() default 1000;
 
+  /**
+   * The window in milliseconds over which events are coalesced before delivery. When 0 (the
+   * default) every event is delivered.
+   * <p>
+   * Events with the same coalescing key (see {@link ObserverManager#coalesceBy}) fired within the
+   * window are merged and the observer receives a single event once the window closes.
+   */
+  long coalesceMillis() default 0;
+
+  /**
+   * The maximum number of queued events per partition. When 0 (the default) events are not
+   * delivered via a bounded channel.
+   */
+  int capacity() default 0;
+
+  /** The number of partitions of the bounded channel. Only used with a {@link #capacity()}. */
+  int partitions() default 1;
+
+  /** What to do when a partition is full. Only used with a {@link #capacity()}. */
+  OverflowPolicy overflow() default OverflowPolicy.BLOCK;
 }
@@ -0,0 +1,32 @@
+package io.avaje.inject.events;
+
+/**
+ * What a bounded {@link AsyncChannel} does when the partition an event maps to is full.
+ */
+public enum OverflowPolicy {
+
+  /**
+   * Block the thread firing the event until there is space in the partition.
+   * <p>
+   * When the event is fired from the thread draining the partition, typically by an observer of the
+   * partition firing an event of the same type, the event is instead delivered on that thread as
+   * with {@link #CALLER_RUNS} since blocking would wait on itself forever.
+   */
+  BLOCK,
+
+  /**
+   * Discard the oldest queued event of the partition to make room for the new event.
+   * <p>
+   * The stage returned by {@code fireAsync} for the discarded event completes without
+   * the observer having seen it. A discarded event of a journaled type is passed to the dead letter
+   * handler of the {@link EventJournal}.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Deliver the event to the observer on the thread firing the event.
+   * <p>
+   * Note that this can deliver the event ahead of queued events with the same partition key.
+   */
+  CALLER_RUNS
+}
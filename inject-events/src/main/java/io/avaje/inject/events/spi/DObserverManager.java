@@ -2,25 +2,178 @@ package io.avaje.inject.events.spi;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import io.avaje.applog.AppLog;
+
+import io.avaje.inject.events.AsyncChannel;
+import io.avaje.inject.events.EventCoalescer;
+import io.avaje.inject.events.EventJournal;
 import io.avaje.inject.events.Observer;
 import io.avaje.inject.events.ObserverManager;
+import io.avaje.inject.events.ObserverMetrics;
+import io.avaje.inject.events.ObserverRegistry;
 
 final class DObserverManager implements ObserverManager {
 
- private final Map<Type, List<Observer<?>>> observeMap = new HashMap<>();
+  private static final System.Logger log = AppLog.getLogger("io.avaje.inject.events");
+
+  private final Map<Type, ObserverRegistry<?>> observeMap = new ConcurrentHashMap<>();
+  private final Map<Type, Function<?, ?>> partitionKeys = new ConcurrentHashMap<>();
+  private final Map<Type, Function<?, ?>> coalesceKeys = new ConcurrentHashMap<>();
+  private final Map<Type, BinaryOperator<?>> coalesceMerges = new ConcurrentHashMap<>();
+  private final Map<Type, EventJournal<?>> journals = new ConcurrentHashMap<>();
+  private volatile Executor asyncExecutor = ForkJoinPool.commonPool();
+  private volatile ObserverMetrics metrics;
+  private volatile Consumer<Throwable> uncaughtExceptionHandler =
+    e -> log.log(System.Logger.Level.ERROR, "Observer failed to process event", e);
+
+  @Override
+  public <T> Registration register(Type type, Observer<T> observer) {
+    if (observer.isAsync() && !observer.isNamed() && journals.containsKey(type)) {
+      throw new IllegalStateException("Observer " + observer.name() + " of journaled event " + type.getTypeName()
+        + " requires an explicit name that is stable across restarts");
+    }
+    final var metrics = this.metrics;
+    if (metrics != null) {
+      observer.recorder(metrics.recorder(type, observer));
+    }
+    return this.<T>observersByType(type).register(observer);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> ObserverRegistry<T> observersByType(Type eventType) {
+    return (ObserverRegistry<T>) observeMap.computeIfAbsent(eventType, k -> new ObserverRegistry<>());
+  }
+
+  @Override
+  public <T> void partitionBy(Type eventType, Function<? super T, ?> keyExtractor) {
+    partitionKeys.put(eventType, keyExtractor);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Function<? super T, ?> partitionKey(Type eventType) {
+    return (Function<? super T, ?>) partitionKeys.get(eventType);
+  }
 
   @Override
-  public <T> void registerObserver(Type type, Observer<T> observer) {
-    observeMap.computeIfAbsent(type, k -> new ArrayList<>()).add(observer);
+  public <T> void coalesceBy(Type eventType, Function<? super T, ?> keyExtractor, BinaryOperator<T> merge) {
+    if (keyExtractor == null) {
+      coalesceKeys.remove(eventType);
+    } else {
+      coalesceKeys.put(eventType, keyExtractor);
+    }
+    if (merge == null) {
+      coalesceMerges.remove(eventType);
+    } else {
+      coalesceMerges.put(eventType, merge);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Function<? super T, ?> coalesceKey(Type eventType) {
+    return (Function<? super T, ?>) coalesceKeys.get(eventType);
   }
 
   @Override
   @SuppressWarnings("unchecked")
-  public List<Observer<?>> observersByType(Type eventType) {
-    return observeMap.computeIfAbsent(eventType, k -> new ArrayList<>());
+  public <T> BinaryOperator<T> coalesceMerge(Type eventType) {
+    return (BinaryOperator<T>) coalesceMerges.get(eventType);
+  }
+
+  @Override
+  public void asyncExecutor(Executor executor) {
+    this.asyncExecutor = executor;
+  }
+
+  @Override
+  public Executor asyncExecutor() {
+    return asyncExecutor;
+  }
+
+  @Override
+  public void uncaughtExceptionHandler(Consumer<Throwable> handler) {
+    this.uncaughtExceptionHandler = handler;
+  }
+
+  @Override
+  public Consumer<Throwable> uncaughtExceptionHandler() {
+    return uncaughtExceptionHandler;
+  }
+
+  @Override
+  public List<AsyncChannel.Metrics> channelMetrics() {
+    final List<AsyncChannel.Metrics> metrics = new ArrayList<>();
+    observeMap.forEach((type, observers) -> {
+      for (Observer<?> observer : observers) {
+        var channel = observer.channel();
+        if (channel != null) {
+          metrics.add(channel.metrics(type, observer.qualifier()));
+        }
+      }
+    });
+    return metrics;
+  }
+
+  @Override
+  public List<EventCoalescer.Metrics> coalescerMetrics() {
+    final List<EventCoalescer.Metrics> metrics = new ArrayList<>();
+    observeMap.forEach((type, observers) -> {
+      for (Observer<?> observer : observers) {
+        var coalescer = observer.coalescer();
+        if (coalescer != null) {
+          metrics.add(coalescer.metrics(type, observer.qualifier()));
+        }
+      }
+    });
+    return metrics;
+  }
+
+  @Override
+  public <T> CompletableFuture<Void> journal(Type eventType, EventJournal<T> journal) {
+    journals.put(eventType, journal);
+    return journal.replay(observersByType(eventType), asyncExecutor);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> EventJournal<T> journal(Type eventType) {
+    return (EventJournal<T>) journals.get(eventType);
+  }
+
+  @Override
+  public void metrics(ObserverMetrics metrics) {
+    this.metrics = metrics;
+    observeMap.forEach((type, observers) -> {
+      for (Observer<?> observer : observers) {
+        observer.recorder(metrics == null ? null : metrics.recorder(type, observer));
+      }
+    });
+  }
+
+  @Override
+  public List<ObserverMetrics.Snapshot> observerMetrics() {
+    final List<ObserverMetrics.Snapshot> snapshots = new ArrayList<>();
+    observeMap.forEach((type, observers) -> {
+      for (Observer<?> observer : observers) {
+        var recorder = observer.recorder();
+        var snapshot = recorder == null ? null : recorder.snapshot();
+        if (snapshot != null) {
+          snapshots.add(snapshot);
+        }
+      }
+    });
+    return snapshots;
   }
 }
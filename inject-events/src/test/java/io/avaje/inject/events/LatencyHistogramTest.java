@@ -0,0 +1,36 @@
+package io.avaje.inject.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void bucketBounds() {
+    for (long value : new long[] {0, 1, 7, 8, 15, 16, 1000, 123_456_789, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.index(value);
+      assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+      if (index > 0) {
+        assertThat(LatencyHistogram.highestValue(index - 1)).isLessThan(value);
+      }
+    }
+  }
+
+  @Test
+  void percentiles() {
+    var histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10_000; i++) {
+      histogram.record(i * 1000L);
+    }
+    var snapshot = histogram.snapshot();
+
+    assertThat(snapshot.count()).isEqualTo(10_000);
+    assertThat(snapshot.max()).isEqualTo(10_000_000);
+    assertThat(snapshot.mean()).isEqualTo(5_000_500);
+    assertThat(snapshot.percentile(50)).isCloseTo(5_000_000, withPercentage(12.5));
+    assertThat(snapshot.percentile(99)).isCloseTo(9_900_000, withPercentage(12.5));
+    assertThat(snapshot.percentile(100)).isEqualTo(10_000_000);
+  }
+}
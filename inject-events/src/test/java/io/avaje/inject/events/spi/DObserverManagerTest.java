@@ -3,16 +3,32 @@ package io.avaje.inject.events.spi;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
+import io.avaje.inject.events.AsyncChannel;
 import io.avaje.inject.events.Observer;
 import io.avaje.inject.events.ObserverManager;
+import io.avaje.inject.events.ObserverMetrics;
+import io.avaje.inject.events.OverflowPolicy;
 import io.avaje.inject.events.events.TestEvent;
 import io.avaje.inject.events.events.TestGenericEvent;
 import io.avaje.inject.spi.GenericType;
@@ -124,4 +140,435 @@ class DObserverManagerTest {
               assert e.getSuppressed()[0] instanceof IllegalArgumentException;
             });
   }
+
+  @Test
+  void testBoundedPartitionOrdering() {
+    Map<Character, List<String>> received = new ConcurrentHashMap<>();
+    manager.<String>partitionBy(String.class, s -> s.charAt(0));
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> received.computeIfAbsent(s.charAt(0), k -> Collections.synchronizedList(new ArrayList<>())).add(s),
+            "",
+            AsyncChannel.bounded(8, 4, OverflowPolicy.BLOCK)));
+
+    var testEvent = new TestEvent(manager);
+    List<String> expectA = new ArrayList<>();
+    List<String> expectB = new ArrayList<>();
+    CompletableFutures futures = new CompletableFutures();
+    for (int i = 0; i < 200; i++) {
+      expectA.add("a" + i);
+      expectB.add("b" + i);
+      futures.add(testEvent.fireAsync("a" + i));
+      futures.add(testEvent.fireAsync("b" + i));
+    }
+    futures.join();
+
+    assertThat(received.get('a')).containsExactlyElementsOf(expectA);
+    assertThat(received.get('b')).containsExactlyElementsOf(expectB);
+
+    var metrics = manager.channelMetrics();
+    assertThat(metrics).hasSize(1);
+    assertThat(metrics.get(0).delivered()).isEqualTo(400);
+    assertThat(metrics.get(0).depth()).isZero();
+  }
+
+  @Test
+  void testBoundedDropOldest() throws InterruptedException {
+    var blocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var received = Collections.synchronizedList(new ArrayList<String>());
+    var executor = Executors.newSingleThreadExecutor();
+    manager.asyncExecutor(executor);
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> {
+              blocked.countDown();
+              await(release);
+              received.add(s);
+            },
+            "",
+            AsyncChannel.bounded(2, 1, OverflowPolicy.DROP_OLDEST)));
+
+    var testEvent = new TestEvent(manager);
+    var first = testEvent.fireAsync("first").toCompletableFuture();
+    blocked.await();
+    var futures = new CompletableFutures();
+    for (int i = 0; i < 5; i++) {
+      futures.add(testEvent.fireAsync("e" + i));
+    }
+    release.countDown();
+    futures.join();
+    first.join();
+    executor.shutdown();
+
+    assertThat(received).containsExactly("first", "e3", "e4");
+    assertThat(manager.channelMetrics().get(0).dropped()).isEqualTo(3);
+  }
+
+  @Test
+  void testBoundedCallerRuns() throws InterruptedException {
+    var blocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var callerThread = Thread.currentThread();
+    var ranOnCaller = new AtomicBoolean();
+    var executor = Executors.newSingleThreadExecutor();
+    manager.asyncExecutor(executor);
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> {
+              if (Thread.currentThread() == callerThread) {
+                ranOnCaller.set(true);
+              } else {
+                blocked.countDown();
+                await(release);
+              }
+            },
+            "",
+            AsyncChannel.bounded(1, 1, OverflowPolicy.CALLER_RUNS)));
+
+    var testEvent = new TestEvent(manager);
+    var first = testEvent.fireAsync("first").toCompletableFuture();
+    blocked.await();
+    var queued = testEvent.fireAsync("queued").toCompletableFuture();
+    testEvent.fireAsync("overflow").toCompletableFuture().join();
+    assertThat(ranOnCaller).isTrue();
+
+    release.countDown();
+    first.join();
+    queued.join();
+    executor.shutdown();
+    assertThat(manager.channelMetrics().get(0).callerRuns()).isEqualTo(1);
+  }
+
+  @Test
+  void testBoundedBlockFiredFromDrainThread() throws Exception {
+    var received = new CopyOnWriteArrayList<String>();
+    var testEvent = new TestEvent(manager);
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> {
+              received.add(s);
+              if ("first".equals(s)) {
+                // the partition is full after the first of these
+                testEvent.fireAsync("a");
+                testEvent.fireAsync("b");
+                testEvent.fireAsync("c");
+              }
+            },
+            "",
+            AsyncChannel.bounded(1, 1, OverflowPolicy.BLOCK)));
+
+    testEvent.fireAsync("first").toCompletableFuture().get(10, TimeUnit.SECONDS);
+    testEvent.fireAsync("last").toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+    assertThat(received).containsExactlyInAnyOrder("first", "a", "b", "c", "last");
+    assertThat(manager.channelMetrics().get(0).callerRuns()).isEqualTo(2);
+  }
+
+  @Test
+  void testBoundedError() {
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> {
+              throw new IllegalArgumentException();
+            },
+            "",
+            AsyncChannel.bounded(4, 1, OverflowPolicy.BLOCK)));
+
+    var future = new TestEvent(manager).fireAsync("sus").toCompletableFuture();
+    assertThatExceptionOfType(CompletionException.class)
+        .isThrownBy(future::join)
+        .satisfies(e -> assertThat(e.getSuppressed()[0]).isInstanceOf(IllegalArgumentException.class));
+    assertThat(manager.channelMetrics().get(0).failed()).isEqualTo(1);
+  }
+
+  @Test
+  void testBoundedErrorDoesNotStallPartition() {
+    var received = new CopyOnWriteArrayList<String>();
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(
+            0,
+            s -> {
+              if ("error".equals(s)) {
+                throw new AssertionError();
+              }
+              received.add(s);
+            },
+            "",
+            AsyncChannel.bounded(4, 1, OverflowPolicy.BLOCK)));
+
+    var testEvent = new TestEvent(manager);
+    var failed = testEvent.fireAsync("error").toCompletableFuture();
+    assertThatExceptionOfType(CompletionException.class).isThrownBy(failed::join);
+
+    testEvent.fireAsync("after").toCompletableFuture().join();
+    assertThat(received).containsExactly("after");
+    assertThat(manager.channelMetrics().get(0).failed()).isEqualTo(1);
+  }
+
+  @Test
+  void testBoundedRescheduleRejected() {
+    var pending = new ArrayList<Runnable>();
+    manager.asyncExecutor(
+        command -> {
+          if (!pending.isEmpty()) {
+            throw new RejectedExecutionException();
+          }
+          pending.add(command);
+        });
+    var received = new AtomicInteger();
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(0, s -> received.incrementAndGet(), "", AsyncChannel.bounded(512, 1, OverflowPolicy.BLOCK)));
+
+    var testEvent = new TestEvent(manager);
+    var futures = new CompletableFutures();
+    for (int i = 0; i < 300; i++) {
+      futures.add(testEvent.fireAsync("e" + i));
+    }
+    // drains past the batch size where re-scheduling on the executor is rejected
+    pending.get(0).run();
+    futures.join();
+
+    assertThat(received).hasValue(300);
+    assertThat(manager.channelMetrics().get(0).depth()).isZero();
+  }
+
+  @Test
+  void testRegistrationClose() {
+    var received = new ArrayList<String>();
+    var registration = manager.<String>register(String.class, new Observer<>(0, false, received::add, ""));
+    var testEvent = new TestEvent(manager);
+
+    testEvent.fire("before");
+    registration.close();
+    registration.close();
+    testEvent.fire("after");
+
+    assertThat(registration.isActive()).isFalse();
+    assertThat(received).containsExactly("before");
+    assertThat(manager.observersByType(String.class)).isEmpty();
+  }
+
+  @Test
+  void testManagerImplementingOnlyRegisterObserver() {
+    final Map<Type, List<Observer<?>>> observers = new ConcurrentHashMap<>();
+    ObserverManager legacy = new ObserverManager() {
+      @Override
+      public <T> void registerObserver(Type eventType, Observer<T> observer) {
+        observers.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>()).add(observer);
+      }
+
+      @Override
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      public <T> List<Observer<T>> observersByType(Type eventType) {
+        return (List) observers.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>());
+      }
+    };
+    var received = new ArrayList<String>();
+    var registration = legacy.<String>register(String.class, new Observer<>(0, false, received::add, ""));
+    var testEvent = new TestEvent(legacy);
+
+    testEvent.fire("before");
+    registration.close();
+    testEvent.fire("after");
+
+    assertThat(registration.isActive()).isFalse();
+    assertThat(received).containsExactly("before");
+    assertThat(legacy.channelMetrics()).isEmpty();
+  }
+
+  @Test
+  void testRegistrationPriorityAndCompaction() {
+    var received = new ArrayList<String>();
+    manager.<String>register(String.class, new Observer<>(2, false, s -> received.add("p2"), ""));
+    manager.<String>register(String.class, new Observer<>(1, false, s -> received.add("p1"), ""));
+    var registrations = new ArrayList<ObserverManager.Registration>();
+    for (int i = 0; i < 1000; i++) {
+      registrations.add(manager.<String>register(String.class, new Observer<>(i, false, s -> received.add("child"), "")));
+    }
+    registrations.forEach(ObserverManager.Registration::close);
+
+    new TestEvent(manager).fire("event");
+
+    assertThat(received).containsExactly("p1", "p2");
+    assertThat(manager.observersByType(String.class)).hasSize(2);
+  }
+
+  @Test
+  void testMetrics() {
+    manager.<String>register(String.class, new Observer<>("sync", 0, false, s -> {}, "", null, 0));
+    manager.<String>register(String.class, new Observer<>("failing", 1, false, s -> {
+      if (s.isEmpty()) {
+        throw new IllegalArgumentException();
+      }
+    }, "", null, 0));
+    manager.<String>register(String.class, new Observer<>("async", 0, true, s -> {}, "", null, 0));
+    var testEvent = new TestEvent(manager);
+    testEvent.fire("disabled");
+    assertThat(manager.observerMetrics()).isEmpty();
+
+    manager.metrics(ObserverMetrics.histograms());
+    testEvent.fire("a");
+    testEvent.fire("b");
+    assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> testEvent.fire(""));
+    testEvent.fireAsync("c").toCompletableFuture().join();
+
+    var metrics = manager.observerMetrics();
+    assertThat(metrics).extracting(ObserverMetrics.Snapshot::observer).containsExactlyInAnyOrder("sync", "failing", "async");
+    for (var snapshot : metrics) {
+      switch (snapshot.observer()) {
+        case "sync":
+          assertThat(snapshot.count()).isEqualTo(3);
+          assertThat(snapshot.failures()).isZero();
+          break;
+        case "failing":
+          assertThat(snapshot.count()).isEqualTo(3);
+          assertThat(snapshot.failures()).isEqualTo(1);
+          break;
+        default:
+          assertThat(snapshot.count()).isEqualTo(1);
+          assertThat(snapshot.queueWait().count()).isEqualTo(1);
+      }
+    }
+
+    manager.metrics(null);
+    assertThat(manager.observerMetrics()).isEmpty();
+  }
+
+  @Test
+  void testCoalesceLatest() throws InterruptedException {
+    var received = new CopyOnWriteArrayList<String>();
+    var delivered = new CountDownLatch(2);
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(0, false, s -> {
+          received.add(s);
+          delivered.countDown();
+        }, "", null, 100));
+    manager.<String>coalesceBy(String.class, s -> s.charAt(0), null);
+
+    var testEvent = new TestEvent(manager);
+    for (int i = 0; i < 50; i++) {
+      testEvent.fire("a" + i);
+      testEvent.fire("b" + i);
+    }
+    assertThat(received).isEmpty();
+    assertThat(delivered.await(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(received).containsExactlyInAnyOrder("a49", "b49");
+    var metrics = manager.coalescerMetrics().get(0);
+    assertThat(metrics.received()).isEqualTo(100);
+    assertThat(metrics.collapsed()).isEqualTo(98);
+    assertThat(metrics.pending()).isZero();
+  }
+
+  @Test
+  void testCoalesceMergeAsync() {
+    var received = new CopyOnWriteArrayList<String>();
+    manager.<String>registerObserver(
+        String.class, new Observer<>(0, true, received::add, "", null, 50));
+    manager.<String>coalesceBy(String.class, null, (pending, fired) -> pending + fired);
+
+    var testEvent = new TestEvent(manager);
+    var futures = new CompletableFutures();
+    for (int i = 0; i < 5; i++) {
+      futures.add(testEvent.fireAsync(String.valueOf(i)));
+    }
+    futures.join();
+
+    assertThat(received).containsExactly("01234");
+    assertThat(manager.coalescerMetrics().get(0).collapsed()).isEqualTo(4);
+  }
+
+  @Test
+  void testCoalesceAsyncError() {
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(0, true, s -> {
+          throw new IllegalStateException();
+        }, "", null, 10));
+
+    var future = new TestEvent(manager).fireAsync("event").toCompletableFuture();
+
+    assertThatExceptionOfType(CompletionException.class)
+        .isThrownBy(future::join)
+        .satisfies(e -> assertThat(e.getCause()).isInstanceOf(IllegalStateException.class));
+    assertThat(manager.coalescerMetrics().get(0).failed()).isEqualTo(1);
+  }
+
+  @Test
+  void testCoalesceChannelPartitionKey() {
+    var partitions = ConcurrentHashMap.<Runnable>newKeySet();
+    manager.asyncExecutor(
+        command -> {
+          partitions.add(command);
+          ForkJoinPool.commonPool().execute(command);
+        });
+    var received = new CopyOnWriteArrayList<String>();
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(0, true, received::add, "", AsyncChannel.bounded(16, 16, OverflowPolicy.BLOCK), 10));
+    manager.<String>partitionBy(String.class, s -> "same");
+    manager.<String>coalesceBy(String.class, s -> s, null);
+
+    var testEvent = new TestEvent(manager);
+    var futures = new CompletableFutures();
+    for (int i = 0; i < 8; i++) {
+      futures.add(testEvent.fireAsync("e" + i));
+    }
+    futures.join();
+
+    assertThat(received).hasSize(8);
+    assertThat(partitions).hasSize(1);
+  }
+
+  @Test
+  void testCoalesceSyncError() throws InterruptedException {
+    var uncaught = new CompletableFuture<Throwable>();
+    manager.uncaughtExceptionHandler(uncaught::complete);
+    manager.<String>registerObserver(
+        String.class,
+        new Observer<>(0, false, s -> {
+          throw new IllegalStateException();
+        }, "", null, 10));
+
+    var testEvent = new TestEvent(manager);
+    testEvent.fire("a");
+    testEvent.fire("b");
+
+    assertThat(uncaught.orTimeout(10, TimeUnit.SECONDS).join()).isInstanceOf(IllegalStateException.class);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final class CompletableFutures {
+
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+
+    void add(CompletionStage<?> stage) {
+      futures.add(stage.toCompletableFuture());
+    }
+
+    void join() {
+      futures.forEach(CompletableFuture::join);
+    }
+  }
 }
@@ -0,0 +1,267 @@
+package io.avaje.inject.events.spi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.avaje.inject.events.AsyncChannel;
+import io.avaje.inject.events.EventCodec;
+import io.avaje.inject.events.EventJournal;
+import io.avaje.inject.events.Observer;
+import io.avaje.inject.events.ObserverManager;
+import io.avaje.inject.events.OverflowPolicy;
+import io.avaje.inject.events.events.TestEvent;
+
+class EventJournalTest {
+
+  static final EventCodec<String> CODEC = new EventCodec<>() {
+    @Override
+    public byte[] encode(String event) {
+      return event.getBytes(UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] bytes) {
+      return new String(bytes, UTF_8);
+    }
+  };
+
+  @TempDir Path dir;
+
+  @Test
+  void replayUndelivered() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    var first = manager();
+    first.asyncExecutor(executor);
+    first.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      if (s.equals("stop")) {
+        await(release);
+      }
+    }, "", null, 0));
+    first.journal(String.class, EventJournal.open(dir, CODEC)).join();
+
+    var event = new TestEvent(first);
+    event.fireAsync("a").toCompletableFuture().join();
+    event.fireAsync("b").toCompletableFuture().join();
+    event.fireAsync("stop");
+    event.fireAsync("d");
+
+    // restart while "stop" and "d" are undelivered
+    var received = new CopyOnWriteArrayList<String>();
+    var second = manager();
+    second.<String>register(String.class, new Observer<>("obs", 0, true, received::add, "", null, 0));
+    second.<String>register(String.class, new Observer<>("new", 0, true, s -> received.add("new"), "", null, 0));
+    second.journal(String.class, EventJournal.open(dir, CODEC)).join();
+
+    release.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    assertThat(received).containsExactly("stop", "d");
+  }
+
+  @Test
+  void failedDeliveryDeadLettered() {
+    var deadLetters = new CopyOnWriteArrayList<String>();
+    var attempts = new AtomicInteger();
+    var first = manager();
+    first.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      if (s.equals("bad")) {
+        attempts.incrementAndGet();
+        throw new IllegalStateException();
+      }
+    }, "", null, 0));
+    first.journal(String.class, EventJournal.open(dir, CODEC).deadLetterHandler((o, e, error) -> deadLetters.add(e))).join();
+
+    var event = new TestEvent(first);
+    event.fireAsync("ok").toCompletableFuture().join();
+    assertThatExceptionOfType(CompletionException.class)
+      .isThrownBy(() -> event.fireAsync("bad").toCompletableFuture().join());
+    event.fireAsync("after").toCompletableFuture().join();
+
+    assertThat(attempts).hasValue(EventJournal.DEFAULT_MAX_ATTEMPTS);
+    assertThat(deadLetters).containsExactly("bad");
+
+    // the dead lettered event is not replayed
+    var received = new CopyOnWriteArrayList<String>();
+    var second = manager();
+    second.<String>register(String.class, new Observer<>("obs", 0, true, received::add, "", null, 0));
+    second.journal(String.class, EventJournal.open(dir, CODEC)).join();
+
+    assertThat(received).isEmpty();
+  }
+
+  @Test
+  void failedDeliveryRetried() {
+    var received = new CopyOnWriteArrayList<String>();
+    var attempts = new AtomicInteger();
+    var manager = manager();
+    manager.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw new IllegalStateException();
+      }
+      received.add(s);
+    }, "", null, 0));
+    var journal = EventJournal.open(dir, CODEC);
+    manager.journal(String.class, journal).join();
+
+    new TestEvent(manager).fireAsync("flaky").toCompletableFuture().join();
+
+    assertThat(received).containsExactly("flaky");
+    assertThat(journal.position(manager.observersByType(String.class).get(0))).isEqualTo(journal.end());
+  }
+
+  @Test
+  void replayFailedDeliveryDeadLettered() throws InterruptedException {
+    var release = new CountDownLatch(1);
+    var executor = Executors.newSingleThreadExecutor();
+    var first = manager();
+    first.asyncExecutor(executor);
+    first.<String>register(String.class, new Observer<>("obs", 0, true, s -> await(release), "", null, 0));
+    first.journal(String.class, EventJournal.open(dir, CODEC)).join();
+
+    var event = new TestEvent(first);
+    event.fireAsync("bad");
+    event.fireAsync("after");
+
+    // restart while "bad" and "after" are undelivered
+    var received = new CopyOnWriteArrayList<String>();
+    var deadLetters = new CopyOnWriteArrayList<String>();
+    var second = manager();
+    second.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      if (s.equals("bad")) {
+        throw new IllegalStateException();
+      }
+      received.add(s);
+    }, "", null, 0));
+    var journal = EventJournal.open(dir, CODEC).deadLetterHandler((o, e, error) -> deadLetters.add(e));
+    assertThatExceptionOfType(CompletionException.class)
+      .isThrownBy(() -> second.journal(String.class, journal).join());
+
+    release.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    assertThat(received).containsExactly("after");
+    assertThat(deadLetters).containsExactly("bad");
+    assertThat(journal.position(second.observersByType(String.class).get(0))).isEqualTo(journal.end());
+  }
+
+  @Test
+  void compactAfterFailedDelivery() throws IOException {
+    var deadLetters = new CopyOnWriteArrayList<String>();
+    var manager = manager();
+    manager.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      if (s.equals("event-3")) {
+        throw new IllegalStateException();
+      }
+    }, "", null, 0));
+    var journal = EventJournal.open(dir, CODEC, 128).deadLetterHandler((o, e, error) -> deadLetters.add(e));
+    manager.journal(String.class, journal).join();
+
+    var event = new TestEvent(manager);
+    for (int i = 0; i < 100; i++) {
+      event.fireAsync("event-" + i).exceptionally(e -> null).toCompletableFuture().join();
+    }
+
+    assertThat(deadLetters).containsExactly("event-3");
+    assertThat(segments()).hasSize(1);
+    assertThat(journal.position(manager.observersByType(String.class).get(0))).isEqualTo(journal.end());
+  }
+
+  @Test
+  void droppedEventsDeadLettered() throws InterruptedException {
+    var blocked = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var received = new CopyOnWriteArrayList<String>();
+    var deadLetters = new CopyOnWriteArrayList<String>();
+    var executor = Executors.newSingleThreadExecutor();
+    var manager = manager();
+    manager.asyncExecutor(executor);
+    manager.<String>register(String.class, new Observer<>("obs", 0, true, s -> {
+      blocked.countDown();
+      await(release);
+      received.add(s);
+    }, "", AsyncChannel.bounded(1, 1, OverflowPolicy.DROP_OLDEST), 0));
+    var journal = EventJournal.open(dir, CODEC).deadLetterHandler((o, e, error) -> deadLetters.add(e));
+    manager.journal(String.class, journal).join();
+
+    var event = new TestEvent(manager);
+    var first = event.fireAsync("first").toCompletableFuture();
+    blocked.await();
+    var dropped = event.fireAsync("dropped").toCompletableFuture();
+    var last = event.fireAsync("last").toCompletableFuture();
+    release.countDown();
+    first.join();
+    dropped.join();
+    last.join();
+    executor.shutdown();
+
+    assertThat(received).containsExactly("first", "last");
+    assertThat(deadLetters).containsExactly("dropped");
+    assertThat(journal.position(manager.observersByType(String.class).get(0))).isEqualTo(journal.end());
+  }
+
+  @Test
+  void unnamedObserverRejected() {
+    var manager = manager();
+    manager.<String>register(String.class, new Observer<>(0, true, s -> {}, ""));
+    var journal = EventJournal.open(dir, CODEC);
+
+    assertThatIllegalStateException().isThrownBy(() -> manager.journal(String.class, journal));
+    assertThatIllegalStateException()
+      .isThrownBy(() -> manager.<String>register(String.class, new Observer<>(0, true, s -> {}, "")));
+  }
+
+  @Test
+  void rollAndCompact() throws IOException {
+    var manager = manager();
+    var received = new CopyOnWriteArrayList<String>();
+    manager.<String>register(String.class, new Observer<>("obs", 0, true, received::add, "", null, 0));
+    var journal = EventJournal.open(dir, CODEC, 128);
+    manager.journal(String.class, journal).join();
+
+    var event = new TestEvent(manager);
+    for (int i = 0; i < 100; i++) {
+      event.fireAsync("event-" + i).toCompletableFuture().join();
+    }
+
+    assertThat(received).hasSize(100);
+    assertThat(segments()).hasSize(1);
+    assertThat(journal.position(manager.observersByType(String.class).get(0))).isEqualTo(journal.end());
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(p -> p.toString().endsWith(".seg")).collect(Collectors.toList());
+    }
+  }
+
+  private static ObserverManager manager() {
+    return new DObserverManager();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -23,7 +23,6 @@ final class AspectMethod {
   private final List<? extends TypeMirror> thrownTypes;
   private final String localName;
   private final ExecutableElement fallback;
-  private final boolean methodRef;
 
   AspectMethod(int nameIndex, List<AspectPair> aspectPairs, ExecutableElement method) {
     this.aspectPairs = sort(aspectPairs);
@@ -34,7 +33,6 @@ final class AspectMethod {
     this.thrownTypes = method.getThrownTypes();
     this.localName = simpleName + nameIndex;
     this.fallback = findFallback(method);
-    methodRef = params.isEmpty();
     validateFallback();
   }
 
@@ -117,7 +115,7 @@ final class AspectMethod {
     }
   }
 
-  void writeMethod(Append writer) {
+  void writeMethod(Append writer, String proxyName) {
     writer.eol().append("  @Override").eol();
     writer.append("  public %s %s(", returnUtype.shortType(), simpleName);
     for (int i = 0, size = params.size(); i < size; i++) {
@@ -128,16 +126,47 @@ final class AspectMethod {
     }
     writer.append(")");
     writeThrowsClause(writer);
-
     writer.append(" {").eol();
+    writer.append("    var $chain = %s.get();", localName).eol();
+    writeBypass(writer);
+    writer.append("    var call = new %s(%s);", callName(), callArgs()).eol();
+    writeInvoke(writer);
+    writer.append("  }").eol();
+    writeCallClass(writer, proxyName);
+  }
 
-    String type = isVoid() ? "Run" : "Call<>";
+  /**
+   * Call the super method directly when all the interceptors are no-op.
+   */
+  private void writeBypass(Append writer) {
+    writer.append("    if ($chain.isEmpty()) {").eol();
+    if (isVoid()) {
+      writer.append("      super.%s(%s);", simpleName, paramNames()).eol();
+      writer.append("      return;").eol();
+    } else {
+      writer.append("      return super.%s(%s);", simpleName, paramNames()).eol();
+    }
+    writer.append("    }").eol();
+  }
 
-    writer.append("    var call = new Invocation.%s(", type);
-    invokeSuper(writer, simpleName);
-    writer.append(")").eol();
-    writeArgs(writer);
-    writer.append("  }").eol();
+  private String callName() {
+    return localName + "$Call";
+  }
+
+  private String callArgs() {
+    return params.isEmpty() ? "$chain" : "$chain, " + paramNames();
+  }
+
+  private String paramNames() {
+    return params.stream().map(MethodParam::simpleName).collect(joining(", "));
+  }
+
+  private String resultType() {
+    if (isVoid()) {
+      return "Void";
+    }
+    final var type = returnUtype.shortWithoutAnnotations();
+    return PrimitiveUtil.wrapperMap.getOrDefault(type, type);
   }
 
   private void writeThrowsClause(Append writer) {
@@ -152,90 +181,107 @@ final class AspectMethod {
     }
   }
 
-  private void invokeSuper(Append writer, String simpleName) {
-    if (methodRef) {
-      writer.append("super::%s", simpleName);
-      return;
+  /**
+   * Write the invocation class holding the typed arguments of a call to the method.
+   */
+  private void writeCallClass(Append writer, String proxyName) {
+    final var resultType = resultType();
+    writer.eol();
+    writer.append("  private final class %s extends Invocation.Chained<%s> {", callName(), resultType).eol().eol();
+    for (MethodParam param : params) {
+      writer.append("    private final %s %s;", param.aspectParamType(), param.simpleName()).eol();
+    }
+    if (!params.isEmpty()) {
+      writer.eol();
+    }
+    writer.append("    %s(InterceptorChain $chain", callName());
+    for (MethodParam param : params) {
+      writer.append(", ");
+      param.writeMethodParamAspect(writer);
     }
+    writer.append(") {").eol();
+    writer.append("      super($chain, %s.this);", proxyName).eol();
+    for (MethodParam param : params) {
+      writer.append("      this.%s = %s;", param.simpleName(), param.simpleName()).eol();
+    }
+    writer.append("    }").eol().eol();
+
+    writer.append("    @Override").eol();
+    writer.append("    protected %s target() throws Throwable {", resultType).eol();
+    if (isVoid()) {
+      writer.append("      %s.super.%s(%s);", proxyName, simpleName, paramNames()).eol();
+      writer.append("      return null;").eol();
+    } else {
+      writer.append("      return %s.super.%s(%s);", proxyName, simpleName, paramNames()).eol();
+    }
+    writer.append("    }").eol().eol();
 
-    writer.append("() -> super.%s(", simpleName);
-    for (int i = 0, size = params.size(); i < size; i++) {
-      if (i > 0) {
-        writer.append(", ");
+    writer.append("    @Override").eol();
+    writer.append("    protected Object[] createArguments() {").eol();
+    writer.append("      return new Object[] {%s};", paramNames()).eol();
+    writer.append("    }").eol().eol();
+
+    writer.append("    @Override").eol();
+    writer.append("    public Object argument(int $index) {").eol();
+    if (!params.isEmpty()) {
+      writer.append("      switch ($index) {").eol();
+      for (int i = 0, size = params.size(); i < size; i++) {
+        writer.append("        case %s: return %s;", i, params.get(i).simpleName()).eol();
       }
-      writer.append(params.get(i).simpleName());
+      writer.append("        default: throw new IndexOutOfBoundsException($index);").eol();
+      writer.append("      }").eol();
+    } else {
+      writer.append("      throw new IndexOutOfBoundsException($index);").eol();
     }
-    writer.append(")");
+    writer.append("    }").eol().eol();
+
+    writer.append("    @Override").eol();
+    writer.append("    public int argumentCount() {").eol();
+    writer.append("      return %s;", params.size()).eol();
+    writer.append("    }").eol();
+    writeFallback(writer, proxyName);
+    writer.append("  }").eol();
   }
 
   void writeSetupFields(Append writer, boolean lazy) {
     var isFinal = lazy ? "" : "final ";
-    writer.append("  private %sMethod %s;", isFinal, localName).eol();
-    for (AspectPair aspectPair : aspectPairs) {
-      String sn = aspectPair.annotationShortName();
-      writer.append("  private %sMethodInterceptor %s%s;", isFinal, localName, sn).eol();
+    writer.append("  private %sInterceptorChain.Lazy %s;", isFinal, localName).eol();
+    if (ProcessingContext.exceptionMarker() == ExceptionMarker.SHARED) {
+      writer.append("  private static final InvocationException %s$Thrown = InvocationException.stackless(\"%s proxy threw exception\");", localName, simpleName).eol();
     }
   }
 
   void writeSetupForMethods(Append writer) {
-    writer.append("      %s = target$Class.getDeclaredMethod(\"%s\"", localName, simpleName);
+    final var method = localName + "$Method";
+    writer.append("    %s = InterceptorChain.lazy(() -> {", localName).eol();
+    writer.append("      var %s = target$Class.getDeclaredMethod(\"%s\"", method, simpleName);
     for (MethodReader.MethodParam param : params) {
       writer.append(", ");
       param.writeMethodParamTypeAspect(writer);
       writer.append(".class");
     }
     writer.append(");").eol();
-    for (AspectPair aspect : aspectPairs) {
+    writer.append("      return InterceptorChain.of(%s", method);
+    // outer-most aspect first, being the last based on ordering attribute
+    for (int i = aspectPairs.size() - 1; i >= 0; i--) {
+      AspectPair aspect = aspectPairs.get(i);
       String name = Util.initLower(aspect.annotationShortName());
       String sn = aspect.annotationShortName();
-      writer.append("      %s%s = %s.interceptor(%s, %s.getAnnotation(%s.class));", localName, sn, name, localName, localName, sn).eol();
+      writer.append(",").eol();
+      writer.append("        %s.interceptor(%s, %s.getAnnotation(%s.class))", name, method, method, sn);
     }
-    writer.eol();
+    writer.append(");").eol();
+    writer.append("    });").eol();
   }
 
-  void writeArgs(Append writer) {
-    writer.append("      .with(this, %s", localName);
-    if (!params.isEmpty()) {
-      writer.append(", ");
-      for (int i = 0, size = params.size(); i < size; i++) {
-        if (i > 0) {
-          writer.append(", ");
-        }
-        writer.append(params.get(i).simpleName());
-      }
-    }
-    writer.append(")");
-    int aspectCount = aspectPairs.size();
-    if (aspectCount >= 2) {
-      // nesting all but last aspect
-      writer.eol();
-      writer.append("      // wrapping inner nested aspects based on ordering attribute").eol();
-      int nesting = aspectCount - 1;
-      for (int i = 0; i < nesting; i++) {
-        AspectPair aspect = aspectPairs.get(i);
-        String sn = aspect.annotationShortName();
-        writer.append("      .wrap(%s%s)", localName, sn);
-        if (i < nesting - 1) {
-          writer.eol();
-        }
-      }
-    }
-    writeFallback(writer);
-    writer.append(";").eol();
+  private void writeInvoke(Append writer) {
     writer.append("    try {").eol();
-    if (aspectCount > 1) {
-      writer.append("      // outer-most aspect").eol();
-    }
-    final AspectPair outerAspect = aspectPairs.get(aspectCount - 1);
-    final String sn = outerAspect.annotationShortName();
-    writer.append("      %s%s.invoke(call);", localName, sn).eol();
-
+    writer.append("      call.invoke();").eol();
     if (!isVoid()) {
       writer.append("      return call.finalResult();").eol();
     }
-
     writer.append("    } catch (RuntimeException $ex) {").eol();
-    writer.append("      $ex.addSuppressed(new InvocationException(\"%s proxy threw exception\"));", simpleName).eol();
+    writeSuppressed(writer, "$ex");
     writer.append("      throw $ex;").eol();
     writeThrowsCatch(writer);
     if (thrownTypes.stream().map(Object::toString).noneMatch("java.lang.Throwable"::equals)) {
@@ -245,38 +291,36 @@ final class AspectMethod {
     writer.append("    }").eol();
   }
 
-  private void writeFallback(Append writer) {
+  private void writeFallback(Append writer, String proxyName) {
     if (fallback == null) {
       return;
     }
-
     var fallParams = fallback.getParameters();
-    writer.eol().append("      .fallback(");
     var hasThrowable = fallParams.stream().anyMatch(p -> p.asType().toString().contains("Throwable"));
-
+    final String args;
     if (fallParams.size() == 1 && hasThrowable) {
-      writer.append("this::%s", fallback.getSimpleName());
-      writer.append(")");
-      return;
-    }
-
-    var jdk = APContext.jdkVersion();
-    var unNamedPattern = jdk >= 22 || APContext.previewEnabled() && jdk == 21;
-
-    var exName = !hasThrowable && unNamedPattern ? "_" : "$ex";
-    writer.append("%s -> %s(", exName, fallback.getSimpleName());
-    if (!fallParams.isEmpty()) {
-      for (int i = 0, size = params.size(); i < size; i++) {
-        if (i > 0) {
-          writer.append(", ");
-        }
-        writer.append(params.get(i).simpleName());
-      }
+      args = "$ex";
+    } else if (fallParams.isEmpty()) {
+      args = "";
+    } else {
+      args = hasThrowable ? (params.isEmpty() ? "$ex" : paramNames() + ", $ex") : paramNames();
     }
-    if (hasThrowable) {
-      writer.append(", $ex");
+    writer.eol();
+    writer.append("    @Override").eol();
+    writer.append("    public boolean hasRecoveryMethod() {").eol();
+    writer.append("      return true;").eol();
+    writer.append("    }").eol().eol();
+    writer.append("    @Override").eol();
+    writer.append("    public Object invokeRecoveryMethod(Throwable $ex) {").eol();
+    if (isVoid()) {
+      writer.append("      %s.this.%s(%s);", proxyName, fallback.getSimpleName(), args).eol();
+      writer.append("      return null;").eol();
+    } else {
+      writer.append("      var $recovered = %s.this.%s(%s);", proxyName, fallback.getSimpleName(), args).eol();
+      writer.append("      result($recovered);").eol();
+      writer.append("      return $recovered;").eol();
     }
-    writer.append("))");
+    writer.append("    }").eol();
   }
 
   private void writeThrowsCatch(Append writer) {
@@ -292,7 +336,19 @@ final class AspectMethod {
         .collect(collectingAndThen(joining(" | "), writer::append))
         .append(" e) {")
         .eol();
-    writer.append("      e.addSuppressed(new InvocationException(\"%s proxy threw exception\"));", simpleName).eol();
+    writeSuppressed(writer, "e");
     writer.append("      throw e;").eol();
   }
+
+  private void writeSuppressed(Append writer, String exception) {
+    switch (ProcessingContext.exceptionMarker()) {
+      case NONE:
+        break;
+      case SHARED:
+        writer.append("      %s.addSuppressed(%s$Thrown);", exception, localName).eol();
+        break;
+      default:
+        writer.append("      %s.addSuppressed(new InvocationException(\"%s proxy threw exception\"));", exception, simpleName).eol();
+    }
+  }
 }
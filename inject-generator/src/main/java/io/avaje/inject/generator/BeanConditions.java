@@ -1,5 +1,6 @@
 package io.avaje.inject.generator;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -19,10 +20,72 @@ final class BeanConditions {
   final Set<String> notProfiles = new HashSet<>();
   final Map<String, String> propertyEquals = new HashMap<>();
   final Map<String, String> propertyNotEquals = new HashMap<>();
+  private boolean conditional;
+  private boolean excluded;
 
   void readAll(Element element) {
     readAllDirect(element);
     readMetaAnnotations(element);
+    conditional = !isEmpty();
+    resolve(ProcessingContext.buildConditions());
+  }
+
+  /**
+   * Remove the conditions that are known to hold at build time. When a condition is known to not
+   * hold, or a required bean class is itself excluded, the bean is excluded.
+   */
+  private void resolve(BuildConditions build) {
+    final Set<String> profiles = build.profiles();
+    if (profiles != null) {
+      if (!orProfiles.isEmpty() && Collections.disjoint(profiles, orProfiles)
+        || !profiles.containsAll(andProfiles)
+        || !Collections.disjoint(profiles, notProfiles)) {
+        excluded = true;
+      }
+      orProfiles.clear();
+      andProfiles.clear();
+      notProfiles.clear();
+    }
+    containsProps.removeIf(key -> build.property(key).isPresent());
+    for (final var iterator = missingProps.iterator(); iterator.hasNext(); ) {
+      if (build.property(iterator.next()).isPresent()) {
+        excluded = true;
+        iterator.remove();
+      }
+    }
+    for (final var iterator = propertyEquals.entrySet().iterator(); iterator.hasNext(); ) {
+      final var entry = iterator.next();
+      final var value = build.property(entry.getKey());
+      if (value.isPresent()) {
+        excluded |= !value.get().equals(entry.getValue());
+        iterator.remove();
+      }
+    }
+    for (final var iterator = propertyNotEquals.entrySet().iterator(); iterator.hasNext(); ) {
+      final var entry = iterator.next();
+      final var value = build.property(entry.getKey());
+      if (value.isPresent()) {
+        excluded |= value.get().equals(entry.getValue());
+        iterator.remove();
+      }
+    }
+    if (!excluded) {
+      excluded = requireTypes.stream().anyMatch(build::excludedBean);
+    }
+  }
+
+  /**
+   * Return true if a condition is known to not hold at build time such that the bean is never wired.
+   */
+  boolean isExcluded() {
+    return excluded;
+  }
+
+  /**
+   * Return true if conditions were declared including those resolved at build time.
+   */
+  boolean isConditional() {
+    return conditional;
   }
 
   private void readAllDirect(Element element) {
@@ -321,17 +321,21 @@ final class BeanReader {
   }
 
   MetaData createMeta() {
-    String metaType;
-    if (beanType.getNestingKind().isNested()) {
-      metaType = beanType.getEnclosingElement().toString() + "$" + beanType.getSimpleName();
-    } else {
-      metaType = beanQualifiedName();
-    }
-    MetaData metaData = new MetaData(metaType, name);
+    MetaData metaData = new MetaData(metaType(), name);
     metaData.update(this);
     return metaData;
   }
 
+  /**
+   * Return the type of the bean as used by the module meta data.
+   */
+  String metaType() {
+    if (beanType.getNestingKind().isNested()) {
+      return beanType.getEnclosingElement().toString() + "$" + beanType.getSimpleName();
+    }
+    return beanQualifiedName();
+  }
+
   boolean isExtraInjectionRequired() {
     return !injectFields.isEmpty() || !injectMethods.isEmpty();
   }
@@ -341,14 +345,25 @@ final class BeanReader {
   }
 
   void buildBeanAbsent(Append writer) {
+    buildBeanAbsent(writer, typesRegister());
+  }
+
+  /**
+   * Write the isBeanAbsent() check with the given types, the types inline or a Type[] field.
+   */
+  void buildBeanAbsent(Append writer, String types) {
     writer.append("    if (builder.isBeanAbsent(");
     if (name != null && !name.isEmpty()) {
       writer.append("\"%s\", ", name);
     }
-    writer.append(typeReader.typesRegister());
+    writer.append(types);
     writer.append(")) {").eol();
   }
 
+  String typesRegister() {
+    return typeReader.typesRegister();
+  }
+
   void buildRegister(Append writer) {
     if (prototype || lazy) {
       return;
@@ -471,12 +486,19 @@ final class BeanReader {
     return suppressGeneratedImport ? "@io.avaje.inject.spi.Generated" : "@Generated";
   }
 
-  void writeImports(Append writer, String pkgName) {
+  /**
+   * Return all the types used by the generated build methods.
+   */
+  Set<String> allImportTypes() {
     if (!allGenericTypes().isEmpty()) {
       importTypes.add(Constants.TYPE);
       importTypes.add(Constants.GENERICTYPE);
     }
-    for (String importType : importTypes()) {
+    return importTypes();
+  }
+
+  void writeImports(Append writer, String pkgName) {
+    for (String importType : allImportTypes()) {
       if (Util.validImportType(importType, pkgName)) {
         writer.append("import %s;", Util.sanitizeImports(importType)).eol();
       }
@@ -583,6 +605,13 @@ final class BeanReader {
     return !conditions.isEmpty();
   }
 
+  /**
+   * Return true if the bean is never wired given the build time profiles and properties.
+   */
+  boolean isExcluded() {
+    return conditions.isExcluded();
+  }
+
   String shortName() {
     return Util.shortName(beanQualifiedName());
   }
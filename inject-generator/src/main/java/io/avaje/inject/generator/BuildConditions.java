@@ -0,0 +1,97 @@
+package io.avaje.inject.generator;
+
+import static java.util.stream.Collectors.toSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * The profiles and properties fixed at build time, set via the {@code buildProfiles} and
+ * {@code buildProperties} processor options.
+ * <p>
+ * {@code buildProfiles} is a comma separated list of the active profiles, an empty value meaning
+ * no profiles are active. {@code buildProperties} is a comma separated list of {@code key=value}.
+ * Bean conditions on these are resolved when generating. Conditions on other properties, on
+ * profiles when {@code buildProfiles} is not set and {@code @RequiresBean} are checked at runtime,
+ * except that a bean requiring a bean class that is excluded at build time is excluded as well.
+ */
+final class BuildConditions {
+
+  private final Set<String> profiles;
+  private final Map<String, String> properties;
+  private final Map<String, Boolean> excludedBeans = new HashMap<>();
+
+  private BuildConditions(Set<String> profiles, Map<String, String> properties) {
+    this.profiles = profiles;
+    this.properties = properties;
+  }
+
+  static BuildConditions of(String profilesOption, String propertiesOption) {
+    final Map<String, String> properties = new HashMap<>();
+    if (propertiesOption != null) {
+      for (final String entry : propertiesOption.split(",")) {
+        final int pos = entry.indexOf('=');
+        if (pos > 0) {
+          properties.put(entry.substring(0, pos).trim(), entry.substring(pos + 1).trim());
+        } else if (!entry.isBlank()) {
+          APContext.logWarn("Ignoring buildProperties entry %s, expected key=value", entry);
+        }
+      }
+    }
+    final Set<String> profiles = profilesOption == null ? null : Arrays.stream(profilesOption.split(","))
+      .map(String::trim)
+      .filter(profile -> !profile.isEmpty())
+      .collect(toSet());
+    return new BuildConditions(profiles, properties);
+  }
+
+  /**
+   * Return the active profiles or null when only known at runtime.
+   */
+  Set<String> profiles() {
+    return profiles;
+  }
+
+  /**
+   * Return the property value when set at build time.
+   */
+  Optional<String> property(String key) {
+    return Optional.ofNullable(properties.get(key));
+  }
+
+  /**
+   * Return true if the type is a bean class that is excluded at build time, such that a bean
+   * requiring it via {@code @RequiresBean} is never wired either.
+   */
+  boolean excludedBean(String type) {
+    if (profiles == null && properties.isEmpty()) {
+      return false;
+    }
+    final Boolean known = excludedBeans.get(type);
+    if (known != null) {
+      return known;
+    }
+    // not excluded while reading its conditions, for beans that require each other
+    excludedBeans.put(type, false);
+    final TypeElement element = TypeCache.typeElement(type);
+    final boolean excluded = element != null && element.getKind() == ElementKind.CLASS && isBean(element) && conditions(element).isExcluded();
+    excludedBeans.put(type, excluded);
+    return excluded;
+  }
+
+  private static boolean isBean(TypeElement element) {
+    return SingletonPrism.isPresent(element) || ComponentPrism.isPresent(element) || PrototypePrism.isPresent(element);
+  }
+
+  private static BeanConditions conditions(TypeElement element) {
+    final BeanConditions conditions = new BeanConditions();
+    conditions.readAll(element);
+    return conditions;
+  }
+}
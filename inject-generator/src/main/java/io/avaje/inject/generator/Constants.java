@@ -42,6 +42,7 @@ final class Constants {
   static final String INVOCATION = "io.avaje.inject.aop.Invocation";
   static final String INVOCATION_EXCEPTION = "io.avaje.inject.aop.InvocationException";
   static final String METHOD_INTERCEPTOR = "io.avaje.inject.aop.MethodInterceptor";
+  static final String INTERCEPTOR_CHAIN = "io.avaje.inject.aop.InterceptorChain";
   static final String PROXY = "io.avaje.inject.spi.Proxy";
 
   static final String GENERATED = "io.avaje.inject.spi.Generated";
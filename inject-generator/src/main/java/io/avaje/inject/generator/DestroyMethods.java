@@ -33,6 +33,13 @@ final class DestroyMethods {
     return match;
   }
 
+  /**
+   * Treat the PreDestroy method for a bean that is excluded at build time as matched.
+   */
+  void exclude(String returnTypeRaw) {
+    matchedTypes.add(returnTypeRaw);
+  }
+
   /**
    * Return PreDestroy methods that were not matched to a {@code @Bean} method
    * on the same factory.
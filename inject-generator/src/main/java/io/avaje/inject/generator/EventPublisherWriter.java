@@ -47,7 +47,7 @@ final class EventPublisherWriter {
   private EventPublisherWriter(Element element) {
     final var asType = element.asType();
     this.utype = UType.parse(asType).param0();
-    this.packageName = Optional.ofNullable(APContext.typeElement(utype.mainType()))
+    this.packageName = Optional.ofNullable(TypeCache.typeElement(utype.mainType()))
       .map(APContext.elements()::getPackageOf)
       .map(PackageElement::getQualifiedName)
       .map(Object::toString)
@@ -76,7 +76,7 @@ final class EventPublisherWriter {
   }
 
   private String getUniqueClassName(String className, Integer recursiveIndex) {
-    Optional.ofNullable(APContext.typeElement(className)).ifPresent(e ->
+    Optional.ofNullable(TypeCache.typeElement(className)).ifPresent(e ->
       GENERATED_PUBLISHERS.put(
         e.getQualifiedName().toString(),
         Optional.ofNullable(Util.named(e)).orElse("")));
@@ -134,6 +134,9 @@ final class EventPublisherWriter {
   }
 
   String getGenericType() {
+    if (ParameterizedTypeWriter.supports(utype)) {
+      return "\n      " + ParameterizedTypeWriter.write(utype, new HashMap<>());
+    }
     var sb = new StringBuilder();
     sb.append("\n      new GenericType<");
     writeGenericType(utype, new HashMap<>(), sb);
@@ -0,0 +1,37 @@
+package io.avaje.inject.generator;
+
+import java.util.Locale;
+
+/**
+ * How generated proxies mark exceptions thrown through them, set via the
+ * {@code aopExceptionMarker} processor option.
+ */
+enum ExceptionMarker {
+
+  /**
+   * Add a new InvocationException with a stack trace as a suppressed exception (the default).
+   */
+  FULL,
+
+  /**
+   * Add a preallocated stackless InvocationException per method as a suppressed exception.
+   */
+  SHARED,
+
+  /**
+   * Do not mark exceptions thrown through the proxy.
+   */
+  NONE;
+
+  static ExceptionMarker of(String option) {
+    if (option == null) {
+      return FULL;
+    }
+    try {
+      return valueOf(option.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      APContext.logWarn("Unknown aopExceptionMarker option %s, expected one of full, shared or none", option);
+      return FULL;
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package io.avaje.inject.generator;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.ModuleElement.ProvidesDirective;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.FileObject;
+
+/**
+ * Finds the {@code InjectExtension} types of the dependencies.
+ * <p>
+ * Finding the extensions requires reading every type of every dependency. The extensions found
+ * in each jar are written to {@code avaje-extension-index.csv} in the build directory (or
+ * {@code avaje-extension-index-test.csv} for test compilation) keyed by the path of the jar along
+ * with its size and last modified time and the packages it contains. Only the jars of the current
+ * compile are written such that jars no longer used are dropped.
+ * <p>
+ * The jar of a named module is found before reading its packages, such that a module with an
+ * unchanged jar is not read at all. The packages of the unnamed module are listed and only the
+ * types of packages that are not in the index or are in a changed jar are read. Jars are identified
+ * via {@code Elements.getFileObjectOf()} and types that are not in a jar or where the compiler does
+ * not support this are always read.
+ */
+final class ExtensionIndex {
+
+  private static final String EXTENSION = "io.avaje.inject.spi.InjectExtension";
+  private static final Method FILE_OBJECT_OF = fileObjectOf();
+
+  private final String indexFile = APContext.isTestCompilation() ? "avaje-extension-index-test.csv" : "avaje-extension-index.csv";
+  private final Map<String, Entry> previous;
+  private final Map<String, String> previousPackages = new HashMap<>();
+  private final Map<String, Entry> current = new LinkedHashMap<>();
+  private final Map<String, Boolean> unchangedJars = new HashMap<>();
+  private List<TypeElement> extensions;
+
+  ExtensionIndex() {
+    this.previous = read();
+    previous.forEach((path, entry) -> entry.packages.forEach(pkg -> previousPackages.put(pkg, path)));
+  }
+
+  private static Method fileObjectOf() {
+    try {
+      return Elements.class.getMethod("getFileObjectOf", Element.class);
+    } catch (NoSuchMethodException e) {
+      // Java 17 and earlier
+      return null;
+    }
+  }
+
+  /**
+   * Return the extension types of the dependencies, reading the types of jars that have changed.
+   */
+  List<TypeElement> extensions() {
+    if (extensions == null) {
+      extensions = Stream.concat(scanModules(), providedExtensions()).distinct().collect(toList());
+      write();
+    }
+    return extensions;
+  }
+
+  private static List<ModuleElement> modules() {
+    return APContext.elements().getAllModuleElements().stream()
+      .filter(m -> !m.getQualifiedName().toString().startsWith("java"))
+      .filter(m -> !m.getQualifiedName().toString().startsWith("jdk"))
+      // for whatever reason, compilation breaks if we don't filter out the current module
+      .filter(m -> !m.equals(APContext.getProjectModuleElement()))
+      .collect(toList());
+  }
+
+  private Stream<TypeElement> scanModules() {
+    final List<TypeElement> found = new ArrayList<>();
+    for (final ModuleElement module : modules()) {
+      final Jar jar = module.isUnnamed() ? null : jar(module);
+      final Entry entry = jar == null ? null : previous.get(jar.path);
+      if (entry != null && entry.fingerprint.equals(jar.fingerprint)) {
+        current.put(jar.path, entry);
+        indexed(module, entry, found);
+      } else {
+        scanPackages(module, found);
+      }
+    }
+    return found.stream();
+  }
+
+  /**
+   * Read the types of the packages of the module that are not in an unchanged jar of the index.
+   */
+  private void scanPackages(ModuleElement module, List<TypeElement> found) {
+    final Types types = APContext.types();
+    final TypeMirror extensionType = APContext.typeElement(EXTENSION).asType();
+    final Map<String, Entry> unchanged = new LinkedHashMap<>();
+    getEnclosed(module).map(PackageElement.class::cast).forEach(pkg -> {
+      final String packageName = pkg.getQualifiedName().toString();
+      final Entry entry = unchangedEntry(previousPackages.get(packageName));
+      if (entry != null) {
+        unchanged.put(previousPackages.get(packageName), entry);
+        return;
+      }
+      final List<? extends Element> enclosed = getEnclosed(pkg).collect(toList());
+      final Jar jar = enclosed.isEmpty() ? null : jar(enclosed.get(0));
+      final Entry scanned = jar == null ? null : current.computeIfAbsent(jar.path, p -> new Entry(jar.fingerprint, new ArrayList<>(), new ArrayList<>()));
+      if (scanned != null && !scanned.packages.contains(packageName)) {
+        scanned.packages.add(packageName);
+      }
+      enclosed.stream()
+        .map(TypeElement.class::cast)
+        .filter(t -> t.getKind() == ElementKind.CLASS)
+        .filter(t -> t.getModifiers().contains(Modifier.PUBLIC))
+        .filter(t -> types.isAssignable(t.asType(), extensionType))
+        .forEach(t -> {
+          found.add(t);
+          if (scanned != null && !scanned.extensions.contains(t.getQualifiedName().toString())) {
+            scanned.extensions.add(t.getQualifiedName().toString());
+          }
+        });
+    });
+    unchanged.forEach((path, entry) -> {
+      current.put(path, entry);
+      indexed(module, entry, found);
+    });
+  }
+
+  /**
+   * Return the index entry of the jar if it is unchanged, otherwise null.
+   */
+  private Entry unchangedEntry(String path) {
+    final Entry entry = path == null ? null : previous.get(path);
+    if (entry == null) {
+      return null;
+    }
+    final boolean unchanged = unchangedJars.computeIfAbsent(path, p -> {
+      final Jar jar = jar(Path.of(p));
+      return jar != null && entry.fingerprint.equals(jar.fingerprint);
+    });
+    return unchanged ? entry : null;
+  }
+
+  private static void indexed(ModuleElement module, Entry entry, List<TypeElement> found) {
+    entry.extensions.stream()
+      .map(name -> APContext.elements().getTypeElement(module, name))
+      .filter(Objects::nonNull)
+      .forEach(found::add);
+  }
+
+  private static Stream<TypeElement> providedExtensions() {
+    return modules().stream()
+      .flatMap(ExtensionIndex::providesDirectives)
+      .filter(ExtensionIndex::isInjectExtension)
+      .flatMap(p -> p.getImplementations().stream());
+  }
+
+  /**
+   * Return the jar containing the element (a type or a named module) or null if not in a jar or
+   * not known.
+   */
+  private static Jar jar(Element element) {
+    if (FILE_OBJECT_OF == null) {
+      return null;
+    }
+    try {
+      final FileObject fileObject = (FileObject) FILE_OBJECT_OF.invoke(APContext.elements(), element);
+      final URI uri = fileObject == null ? null : fileObject.toUri();
+      if (uri == null || !"jar".equals(uri.getScheme())) {
+        return null;
+      }
+      final String spec = uri.getRawSchemeSpecificPart();
+      return jar(Path.of(URI.create(spec.substring(0, spec.indexOf("!/")))));
+    } catch (Exception e) {
+      // not supported by the compiler
+      return null;
+    }
+  }
+
+  private static Jar jar(Path path) {
+    try {
+      return new Jar(path.toString(), Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private Map<String, Entry> read() {
+    final Map<String, Entry> index = new LinkedHashMap<>();
+    try {
+      final Path file = APContext.getBuildResource(indexFile);
+      if (file.toFile().exists()) {
+        for (final String line : Files.readAllLines(file)) {
+          final String[] columns = line.split("\\|");
+          if (columns.length == 4 && !line.startsWith("Jar|")) {
+            index.put(columns[0], new Entry(columns[1], list(columns[2]), list(columns[3])));
+          }
+        }
+      }
+    } catch (Exception e) {
+      // rebuild the index
+    }
+    return index;
+  }
+
+  private static List<String> list(String column) {
+    return column.isBlank() ? new ArrayList<>() : new ArrayList<>(Arrays.asList(column.split(",")));
+  }
+
+  private void write() {
+    try (final var writer = new FileWriter(APContext.getBuildResource(indexFile).toFile())) {
+      writer.write("Jar|Fingerprint|Packages|Extensions");
+      for (final var entry : current.entrySet()) {
+        writer.write("\n");
+        writer.write(entry.getKey());
+        writer.write("|");
+        writer.write(entry.getValue().fingerprint);
+        writer.write("|");
+        writer.write(column(entry.getValue().packages));
+        writer.write("|");
+        writer.write(column(entry.getValue().extensions));
+      }
+    } catch (IOException e) {
+      APContext.logWarn("Failed to write %s due to %s", indexFile, e.getMessage());
+    }
+  }
+
+  private static String column(List<String> values) {
+    return values.isEmpty() ? " " : String.join(",", values);
+  }
+
+  // Automatic modules throw an NPE for getDirectives on JDT
+  private static Stream<ProvidesDirective> providesDirectives(ModuleElement m) {
+    try {
+      return ElementFilter.providesIn(m.getDirectives()).stream();
+    } catch (NullPointerException npe) {
+      return Stream.of();
+    }
+  }
+
+  // when a project's module-info is misconfigured a certain way, getEnclosedElements throws an error
+  private static Stream<? extends Element> getEnclosed(Element e) {
+    try {
+      return e.getEnclosedElements().stream();
+    } catch (Exception ex) {
+      return Stream.of();
+    }
+  }
+
+  private static boolean isInjectExtension(ProvidesDirective p) {
+    return EXTENSION.equals(p.getService().getQualifiedName().toString());
+  }
+
+  private static final class Jar {
+
+    final String path;
+    final String fingerprint;
+
+    Jar(String path, String fingerprint) {
+      this.path = path;
+      this.fingerprint = fingerprint;
+    }
+  }
+
+  private static final class Entry {
+
+    final String fingerprint;
+    final List<String> packages;
+    final List<String> extensions;
+
+    Entry(String fingerprint, List<String> packages, List<String> extensions) {
+      this.fingerprint = fingerprint;
+      this.packages = packages;
+      this.extensions = extensions;
+    }
+  }
+}
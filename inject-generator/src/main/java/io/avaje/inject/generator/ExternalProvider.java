@@ -2,7 +2,6 @@ package io.avaje.inject.generator;
 
 import static java.util.List.of;
 import static java.util.Map.entry;
-import static java.util.stream.Collectors.toList;
 
 import java.io.FileWriter;
 import java.io.IOException;
@@ -17,13 +16,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Stream;
 
-import javax.lang.model.element.Element;
-import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.Modifier;
-import javax.lang.model.element.ModuleElement;
-import javax.lang.model.element.ModuleElement.ProvidesDirective;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.util.ElementFilter;
 
@@ -42,6 +35,14 @@ final class ExternalProvider {
   private static final boolean INJECT_AVAILABLE = moduleCP();
   private static final Map<String, List<String>> avajePlugins = Map.ofEntries(
     entry("io.avaje.inject.events.spi.ObserverManagerPlugin", of("io.avaje.inject.events.ObserverManager")),
+    entry("io.avaje.inject.aop.spi.AspectPlugin",
+      of(
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.async.Async>",
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.batch.Batched>",
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.cache.Cached>",
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.limit.ConcurrencyLimit>",
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.singleflight.SingleFlight>",
+        "io.avaje.inject.aop.AspectProvider<io.avaje.inject.aop.timed.Timed>")),
     entry("io.avaje.jsonb.inject.DefaultJsonbProvider", of("io.avaje.jsonb.Jsonb")),
     entry("io.avaje.http.inject.DefaultResolverProvider", of("io.avaje.http.api.context.RequestContextResolver")),
     entry("io.avaje.htmx.nima.jstache.DefaultTemplateProvider",
@@ -138,7 +139,7 @@ final class ExternalProvider {
 
   static void registerExternalMetaData(String name) {
     ProcessingContext.addExternalInjectSPI(name);
-    Optional.ofNullable(APContext.typeElement(name))
+    Optional.ofNullable(TypeCache.typeElement(name))
       .map(TypeElement::getEnclosedElements)
       .map(ElementFilter::methodsIn)
       .stream()
@@ -157,11 +158,11 @@ final class ExternalProvider {
     });
   }
 
-  static void scanAllInjectPlugins(ScopeInfo defaultScope) {
+  static void scanAllInjectPlugins(ScopeInfo defaultScope, ExtensionIndex extensionIndex) {
     Map<String, List<String>> plugins = new HashMap<>();
     final var hasPlugins = !defaultScope.pluginProvided().isEmpty();
     avajePlugins.forEach((k, v) -> {
-      if (APContext.typeElement(k) != null) {
+      if (TypeCache.typeElement(k) != null) {
         plugins.put(k, v);
         APContext.logNote("Loaded Plugin: %s", k);
         ProcessingContext.addExternalInjectSPI(k);
@@ -173,7 +174,7 @@ final class ExternalProvider {
       return;
     }
 
-    injectExtensions()
+    extensionIndex.extensions().stream()
       .filter(PluginProvidesPrism::isPresent)
       .distinct()
       .forEach(pluginType -> addPluginToScope(defaultScope, pluginType, plugins));
@@ -222,13 +223,13 @@ final class ExternalProvider {
     plugins.put(name, provides);
   }
 
-  static void scanAllAvajeModules(Collection<String> providedTypes) {
+  static void scanAllAvajeModules(Collection<String> providedTypes, ExtensionIndex extensionIndex) {
     if (!externalMeta.isEmpty()) {
       return;
     }
     final var types = APContext.types();
-    final var avajeModuleType = APContext.typeElement("io.avaje.inject.spi.AvajeModule").asType();
-    injectExtensions()
+    final var avajeModuleType = TypeCache.typeElement("io.avaje.inject.spi.AvajeModule").asType();
+    extensionIndex.extensions().stream()
       .filter(t -> t.getInterfaces().stream().anyMatch(i -> types.isAssignable(i, avajeModuleType)))
       .distinct()
       .forEach(otherModule -> addOtherModuleProvides(providedTypes, otherModule));
@@ -284,56 +285,4 @@ final class ExternalProvider {
     APContext.logNote("Detected Module: %s", name);
     ProcessingContext.addModule(new ModuleData(name, List.copyOf(provides), List.copyOf(requires)));
   }
-
-  private static Stream<TypeElement> injectExtensions() {
-    final var allModules =
-      APContext.elements().getAllModuleElements().stream()
-        .filter(m -> !m.getQualifiedName().toString().startsWith("java"))
-        .filter(m -> !m.getQualifiedName().toString().startsWith("jdk"))
-        // for whatever reason, compilation breaks if we don't filter out the current module
-        .filter(m -> !m.equals(APContext.getProjectModuleElement()))
-        .collect(toList());
-
-    final var types = APContext.types();
-    final var extensionType = APContext.typeElement("io.avaje.inject.spi.InjectExtension").asType();
-
-    final var checkEnclosing =
-      allModules.stream()
-        .flatMap(ExternalProvider::getEnclosed)
-        .flatMap(ExternalProvider::getEnclosed)
-        .map(TypeElement.class::cast)
-        .filter(t -> t.getKind() == ElementKind.CLASS)
-        .filter(t -> t.getModifiers().contains(Modifier.PUBLIC))
-        .filter(t -> types.isAssignable(t.asType(), extensionType));
-
-    final var checkDirectives =
-      allModules.stream()
-        .flatMap(ExternalProvider::providesDirectives)
-        .filter(ExternalProvider::isInjectExtension)
-        .flatMap(p -> p.getImplementations().stream());
-
-    return Stream.concat(checkEnclosing, checkDirectives);
-  }
-
-  // Automatic modules throw an NPE for getDirectives on JDT
-  private static Stream<ProvidesDirective> providesDirectives(ModuleElement m) {
-    try {
-      return ElementFilter.providesIn(m.getDirectives()).stream();
-    } catch (NullPointerException npe) {
-      return Stream.of();
-    }
-  }
-
-  // when a project's module-info is misconfigured a certain way, getEnclosedElements throws an error
-  private static Stream<? extends Element> getEnclosed(Element e) {
-    try {
-      return e.getEnclosedElements().stream();
-    } catch (Exception ex) {
-      return Stream.of();
-    }
-  }
-
-  private static boolean isInjectExtension(ModuleElement.ProvidesDirective p) {
-    return "io.avaje.inject.spi.InjectExtension".equals(p.getService().getQualifiedName().toString());
-  }
 }
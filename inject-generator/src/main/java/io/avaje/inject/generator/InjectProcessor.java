@@ -1,11 +1,11 @@
 package io.avaje.inject.generator;
 
 import static io.avaje.inject.generator.APContext.logError;
-import static io.avaje.inject.generator.APContext.typeElement;
 import static io.avaje.inject.generator.ProcessingContext.addImportedAspects;
 import static io.avaje.inject.generator.ProcessingContext.delayedElements;
 import static io.avaje.inject.generator.ProcessingContext.loadMetaInfCustom;
 import static io.avaje.inject.generator.ProcessingContext.loadMetaInfServices;
+import static io.avaje.inject.generator.TypeCache.typeElement;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
@@ -43,7 +43,7 @@ import io.avaje.prism.GenerateUtils;
 @GenerateUtils
 @GenerateAPContext
 @GenerateModuleInfoReader
-@SupportedOptions({"mergeServices", "buildPlugin"})
+@SupportedOptions({"mergeServices", "buildPlugin", "aopExceptionMarker", "timingReport", "buildProfiles", "buildProperties", "packageTables"})
 @SupportedAnnotationTypes({
   AspectImportPrism.PRISM_TYPE,
   AssistFactoryPrism.PRISM_TYPE,
@@ -80,6 +80,8 @@ public final class InjectProcessor extends AbstractProcessor {
   public synchronized void init(ProcessingEnvironment processingEnv) {
     super.init(processingEnv);
     APContext.init(processingEnv);
+    TypeCache.init();
+    ProcessingTimer.init(APContext.getOption("timingReport").map(Boolean::valueOf).orElse(false));
     loadProvidedFiles();
     ProcessingContext.registerProvidedTypes(moduleFileProvided);
     moduleData.forEach(ProcessingContext::addModule);
@@ -143,9 +145,16 @@ public final class InjectProcessor extends AbstractProcessor {
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
     if (roundEnv.errorRaised()) {
+      if (roundEnv.processingOver()) {
+        // report the timings of a failed compile as well
+        ProcessingTimer.writeReport();
+        ProcessingContext.clear();
+      }
       return false;
     }
 
+    TypeCache.newRound();
+    ProcessingTimer.startRound(roundEnv.getRootElements().size());
     APContext.setProjectModuleElement(annotations, roundEnv);
     readModule(roundEnv);
 
@@ -208,6 +217,10 @@ public final class InjectProcessor extends AbstractProcessor {
       }
       ProcessingContext.writeSPIServicesFile();
       ProcessingContext.validateModule();
+    }
+    ProcessingTimer.endRound();
+    if (processingOver) {
+      ProcessingTimer.writeReport();
       ProcessingContext.clear();
     }
     return false;
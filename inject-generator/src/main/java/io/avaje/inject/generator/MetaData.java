@@ -1,6 +1,6 @@
 package io.avaje.inject.generator;
 
-import static io.avaje.inject.generator.APContext.typeElement;
+import static io.avaje.inject.generator.TypeCache.typeElement;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -186,7 +186,18 @@ final class MetaData implements Comparable<MetaData> {
     return null;
   }
 
+  /**
+   * Return the prefix of the build methods when written into a package table, otherwise null.
+   */
+  private String tableMethods() {
+    return ProcessingContext.tableMethods(hasMethod() ? Util.classOfMethod(method) : type + Constants.DI);
+  }
+
   void addImportTypes(Set<String> importTypes) {
+    if (tableMethods() != null) {
+      // the table methods are called fully qualified
+      return;
+    }
     if (hasMethod()) {
       importTypes.add(Util.classOfMethod(method));
     } else if (!generateProxy) {
@@ -240,7 +251,10 @@ final class MetaData implements Comparable<MetaData> {
     }
     append.append(")").append(NEWLINE);
     append.append("  private void build_").append(buildName()).append("(Builder builder) {").append(NEWLINE);
-    if (hasMethod()) {
+    final String tableMethods = tableMethods();
+    if (tableMethods != null) {
+      append.append("    ").append(tableMethods).append(hasMethod() ? method.substring(method.lastIndexOf('.') + 1) : "build").append("(builder");
+    } else if (hasMethod()) {
       append.append("    ").append(Util.shortMethod(method)).append("(builder");
     } else {
       append.append("    ").append(fullyQualify ? type : shortType).append(Constants.DI).append(".build(builder");
@@ -11,6 +11,15 @@ import static java.util.stream.Collectors.toList;
 
 import java.util.*;
 
+/**
+ * Orders the beans of a module such that beans are wired after their dependencies.
+ * <p>
+ * The ordering is a topological sort over the {@code providers} index. Each queued bean counts
+ * its dependencies that are not yet satisfied and each provider list holds the beans that depend
+ * on it, such that wiring a bean only revisits the beans that depend on it. Ready beans are
+ * taken in order of (pass, queue position) which gives the same order as repeatedly scanning the
+ * queue in passes until no further beans can be wired.
+ */
 final class MetaDataOrdering {
 
   private static final String CIRC_ERR_MSG =
@@ -21,6 +30,7 @@ final class MetaDataOrdering {
   private final ScopeInfo scopeInfo;
   private final List<MetaData> orderedList = new ArrayList<>();
   private final List<MetaData> queue = new ArrayList<>();
+  private final Map<MetaData, Node> nodes = new IdentityHashMap<>();
   private final Map<String, ProviderList> providers = new HashMap<>();
   private final List<DependencyLink> circularDependencies = new ArrayList<>();
   private final Set<String> missingDependencyTypes = new LinkedHashSet<>();
@@ -33,6 +43,7 @@ final class MetaDataOrdering {
         orderedList.add(metaData);
         metaData.setWired();
       } else {
+        nodes.put(metaData, new Node(metaData, queue.size()));
         queue.add(metaData);
       }
       // register into map keyed by provider
@@ -43,6 +54,14 @@ final class MetaDataOrdering {
       }
     }
     externallyRequiredDependencies();
+    for (ProviderList providerList : providers.values()) {
+      for (MetaData member : providerList.members) {
+        final Node node = nodes.get(member);
+        if (node != null) {
+          node.memberOf.add(providerList);
+        }
+      }
+    }
   }
 
   /**
@@ -62,20 +81,13 @@ final class MetaDataOrdering {
   }
 
   int processQueue() {
-    int count;
-    do {
-      // first run without external dependencies from other modules
-      count = processQueueRound(false, false);
-    } while (count > 0);
-    do {
-      // run again including externally provided dependencies from other modules
-      count = processQueueRound(true, false);
-    } while (count > 0);
-
-    do {
-      // Last ditch effort, match any bean available
-      count = processQueueRound(true, true);
-    } while (count > 0);
+    indexDependents();
+    // first run without external dependencies from other modules
+    processQueuePhase(false, false);
+    // run again including externally provided dependencies from other modules
+    processQueuePhase(true, false);
+    // Last ditch effort, match any bean available
+    processQueuePhase(true, true);
 
     int remaining = queue.size();
     if (remaining != 0) {
@@ -85,6 +97,88 @@ final class MetaDataOrdering {
     return remaining;
   }
 
+  /**
+   * Register each queued bean as a dependent of the provider lists it depends on.
+   */
+  private void indexDependents() {
+    for (MetaData queuedMeta : queue) {
+      final Node node = nodes.get(queuedMeta);
+      for (Dependency dependency : queuedMeta.dependsOn()) {
+        final String dependencyName = dependency.name();
+        if (Util.isProvider(dependencyName) || Constants.BEANSCOPE.equals(dependencyName)) {
+          continue;
+        }
+        final ProviderList providerList = providers.get(dependencyName);
+        if (providerList == null) {
+          node.unlisted.add(dependency);
+        } else {
+          providerList.dependents.add(node);
+          node.listed.add(providerList);
+        }
+      }
+    }
+  }
+
+  /**
+   * Wire the queued beans whose dependencies are satisfied, in turn satisfying the dependencies
+   * of other queued beans, until no further beans can be wired.
+   */
+  private void processQueuePhase(boolean includeExternal, boolean anyWired) {
+    final PriorityQueue<Node> ready = new PriorityQueue<>(Node.ORDER);
+    for (MetaData queuedMeta : queue) {
+      final Node node = nodes.get(queuedMeta);
+      node.pass = 0;
+      node.blocked = !unlistedSatisfied(node, includeExternal);
+      node.pending = 0;
+      for (ProviderList providerList : node.listed) {
+        if (!providerList.isWired(anyWired)) {
+          node.pending++;
+        }
+      }
+      if (node.isReady()) {
+        ready.add(node);
+      }
+    }
+    while (!ready.isEmpty()) {
+      final Node node = ready.poll();
+      final MetaData metaData = node.metaData;
+      if (includeExternal) {
+        markExternalDependencies(node);
+      }
+      orderedList.add(metaData);
+      metaData.setWired();
+      for (ProviderList providerList : node.memberOf) {
+        if (providerList.wired(anyWired)) {
+          for (Node dependent : providerList.dependents) {
+            if (!dependent.metaData.isWired() && --dependent.pending == 0 && !dependent.blocked) {
+              // scanned later in this pass or otherwise in the next pass
+              dependent.pass = dependent.position > node.position ? node.pass : node.pass + 1;
+              ready.add(dependent);
+            }
+          }
+        }
+      }
+    }
+    queue.removeIf(MetaData::isWired);
+  }
+
+  private boolean unlistedSatisfied(Node node, boolean includeExternal) {
+    for (Dependency dependency : node.unlisted) {
+      if (!scopeInfo.providedByOther(dependency) && !(includeExternal && externallyProvided(dependency.name()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void markExternalDependencies(Node node) {
+    for (Dependency dependency : node.unlisted) {
+      if (!scopeInfo.providedByOther(dependency)) {
+        isExternal(dependency.name(), true, node.metaData);
+      }
+    }
+  }
+
   /**
    * Try to detect circular dependency given the remaining beans
    * in the queue with unsatisfied dependencies.
@@ -95,7 +189,7 @@ final class MetaDataOrdering {
       final List<Dependency> dependsOn = metaData.dependsOn();
       if (dependsOn != null) {
         for (Dependency dependency : dependsOn) {
-          final MetaData provider = findCircularDependency(remainder, dependency);
+          final MetaData provider = findCircularDependency(dependency);
           if (provider != null) {
             dependencyLinks.add(new DependencyLink(metaData, provider, dependency.name()));
           }
@@ -108,17 +202,19 @@ final class MetaDataOrdering {
     }
   }
 
-  private MetaData findCircularDependency(List<MetaData> remainder, Dependency dependency) {
-    for (MetaData metaData : remainder) {
-      if (metaData.toString().contains(dependency.name())) {
-        return metaData;
-      }
-      final List<String> provides = metaData.provides();
-      if (provides != null && provides.contains(dependency.name())) {
-        return metaData;
+  private MetaData findCircularDependency(Dependency dependency) {
+    final ProviderList providerList = providers.get(dependency.name());
+    if (providerList == null) {
+      return null;
+    }
+    Node first = null;
+    for (MetaData member : providerList.members) {
+      final Node node = nodes.get(member);
+      if (node != null && !member.isWired() && (first == null || node.position < first.position)) {
+        first = node;
       }
     }
-    return null;
+    return first == null ? null : first.metaData;
   }
 
   /**
@@ -179,35 +275,6 @@ final class MetaDataOrdering {
     }
   }
 
-  private int processQueueRound(boolean includeExternal, boolean anyWired) {
-    // loop queue looking for entry that has all provides marked as included
-    int count = 0;
-    Iterator<MetaData> iterator = queue.iterator();
-    while (iterator.hasNext()) {
-      MetaData queuedMeta = iterator.next();
-      if (allDependenciesWired(queuedMeta, includeExternal, anyWired)) {
-        orderedList.add(queuedMeta);
-        queuedMeta.setWired();
-        iterator.remove();
-        count++;
-      }
-    }
-    return count;
-  }
-
-  private boolean allDependenciesWired(MetaData queuedMeta, boolean includeExternal, boolean anyWired) {
-    for (Dependency dependency : queuedMeta.dependsOn()) {
-      String dependencyName = dependency.name();
-      if (Util.isProvider(dependencyName) || Constants.BEANSCOPE.equals(dependencyName)) {
-        continue;
-      }
-      if (!dependencySatisfied(dependency, includeExternal, queuedMeta, anyWired)) {
-        return false;
-      }
-    }
-    return true;
-  }
-
   private boolean dependencySatisfied(Dependency dependency, boolean includeExternal, MetaData queuedMeta, boolean anyWired) {
     String dependencyName = dependency.name();
     var providerList = providers.get(dependencyName);
@@ -255,12 +322,16 @@ final class MetaDataOrdering {
     return !circularDependencies.isEmpty();
   }
 
-  private static class ProviderList {
+  private static final class ProviderList {
 
-    private final List<MetaData> list = new ArrayList<>();
+    private final Set<MetaData> members = new LinkedHashSet<>();
+    private final List<Node> dependents = new ArrayList<>();
+    private int wiredCount;
 
     private void add(MetaData beanMeta) {
-      list.add(beanMeta);
+      if (members.add(beanMeta) && beanMeta.isWired()) {
+        wiredCount++;
+      }
     }
 
     private boolean isWired(boolean anyWired) {
@@ -268,21 +339,46 @@ final class MetaDataOrdering {
     }
 
     private boolean isAllWired() {
-      for (MetaData metaData : list) {
-        if (!metaData.isWired()) {
-          return false;
-        }
-      }
-      return true;
+      return wiredCount == members.size();
     }
 
     private boolean isAnyWired() {
-      for (MetaData metaData : list) {
-        if (metaData.isWired()) {
-          return true;
-        }
-      }
-      return list.isEmpty();
+      return wiredCount > 0 || members.isEmpty();
+    }
+
+    /**
+     * Count a member as wired returning true if that satisfies the list.
+     */
+    private boolean wired(boolean anyWired) {
+      wiredCount++;
+      return anyWired ? wiredCount == 1 : isAllWired();
+    }
+  }
+
+  /**
+   * A queued bean with the count of its dependencies that are not yet satisfied.
+   */
+  private static final class Node {
+
+    static final Comparator<Node> ORDER =
+      Comparator.<Node>comparingInt(node -> node.pass).thenComparingInt(node -> node.position);
+
+    final MetaData metaData;
+    final int position;
+    final List<ProviderList> memberOf = new ArrayList<>();
+    final List<ProviderList> listed = new ArrayList<>();
+    final List<Dependency> unlisted = new ArrayList<>();
+    int pass;
+    int pending;
+    boolean blocked;
+
+    Node(MetaData metaData, int position) {
+      this.metaData = metaData;
+      this.position = position;
+    }
+
+    boolean isReady() {
+      return pending == 0 && !blocked;
     }
   }
 
@@ -118,8 +118,8 @@ final class MethodReader {
     this.name = multiRegister && qualifierName == null ? "multi" : qualifierName;
     TypeElement returnElement =
       multiRegister
-        ? APContext.typeElement(returnTypeRaw)
-        : optionalType ? APContext.typeElement(returnTypeRaw) : asElement(returnMirror);
+        ? TypeCache.typeElement(returnTypeRaw)
+        : optionalType ? TypeCache.typeElement(returnTypeRaw) : asElement(returnMirror);
     if (returnElement == null) {
       this.typeReader = null;
       this.initMethod = initMethod;
@@ -439,7 +439,18 @@ final class MethodReader {
   }
 
   boolean hasConditions() {
-    return !conditions.isEmpty();
+    return conditions.isConditional();
+  }
+
+  /**
+   * Return true if the bean is never wired given the build time profiles and properties.
+   */
+  boolean isExcluded() {
+    return conditions.isExcluded();
+  }
+
+  String returnTypeRaw() {
+    return returnTypeRaw;
   }
 
   void buildConditional(Append writer) {
@@ -447,20 +458,28 @@ final class MethodReader {
   }
 
   void buildAddFor(Append writer) {
+    buildAddFor(writer, typesRegister());
+  }
+
+  /**
+   * Write the isBeanAbsent() check with the given types, the types inline or a Type[] field.
+   */
+  void buildAddFor(Append writer, String types) {
     writer.append("    if (builder.isBeanAbsent(");
-    if (isVoid) {
-      writer.append("Void.class");
-    } else {
-      if (name != null && !name.isEmpty()) {
-        writer.append("\"%s\", ", name);
-      }
-      if (typeReader != null) {
-        writer.append(typeReader.typesRegister());
-      }
+    if (!isVoid && name != null && !name.isEmpty()) {
+      writer.append("\"%s\", ", name);
     }
+    writer.append(types);
     writer.append(")) {").eol();
   }
 
+  String typesRegister() {
+    if (isVoid) {
+      return "Void.class";
+    }
+    return typeReader == null ? "" : typeReader.typesRegister();
+  }
+
   boolean methodThrows() {
     return !element.getThrownTypes().isEmpty();
   }
@@ -693,6 +712,10 @@ final class MethodReader {
         importTypes.add("java.util.function.Consumer");
         importTypes.add("io.avaje.inject.events.Observer");
         importTypes.add("io.avaje.inject.events.ObserverManager");
+        if (ObservesPrism.getInstanceOn(element).bounded()) {
+          importTypes.add("io.avaje.inject.events.AsyncChannel");
+          importTypes.add("io.avaje.inject.events.OverflowPolicy");
+        }
       }
       importTypes.addAll(fullUType.importTypes());
       Util.nullableAnnotation(element).map(Object::toString).ifPresent(importTypes::add);
@@ -732,12 +755,11 @@ final class MethodReader {
     }
 
     void writeMethodParamAspect(Append writer) {
-      if (fullUType.isGeneric()) {
-        writer.append(fullUType.shortWithoutAnnotations());
-      } else {
-        writer.append(Util.shortName(fullUType.mainType()));
-      }
-      writer.append(" ").append(simpleName);
+      writer.append(aspectParamType()).append(" ").append(simpleName);
+    }
+
+    String aspectParamType() {
+      return fullUType.isGeneric() ? fullUType.shortWithoutAnnotations() : Util.shortName(fullUType.mainType());
     }
 
     void writeMethodParamTypeAspect(Append writer) {
@@ -21,6 +21,8 @@ interface ObservesPrism {
 
   Integer priority();
 
+  Long coalesceMillis();
+
   static Optional<ObservesPrism> getOptionalOn(Element e) {
     return Optional.<ObservesPrism>empty()
         .or(() -> ObservesSyncPrism.getOptionalOn(e))
@@ -35,4 +37,9 @@ interface ObservesPrism {
   default boolean async() {
     return this instanceof ObservesAsyncPrism;
   }
+
+  /** Return true if async events are delivered via a bounded channel. */
+  default boolean bounded() {
+    return async() && ((ObservesAsyncPrism) this).capacity() > 0;
+  }
 }
@@ -0,0 +1,157 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.APContext.createSourceFile;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Write the build methods of the beans of a package into a single {@code <Module>$Table} class
+ * when the {@code packageTables} processor option is set.
+ * <p>
+ * Rather than a {@code $DI} class per bean, the table holds the build methods of the beans of the
+ * package along with static final generic types and {@code isBeanAbsent()} type arrays, such that
+ * building the module loads one class per package and does not allocate the type arrays. The
+ * table is in the package of the beans so it can use their package private members, and is named
+ * after the module such that the modules of main and test code have distinct tables.
+ * <p>
+ * Request scoped controllers and proxied beans, beans with imports that clash with those of the
+ * other beans of the package and beans read after the table of their package was written in an
+ * earlier round keep their own {@code $DI} class. The module calls the table methods so the beans
+ * of a package are expected to be processed together, as they are by a full or aggregating build.
+ */
+final class PackageTableWriter {
+
+  private final String packageName;
+  private final String name;
+  private final String fullName;
+  private final List<BeanReader> beans = new ArrayList<>();
+  private final Map<String, String> imports = new HashMap<>();
+  private final Set<String> writtenFields = new HashSet<>();
+  private final StringWriter fields = new StringWriter();
+  private final StringWriter types = new StringWriter();
+  private final Append fieldsWriter = new Append(fields);
+  private final Append typesWriter = new Append(types);
+
+  private PackageTableWriter(String packageName, String name) {
+    this.packageName = packageName;
+    this.name = name;
+    this.fullName = packageName + "." + name;
+    imports.put("Type", Constants.TYPE);
+  }
+
+  /**
+   * Return the tables to write for the beans that are not yet written.
+   */
+  static List<PackageTableWriter> of(List<BeanReader> beanReaders, String name) {
+    final Map<String, PackageTableWriter> tables = new LinkedHashMap<>();
+    for (BeanReader beanReader : beanReaders) {
+      if (!beanReader.isWrittenToFile()
+        && !beanReader.isRequestScopedController()
+        && !beanReader.isGenerateProxy()
+        && beanReader.constructor() != null) {
+        tables.computeIfAbsent(beanReader.packageName(), pkg -> new PackageTableWriter(pkg, name)).add(beanReader);
+      }
+    }
+    return tables.values().stream()
+      .filter(table -> !table.beans.isEmpty())
+      .filter(table -> ProcessingContext.addTable(table.fullName))
+      .collect(toList());
+  }
+
+  /**
+   * Return the name used to prefix the build methods and type fields of the bean.
+   */
+  static String tableName(BeanReader beanReader) {
+    return beanReader.shortName().replace(".", "$");
+  }
+
+  private void add(BeanReader beanReader) {
+    final Map<String, String> beanImports = new HashMap<>();
+    for (String type : beanReader.allImportTypes()) {
+      final String importType = Util.sanitizeImports(type);
+      final String simpleName = importType.substring(importType.lastIndexOf('.') + 1);
+      final String existing = imports.get(simpleName);
+      if (existing != null && !existing.equals(importType)) {
+        // the short name means a different type for this bean, it keeps its $DI
+        return;
+      }
+      beanImports.put(simpleName, importType);
+    }
+    imports.putAll(beanImports);
+    beans.add(beanReader);
+  }
+
+  /**
+   * Return the generic type fields written so far, shared by the beans of the table.
+   */
+  Set<String> writtenFields() {
+    return writtenFields;
+  }
+
+  /**
+   * Return the writer for the generic type fields.
+   */
+  Append fields() {
+    return fieldsWriter;
+  }
+
+  /**
+   * Add a static final Type[] field for the given types returning the field name.
+   */
+  String typesField(String name, String typesRegister) {
+    if (typesRegister.isEmpty()) {
+      return typesRegister;
+    }
+    final String field = "TYPES_" + name;
+    typesWriter.append("  private static final Type[] %s = {%s};", field, typesRegister).eol();
+    return field;
+  }
+
+  void write() throws IOException {
+    final StringWriter methods = new StringWriter();
+    final Append methodsWriter = new Append(methods);
+    for (BeanReader beanReader : beans) {
+      final long start = ProcessingTimer.start();
+      new SimpleBeanWriter(beanReader).writeTable(this, methodsWriter);
+      ProcessingTimer.bean(beanReader.beanType().getQualifiedName().toString(), ProcessingTimer.Phase.WRITE_BEANS, start);
+    }
+
+    final Append writer = new Append(createSourceFile(fullName).openWriter());
+    writer.append("package %s;", packageName).eol().eol();
+    for (String importType : new TreeSet<>(imports.values())) {
+      if (Util.validImportType(importType, packageName)) {
+        writer.append("import %s;", importType).eol();
+      }
+    }
+    writer.eol();
+    writer.append(beans.get(0).generatedType()).append(Constants.AT_GENERATED_COMMENT).eol();
+    writer.append("public final %sclass %s {", Util.valhalla(), name).eol().eol();
+    writer.append(fields.toString());
+    writer.append(types.toString()).eol();
+    writer.append(methods.toString());
+    writer.append("}").eol();
+    writer.close();
+
+    for (BeanReader beanReader : beans) {
+      final String methodsPrefix = fullName + "." + tableName(beanReader) + "$";
+      ProcessingContext.addTableMethods(beanReader.metaType() + Constants.DI, methodsPrefix);
+      ProcessingContext.addTableMethods(beanReader.beanType().getQualifiedName() + Constants.DI, methodsPrefix);
+      beanReader.setWrittenToFile();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return fullName;
+  }
+}
@@ -0,0 +1,53 @@
+package io.avaje.inject.generator;
+
+import java.util.Map;
+import java.util.Objects;
+
+import javax.lang.model.type.TypeKind;
+
+/**
+ * Writes generic types as {@code GenericType.parameterized(...)} calls.
+ * <p>
+ * These create the type without an anonymous {@code GenericType} subclass per type. Types that
+ * include arrays, wildcards or type variables are not supported and use the anonymous subclass.
+ */
+final class ParameterizedTypeWriter {
+
+  private ParameterizedTypeWriter() {
+  }
+
+  /**
+   * Return true if the type only contains declared types and can be written as parameterized.
+   */
+  static boolean supports(UType type) {
+    if (type.kind() != TypeKind.DECLARED) {
+      return false;
+    }
+    return !type.isGeneric() || type.componentTypes().stream().allMatch(ParameterizedTypeWriter::supports);
+  }
+
+  /**
+   * Return the expression creating the type using short names where they are not ambiguous.
+   */
+  static String write(UType type, Map<String, String> seenShortNames) {
+    final var sb = new StringBuilder();
+    write(type, seenShortNames, sb);
+    return sb.toString();
+  }
+
+  private static void write(UType type, Map<String, String> seenShortNames, StringBuilder writer) {
+    final var typeShortName = Util.shortName(type.mainType());
+    final var mainType = seenShortNames.computeIfAbsent(typeShortName, k -> type.mainType());
+    final var shortName = Objects.equals(type.mainType(), mainType) ? typeShortName : type.mainType();
+    if (!type.isGeneric()) {
+      writer.append(shortName).append(".class");
+      return;
+    }
+    writer.append("GenericType.parameterized(").append(shortName).append(".class");
+    for (final var param : type.componentTypes()) {
+      writer.append(", ");
+      write(param, seenShortNames, writer);
+    }
+    writer.append(")");
+  }
+}
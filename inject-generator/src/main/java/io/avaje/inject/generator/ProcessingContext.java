@@ -1,13 +1,12 @@
 package io.avaje.inject.generator;
 
 import static io.avaje.inject.generator.APContext.asTypeElement;
-import static io.avaje.inject.generator.APContext.elements;
 import static io.avaje.inject.generator.APContext.filer;
 import static io.avaje.inject.generator.APContext.logError;
 import static io.avaje.inject.generator.APContext.logNote;
 import static io.avaje.inject.generator.APContext.logWarn;
-import static io.avaje.inject.generator.APContext.typeElement;
 import static io.avaje.inject.generator.APContext.types;
+import static io.avaje.inject.generator.TypeCache.typeElement;
 import static java.util.stream.Collectors.toSet;
 
 import java.io.BufferedReader;
@@ -53,6 +52,13 @@ final class ProcessingContext {
     private final AllScopes scopes = new AllScopes();
     private boolean strictWiring;
     private final boolean mergeServices = APContext.getOption("mergeServices").map(Boolean::valueOf).orElse(true);
+    private final ExceptionMarker exceptionMarker = ExceptionMarker.of(APContext.getOption("aopExceptionMarker").orElse(null));
+    private final BuildConditions buildConditions = BuildConditions.of(
+      APContext.getOption("buildProfiles").orElse(null),
+      APContext.getOption("buildProperties").orElse(null));
+    private final boolean packageTables = APContext.getOption("packageTables").map(Boolean::valueOf).orElse(false);
+    private final Set<String> tables = new HashSet<>();
+    private final Map<String, String> tableMethods = new HashMap<>();
 
     void registerProvidedTypes(Set<String> moduleFileProvided) {
       ExternalProvider.registerModuleProvidedTypes(providedTypes);
@@ -83,7 +89,7 @@ final class ProcessingContext {
   }
 
   private static boolean isInjectModule(String spi) {
-    var moduleType = APContext.typeElement(spi);
+    var moduleType = typeElement(spi);
     return moduleType != null && moduleType.getInterfaces().stream()
       .map(TypeMirror::toString)
       .anyMatch(s -> s.contains("AvajeModule"));
@@ -134,6 +140,48 @@ final class ProcessingContext {
     }
   }
 
+  /**
+   * Return how generated proxies mark exceptions thrown through them.
+   */
+  static ExceptionMarker exceptionMarker() {
+    return CTX.get().exceptionMarker;
+  }
+
+  /**
+   * Return the profiles and properties fixed at build time.
+   */
+  static BuildConditions buildConditions() {
+    return CTX.get().buildConditions;
+  }
+
+  /**
+   * Return true when the beans of a package are written into a single table class.
+   */
+  static boolean packageTables() {
+    return CTX.get().packageTables;
+  }
+
+  /**
+   * Return true if the table has not yet been written.
+   */
+  static boolean addTable(String fullName) {
+    return CTX.get().tables.add(fullName);
+  }
+
+  /**
+   * Register the table methods prefix to use in place of the given $DI type.
+   */
+  static void addTableMethods(String diType, String methodsPrefix) {
+    CTX.get().tableMethods.put(diType, methodsPrefix);
+  }
+
+  /**
+   * Return the table methods prefix for the given $DI type or null when it has its own class.
+   */
+  static String tableMethods(String diType) {
+    return CTX.get().tableMethods.get(diType);
+  }
+
   static FileObject createMetaInfWriterFor(String interfaceType) throws IOException {
     return filer().createResource(StandardLocation.CLASS_OUTPUT, "", interfaceType);
   }
@@ -142,7 +190,7 @@ final class ProcessingContext {
     if (rawType == null) {
       return null;
     } else {
-      return elements().getTypeElement(rawType);
+      return typeElement(rawType);
     }
   }
 
@@ -212,7 +260,7 @@ final class ProcessingContext {
     var set =
       CTX.get().delayQueue.stream()
         .map(t -> t.getQualifiedName().toString())
-        .map(APContext::typeElement)
+        .map(TypeCache::typeElement)
         .collect(toSet());
     CTX.get().delayQueue.clear();
     return set;
@@ -227,6 +275,8 @@ final class ProcessingContext {
 
   static void clear() {
     CTX.remove();
+    ProcessingTimer.clear();
+    TypeCache.newRound();
     APContext.clear();
   }
 
@@ -293,7 +343,10 @@ final class ProcessingContext {
   }
 
   static void registerExternalProvidedTypes(ScopeInfo scopeInfo) {
-    ExternalProvider.scanAllInjectPlugins(scopeInfo);
-    ExternalProvider.scanAllAvajeModules(CTX.get().providedTypes);
+    final long start = ProcessingTimer.start();
+    final var extensionIndex = new ExtensionIndex();
+    ExternalProvider.scanAllInjectPlugins(scopeInfo, extensionIndex);
+    ExternalProvider.scanAllAvajeModules(CTX.get().providedTypes, extensionIndex);
+    ProcessingTimer.phase(ProcessingTimer.Phase.EXTERNAL_SCAN, start);
   }
 }
@@ -0,0 +1,192 @@
+package io.avaje.inject.generator;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time spent by the processor when the {@code timingReport} option is set.
+ * <p>
+ * The times per round, per phase and per bean along with the number of elements visited are
+ * written to {@code avaje-inject-timings.txt} in the build directory when processing is over.
+ * When not enabled nothing is recorded.
+ */
+final class ProcessingTimer {
+
+  static final String REPORT_FILE = "avaje-inject-timings.txt";
+
+  enum Phase {
+    READ_BEANS,
+    EXTERNAL_SCAN,
+    ORDERING,
+    WRITE_BEANS,
+    WRITE_MODULE
+  }
+
+  enum Count {
+    ROOT_ELEMENTS,
+    BEANS_READ,
+    ELEMENTS_VISITED,
+    BEANS_WRITTEN
+  }
+
+  private static final ThreadLocal<ProcessingTimer> TIMER = ThreadLocal.withInitial(ProcessingTimer::new);
+
+  private final boolean enabled;
+  private final List<long[]> rounds = new ArrayList<>();
+  private final long[] phases = new long[Phase.values().length];
+  private final int[] phaseCalls = new int[Phase.values().length];
+  private final long[] counts = new long[Count.values().length];
+  private final Map<String, long[]> beans = new LinkedHashMap<>();
+  private long roundStart;
+  private long roundBeans;
+
+  private ProcessingTimer() {
+    this(false);
+  }
+
+  private ProcessingTimer(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Start a new compilation recording the timings when enabled.
+   */
+  static void init(boolean enabled) {
+    TIMER.set(new ProcessingTimer(enabled));
+  }
+
+  /**
+   * Discard the timings when processing is over.
+   */
+  static void clear() {
+    TIMER.remove();
+  }
+
+  /**
+   * Return the start time for a phase or 0 when not enabled.
+   */
+  static long start() {
+    return TIMER.get().enabled ? System.nanoTime() : 0;
+  }
+
+  static void startRound(int rootElements) {
+    final ProcessingTimer timer = TIMER.get();
+    if (timer.enabled) {
+      timer.roundStart = System.nanoTime();
+      timer.roundBeans = timer.counts[Count.BEANS_READ.ordinal()];
+      timer.counts[Count.ROOT_ELEMENTS.ordinal()] += rootElements;
+      timer.rounds.add(new long[]{0, rootElements, 0});
+    }
+  }
+
+  static void endRound() {
+    final ProcessingTimer timer = TIMER.get();
+    if (timer.enabled && !timer.rounds.isEmpty()) {
+      final long[] round = timer.rounds.get(timer.rounds.size() - 1);
+      round[0] = System.nanoTime() - timer.roundStart;
+      round[2] = timer.counts[Count.BEANS_READ.ordinal()] - timer.roundBeans;
+    }
+  }
+
+  /**
+   * Add the time since start to the phase.
+   */
+  static void phase(Phase phase, long start) {
+    final ProcessingTimer timer = TIMER.get();
+    if (timer.enabled) {
+      timer.phases[phase.ordinal()] += System.nanoTime() - start;
+      timer.phaseCalls[phase.ordinal()]++;
+    }
+  }
+
+  /**
+   * Add the time since start to the phase and the given bean.
+   */
+  static void bean(String beanType, Phase phase, long start) {
+    final ProcessingTimer timer = TIMER.get();
+    if (timer.enabled) {
+      final long nanos = System.nanoTime() - start;
+      timer.phases[phase.ordinal()] += nanos;
+      timer.phaseCalls[phase.ordinal()]++;
+      timer.beans.computeIfAbsent(beanType, k -> new long[Phase.values().length])[phase.ordinal()] += nanos;
+      if (phase == Phase.READ_BEANS) {
+        timer.counts[Count.BEANS_READ.ordinal()]++;
+      } else if (phase == Phase.WRITE_BEANS) {
+        timer.counts[Count.BEANS_WRITTEN.ordinal()]++;
+      }
+    }
+  }
+
+  /**
+   * Add to the given count.
+   */
+  static void count(Count count, int amount) {
+    final ProcessingTimer timer = TIMER.get();
+    if (timer.enabled) {
+      timer.counts[count.ordinal()] += amount;
+    }
+  }
+
+  /**
+   * Write the report to the build directory.
+   */
+  static void writeReport() {
+    final ProcessingTimer timer = TIMER.get();
+    if (!timer.enabled) {
+      return;
+    }
+    try (final var writer = new FileWriter(APContext.getBuildResource(REPORT_FILE).toFile())) {
+      writer.write(timer.report());
+    } catch (IOException e) {
+      APContext.logWarn("Failed to write %s due to %s", REPORT_FILE, e.getMessage());
+    }
+  }
+
+  String report() {
+    final var report = new StringBuilder();
+    report.append("Round|Millis|Root Elements|Beans Read\n");
+    for (int i = 0; i < rounds.size(); i++) {
+      final long[] round = rounds.get(i);
+      report.append(i + 1).append('|').append(millis(round[0])).append('|').append(round[1]).append('|').append(round[2]).append('\n');
+    }
+    report.append("\nPhase|Millis|Calls\n");
+    for (Phase phase : Phase.values()) {
+      report.append(phase).append('|').append(millis(phases[phase.ordinal()])).append('|').append(phaseCalls[phase.ordinal()]).append('\n');
+    }
+    report.append("\nCount|Total\n");
+    for (Count count : Count.values()) {
+      report.append(count).append('|').append(counts[count.ordinal()]).append('\n');
+    }
+    report.append("\nType Cache|Lookups|Hits\n");
+    for (TypeCache.Kind kind : TypeCache.Kind.values()) {
+      report.append(kind).append('|').append(TypeCache.lookups(kind)).append('|').append(TypeCache.hits(kind)).append('\n');
+    }
+    report.append("\nBean|Read Millis|Write Millis\n");
+    beans.entrySet().stream()
+      .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> total(e.getValue())).reversed())
+      .forEach(e -> report.append(e.getKey())
+        .append('|').append(millis(e.getValue()[Phase.READ_BEANS.ordinal()]))
+        .append('|').append(millis(e.getValue()[Phase.WRITE_BEANS.ordinal()]))
+        .append('\n'));
+    return report.toString();
+  }
+
+  private static long total(long[] nanos) {
+    long total = 0;
+    for (long value : nanos) {
+      total += value;
+    }
+    return total;
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+  }
+}
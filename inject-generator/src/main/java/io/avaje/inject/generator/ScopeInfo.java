@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.annotation.processing.FilerException;
@@ -104,6 +105,24 @@ final class ScopeInfo {
       '}';
   }
 
+  /**
+   * Return the aspects used by the given beans that are provided by plugins.
+   */
+  Set<String> pluginAspects(Collection<MetaData> beans) {
+    final Set<String> plugin = defaultScope ? pluginProvided : scopes.defaultScope().pluginProvided();
+    final String prefix = Constants.ASPECT_PROVIDER + "<";
+    final Set<String> aspects = new TreeSet<>();
+    for (MetaData metaData : beans) {
+      for (Dependency dependency : metaData.dependsOn()) {
+        final String name = dependency.name();
+        if (name.startsWith(prefix) && plugin.contains(name)) {
+          aspects.add(name.substring(prefix.length(), name.length() - 1));
+        }
+      }
+    }
+    return aspects;
+  }
+
   void pluginProvided(String pluginProvides) {
     pluginProvided.add(pluginProvides);
   }
@@ -198,7 +217,7 @@ final class ScopeInfo {
   List<ScopeInfo> dependentScopes() {
     final List<ScopeInfo> depScopes = new ArrayList<>();
     requires().stream()
-      .map(APContext::typeElement)
+      .map(TypeCache::typeElement)
       .filter(e -> e.getKind() == ElementKind.ANNOTATION_TYPE)
       .filter(ScopePrism::isPresent)
       .map(TypeElement::getQualifiedName)
@@ -213,9 +232,13 @@ final class ScopeInfo {
   }
 
   void writeBeanHelpers() {
+    if (ProcessingContext.packageTables() && moduleShortName != null) {
+      writePackageTables();
+    }
     for (BeanReader beanReader : beanReaders) {
       try {
         if (!beanReader.isWrittenToFile()) {
+          final long start = ProcessingTimer.start();
           if (beanReader.isGenerateProxy()) {
             SimpleBeanProxyWriter proxyWriter = new SimpleBeanProxyWriter(beanReader);
             proxyWriter.write();
@@ -224,6 +247,7 @@ final class ScopeInfo {
             writer.write();
           }
           beanReader.setWrittenToFile();
+          ProcessingTimer.bean(beanReader.beanType().getQualifiedName().toString(), ProcessingTimer.Phase.WRITE_BEANS, start);
         }
       } catch (FilerException e) {
         logWarn("FilerException to write $DI class %s %s", beanReader.beanType(), e.getMessage());
@@ -233,6 +257,18 @@ final class ScopeInfo {
     }
   }
 
+  private void writePackageTables() {
+    for (PackageTableWriter table : PackageTableWriter.of(beanReaders, moduleShortName + "$Table")) {
+      try {
+        table.write();
+      } catch (FilerException e) {
+        logWarn("FilerException to write table class %s %s", table, e.getMessage());
+      } catch (IOException e) {
+        logError("Failed to write table class %s %s", table, e.getMessage());
+      }
+    }
+  }
+
   private void initialiseModule() {
     if (!moduleInitialised) {
       try {
@@ -268,16 +304,20 @@ final class ScopeInfo {
       }
       return;
     }
+    final long orderingStart = ProcessingTimer.start();
     final MetaDataOrdering ordering = new MetaDataOrdering(meta, this);
     final int remaining = ordering.processQueue();
+    ProcessingTimer.phase(ProcessingTimer.Phase.ORDERING, orderingStart);
 
     if (remaining > 0) {
       ordering.logWarnings();
     }
     try {
+      final long start = ProcessingTimer.start();
       SimpleModuleWriter factoryWriter = new SimpleModuleWriter(ordering, this);
       factoryWriter.write();
       moduleWritten = true;
+      ProcessingTimer.phase(ProcessingTimer.Phase.WRITE_MODULE, start);
     } catch (FilerException e) {
       logWarn("FilerException trying to write factory %s", e.getMessage());
     } catch (IOException e) {
@@ -338,7 +378,14 @@ final class ScopeInfo {
       logNote("skipping annotation type %s", typeElement);
       return;
     }
-    var reader = new BeanReader(typeElement, factory, importedComponent).read();
+    final long start = ProcessingTimer.start();
+    var reader = new BeanReader(typeElement, factory, importedComponent);
+    if (reader.isExcluded()) {
+      logNote("skipping bean %s excluded by the build profiles or properties", typeElement);
+      return;
+    }
+    reader.read();
+    ProcessingTimer.bean(typeElement.getQualifiedName().toString(), ProcessingTimer.Phase.READ_BEANS, start);
     if (reader.isDelayed() && ProcessingContext.delayUntilNextRound(typeElement)) {
       readBeans.remove(typeElement.toString());
     } else {
@@ -381,8 +428,8 @@ final class ScopeInfo {
 
   void write(boolean processingOver) {
     mergeMetaData();
-    writeBeanHelpers();
     initialiseModule();
+    writeBeanHelpers();
     if (processingOver && !metaData.isEmpty()) {
       ProcessingContext.registerExternalProvidedTypes(this);
       writeModule();
@@ -474,13 +521,16 @@ final class ScopeInfo {
     writer.append("}");
   }
 
-  void buildProvides(Append writer, Set<String> provides, Set<String> requires) {
+  void buildProvides(Append writer, Set<String> provides, Set<String> requires, Set<String> aspects) {
     if (!provides.isEmpty()) {
       buildProvidesMethod(writer, "providesBeans", provides);
     }
     if (!requires.isEmpty()) {
       buildProvidesMethod(writer, "requiresBeans", requires);
     }
+    if (!aspects.isEmpty()) {
+      buildProvidesMethod(writer, "requiresAspects", aspects);
+    }
     if (!requiresPackages.isEmpty()) {
       buildProvidesMethod(writer, "requiresPackagesFromType", requiresPackages);
     }
@@ -595,7 +645,7 @@ final class ScopeInfo {
       return importTypes;
     }
     for (String require : requires) {
-      if (!ScopePrism.isPresent(APContext.typeElement(require))) {
+      if (!ScopePrism.isPresent(TypeCache.typeElement(require))) {
         importTypes.add(require);
         final String type = Util.shortName(require);
         final String var = Util.initLower(type);
@@ -43,7 +43,7 @@ final class SimpleBeanProxyWriter {
 
   private void writeMethods() {
     for (AspectMethod method : aspects.methods()) {
-      method.writeMethod(writer);
+      method.writeMethod(writer, shortName + suffix);
     }
   }
 
@@ -74,14 +74,10 @@ final class SimpleBeanProxyWriter {
   }
 
   private void writeSetupForMethods() {
-    writer.append("    try {").eol();
-    writer.append("      var target$Class = %s.class;", shortName).eol();
+    writer.append("    var target$Class = %s.class;", shortName).eol();
     for (AspectMethod method : aspects.methods()) {
       method.writeSetupForMethods(writer);
     }
-    writer.append("    } catch (Exception e) {").eol();
-    writer.append("      throw new IllegalStateException(e);").eol();
-    writer.append("    }").eol();
   }
 
   private void writePackage() {
@@ -95,6 +91,7 @@ final class SimpleBeanProxyWriter {
     writer.append("import %s;", Constants.INVOCATION).eol();
     writer.append("import %s;", Constants.INVOCATION_EXCEPTION).eol();
     writer.append("import %s;", Constants.METHOD_INTERCEPTOR).eol();
+    writer.append("import %s;", Constants.INTERCEPTOR_CHAIN).eol();
     writer.append("import %s;", Constants.COMPONENT).eol();
     writer.append("import %s;", Constants.INJECT).eol();
     writer.append("import %s;", Constants.PROXY).eol();
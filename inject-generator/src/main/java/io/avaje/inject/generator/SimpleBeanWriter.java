@@ -22,6 +22,11 @@ import io.avaje.inject.generator.MethodReader.MethodParam;
 
 /**
  * Write the source code for the bean.
+ * <p>
+ * A {@code $DI} class is written per bean in the package of the bean such that it can use the
+ * package private constructors, fields and methods of the bean. With the {@code packageTables}
+ * option the build methods are instead written into the table of the package, see
+ * {@link PackageTableWriter}.
  */
 final class SimpleBeanWriter {
 
@@ -32,6 +37,9 @@ final class SimpleBeanWriter {
   private final String suffix;
   private final boolean proxied;
   private Append writer;
+  private PackageTableWriter table;
+  private String tableName;
+  private String methodPrefix = "";
 
   SimpleBeanWriter(BeanReader beanReader) {
     this.beanReader = beanReader;
@@ -67,6 +75,19 @@ final class SimpleBeanWriter {
     writer.close();
   }
 
+  /**
+   * Write the generic type fields and build methods of the bean into the table of its package.
+   */
+  void writeTable(PackageTableWriter table, Append writer) {
+    this.table = table;
+    this.writer = writer;
+    this.tableName = PackageTableWriter.tableName(beanReader);
+    this.methodPrefix = tableName + "$";
+    writeGenericTypeFields();
+    writeStaticFactoryMethod();
+    writeStaticFactoryBeanMethods();
+  }
+
   private void writeGenericTypeFields() {
     // collect all types to prevent duplicates
     Set<UType> genericTypes =
@@ -77,7 +98,8 @@ final class SimpleBeanWriter {
 
     if (!genericTypes.isEmpty()) {
       final Map<String, String> seenShortNames = new HashMap<>();
-      final Set<String> writtenFields = new HashSet<>();
+      final Set<String> writtenFields = table == null ? new HashSet<>() : table.writtenFields();
+      final Append fieldWriter = table == null ? writer : table.fields();
 
       for (final UType utype : genericTypes) {
         var type = Util.unwrapProvider(utype);
@@ -89,13 +111,19 @@ final class SimpleBeanWriter {
           continue;
         }
 
-        writer.append("  public static final Type TYPE_%s =", fieldName).eol()
-          .append("      new GenericType<");
-        writeGenericType(type, seenShortNames, writer);
+        fieldWriter.append("  public static final Type TYPE_%s =", fieldName).eol();
+        if (ParameterizedTypeWriter.supports(type)) {
+          fieldWriter.append("      %s;", ParameterizedTypeWriter.write(type, seenShortNames)).eol();
+          continue;
+        }
+        fieldWriter.append("      new GenericType<");
+        writeGenericType(type, seenShortNames, fieldWriter);
         // use fully qualified types here rather than use type.writeShort(writer)
-        writer.append(">(){}.type();").eol();
+        fieldWriter.append(">(){}.type();").eol();
+      }
+      if (table == null) {
+        fieldWriter.eol();
       }
-      writer.eol();
     }
   }
 
@@ -140,9 +168,13 @@ final class SimpleBeanWriter {
 
   private void writeFactoryBeanMethod(MethodReader method) {
     method.commentBuildMethod(writer);
-    writer.append("  public static void build_%s(%s builder) {", method.name(), beanReader.builderType()).eol();
+    writer.append("  public static void %sbuild_%s(%s builder) {", methodPrefix, method.name(), beanReader.builderType()).eol();
     method.buildConditional(writer);
-    method.buildAddFor(writer);
+    if (table == null) {
+      method.buildAddFor(writer);
+    } else {
+      method.buildAddFor(writer, table.typesField(methodPrefix + method.name(), method.typesRegister()));
+    }
     method.builderGetFactory(writer, beanReader.hasConditions());
     if (method.isLazy() || method.isProtoType() || method.isUseProviderForSecondary()) {
       method.builderAddBeanProvider(writer);
@@ -173,7 +205,11 @@ final class SimpleBeanWriter {
 
   private void writeAddFor(MethodReader constructor) {
     beanReader.buildConditional(writer);
-    beanReader.buildBeanAbsent(writer);
+    if (table == null) {
+      beanReader.buildBeanAbsent(writer);
+    } else {
+      beanReader.buildBeanAbsent(writer, table.typesField(tableName, beanReader.typesRegister()));
+    }
     if (beanReader.registerProvider()) {
       indent += "  ";
 
@@ -230,7 +266,7 @@ final class SimpleBeanWriter {
   }
 
   private void writeBuildMethodStart() {
-    writer.append("  public static void build(%s builder) {", beanReader.builderType()).eol();
+    writer.append("  public static void %sbuild(%s builder) {", methodPrefix, beanReader.builderType()).eol();
   }
 
   private String indent = "     ";
@@ -302,26 +338,39 @@ final class SimpleBeanWriter {
       writer
           .eol()
           .indent(indent)
-          .append(builder)
+          .append("%s.addPreDestroy(%s", builder, builder)
           .eol()
           .indent(indent)
           .append("    .get(ObserverManager.class)")
           .eol()
           .indent(indent)
-          .append("    .<%s>registerObserver(", shortWithoutAnnotations)
+          .append("    .<%s>register(", shortWithoutAnnotations)
           .eol()
           .indent(indent)
           .append(
-              "        %s, new Observer<>(%s, %s, %s, \"%s\"));",
+              "        %s, new Observer<>(\"%s.%s\", %s, %s, %s, \"%s\", %s, %s)));",
               observeTypeString,
+              beanReader.beanType().getQualifiedName(),
+              methodReader.name(),
               observesPrism.priority(),
               observesPrism.async(),
               methodReader.name(),
-              observeEvent.qualifier())
+              observeEvent.qualifier(),
+              channel(observesPrism),
+              observesPrism.coalesceMillis())
           .eol();
     }
   }
 
+  private static String channel(ObservesPrism observesPrism) {
+    if (!observesPrism.bounded()) {
+      return "null";
+    }
+    final var asyncPrism = (ObservesAsyncPrism) observesPrism;
+    return String.format("AsyncChannel.bounded(%s, %s, OverflowPolicy.%s)",
+      asyncPrism.capacity(), asyncPrism.partitions(), asyncPrism.overflow());
+  }
+
   private void injectFields() {
     String bean = beanReader.registerProvider() ? "bean" : "$bean";
     String builder = beanReader.registerProvider() ? "builder" : "b";
@@ -1,9 +1,9 @@
 package io.avaje.inject.generator;
 
 import static io.avaje.inject.generator.APContext.logError;
-import static io.avaje.inject.generator.APContext.typeElement;
 import static io.avaje.inject.generator.ProcessingContext.allScopes;
 import static io.avaje.inject.generator.ProcessingContext.createMetaInfWriterFor;
+import static io.avaje.inject.generator.TypeCache.typeElement;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
@@ -59,6 +59,12 @@ final class SimpleModuleWriter {
       "   * field/method injection, and lifecycle support.\n" +
       "   */";
 
+  /**
+   * The maximum number of statements in a generated method such that the methods of large modules
+   * stay well under the 8000 bytes of bytecode above which HotSpot does not compile a method.
+   */
+  static final int CHUNK_SIZE = 500;
+
   private final String modulePackage;
   private final String shortName;
   private final String fullName;
@@ -120,7 +126,7 @@ final class SimpleModuleWriter {
       .append("     \"").append(annotationType).append("\",").eol();
 
     scopeInfo.requires().stream()
-      .map(APContext::typeElement)
+      .map(TypeCache::typeElement)
       .filter(Objects::nonNull)
       .filter(ScopePrism::isPresent)
       .filter(e -> e.getKind() == ElementKind.ANNOTATION_TYPE)
@@ -135,7 +141,7 @@ final class SimpleModuleWriter {
   private void writeRequiredModules() {
     var directScopes =
       scopeInfo.requires().stream()
-        .map(APContext::typeElement)
+        .map(TypeCache::typeElement)
         .filter(ScopePrism::isPresent)
         .filter(e -> e.getKind() == ElementKind.ANNOTATION_TYPE)
         .map(TypeElement::getQualifiedName)
@@ -224,7 +230,7 @@ final class SimpleModuleWriter {
     }
     Set<String> scopeRequires = new TreeSet<>(scopeInfo.requires());
     scopeRequires.addAll(ordering.autoRequires());
-    scopeInfo.buildProvides(writer, scopeProvides, scopeRequires);
+    scopeInfo.buildProvides(writer, scopeProvides, scopeRequires, scopeInfo.pluginAspects(ordering.ordered()));
 
     var requires = new ArrayList<>(scopeRequires);
     var provides = new ArrayList<>(scopeProvides);
@@ -233,15 +239,42 @@ final class SimpleModuleWriter {
   }
 
   private void writeClassesMethod() {
-    Set<String> allClasses = distinctPublicClasses();
+    List<String> allClasses = new ArrayList<>(new TreeSet<>(distinctPublicClasses()));
     writer.append("  @Override").eol();
     writer.append("  public Class<?>[] classes() {").eol();
-    writer.append("    return new Class<?>[] {").eol();
-    for (String rawType : new TreeSet<>(allClasses)) {
-      writer.append("      %s.class,", rawType).eol();
+    if (allClasses.size() <= CHUNK_SIZE) {
+      writer.append("    return new Class<?>[] {").eol();
+      for (String rawType : allClasses) {
+        writer.append("      %s.class,", rawType).eol();
+      }
+      writer.append("    };").eol();
+      writer.append("  }").eol().eol();
+      return;
     }
-    writer.append("    };").eol();
+    // large modules fill the array via chunk methods
+    final var chunks = chunks(allClasses);
+    writer.append("    final Class<?>[] classes = new Class<?>[%s];", allClasses.size()).eol();
+    for (int i = 0; i < chunks.size(); i++) {
+      writer.append("    classesChunk%s(classes);", i).eol();
+    }
+    writer.append("    return classes;").eol();
     writer.append("  }").eol().eol();
+    int index = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      writer.append("  private static void classesChunk%s(Class<?>[] classes) {", i).eol();
+      for (String rawType : chunks.get(i)) {
+        writer.append("    classes[%s] = %s.class;", index++, rawType).eol();
+      }
+      writer.append("  }").eol().eol();
+    }
+  }
+
+  private static <T> List<List<T>> chunks(List<T> all) {
+    final List<List<T>> chunks = new ArrayList<>();
+    for (int i = 0; i < all.size(); i += CHUNK_SIZE) {
+      chunks.add(all.subList(i, Math.min(all.size(), i + CHUNK_SIZE)));
+    }
+    return chunks;
   }
 
   /** Return the distinct set of public classes that are dependency types. */
@@ -270,13 +303,34 @@ final class SimpleModuleWriter {
     }
     writer.append("    // create beans in order based on constructor dependencies").eol();
     writer.append("    // i.e. \"provides\" followed by \"dependsOn\"").eol();
-    for (MetaData metaData : ordering.ordered()) {
-      if (!metaData.isGenerateProxy()) {
-        writer.append("    build_%s(builder);", metaData.buildName()).eol();
-      }
+    final List<MetaData> built = ordering.ordered().stream()
+      .filter(metaData -> !metaData.isGenerateProxy())
+      .collect(toList());
+    if (built.size() <= CHUNK_SIZE) {
+      writeBuildCalls(built);
+      writer.append("  }").eol();
+      writer.eol();
+      return;
+    }
+    // large modules build in order via chunk methods
+    final var chunks = chunks(built);
+    for (int i = 0; i < chunks.size(); i++) {
+      writer.append("    buildChunk%s(builder);", i).eol();
     }
     writer.append("  }").eol();
     writer.eol();
+    for (int i = 0; i < chunks.size(); i++) {
+      writer.append("  private void buildChunk%s(Builder builder) {", i).eol();
+      writeBuildCalls(chunks.get(i));
+      writer.append("  }").eol();
+      writer.eol();
+    }
+  }
+
+  private void writeBuildCalls(List<MetaData> metaData) {
+    for (MetaData bean : metaData) {
+      writer.append("    build_%s(builder);", bean.buildName()).eol();
+    }
   }
 
   private void writeBuildMethods() {
@@ -0,0 +1,139 @@
+package io.avaje.inject.generator;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Memoises the type lookups of a round.
+ * <p>
+ * Beans commonly share base types and interfaces and without this each bean looks up and parses
+ * the same hierarchy again. Entries only live for the round as types generated in a round are
+ * only visible in the following rounds. Mirrors are keyed by identity as the compiler returns the
+ * same instance for the supertypes and erasure of a given element.
+ */
+final class TypeCache {
+
+  enum Kind {
+    ELEMENT,
+    UTYPE,
+    SUPERTYPES,
+    SUPERCLASSES
+  }
+
+  private static final ThreadLocal<TypeCache> CACHE = ThreadLocal.withInitial(TypeCache::new);
+
+  private final Map<String, Optional<TypeElement>> elements = new HashMap<>();
+  private final Map<TypeMirror, UType> uTypes = new IdentityHashMap<>();
+  private final Map<TypeElement, List<TypeMirror>> supertypes = new HashMap<>();
+  private final Map<TypeElement, List<TypeMirror>> superclasses = new HashMap<>();
+  private final int[] lookups = new int[Kind.values().length];
+  private final int[] hits = new int[Kind.values().length];
+
+  /**
+   * Start a new compilation resetting the counts.
+   */
+  static void init() {
+    CACHE.set(new TypeCache());
+  }
+
+  /**
+   * Start a new round discarding the cached types but keeping the counts.
+   */
+  static void newRound() {
+    final TypeCache cache = CACHE.get();
+    cache.elements.clear();
+    cache.uTypes.clear();
+    cache.supertypes.clear();
+    cache.superclasses.clear();
+  }
+
+  /**
+   * Return the type element for the given canonical name or null when not known.
+   */
+  static TypeElement typeElement(String name) {
+    final TypeCache cache = CACHE.get();
+    final Optional<TypeElement> element = cache.elements.get(name);
+    if (element != null) {
+      cache.hit(Kind.ELEMENT);
+      return element.orElse(null);
+    }
+    cache.miss(Kind.ELEMENT);
+    final TypeElement found = APContext.typeElement(name);
+    cache.elements.put(name, Optional.ofNullable(found));
+    return found;
+  }
+
+  /**
+   * Return the parsed UType of the mirror.
+   */
+  static UType parse(TypeMirror mirror) {
+    final TypeCache cache = CACHE.get();
+    final UType uType = cache.uTypes.get(mirror);
+    if (uType != null) {
+      cache.hit(Kind.UTYPE);
+      return uType;
+    }
+    cache.miss(Kind.UTYPE);
+    final UType parsed = UType.parse(mirror);
+    cache.uTypes.put(mirror, parsed);
+    return parsed;
+  }
+
+  /**
+   * Return the supertypes of the element as read by the given function.
+   */
+  static List<TypeMirror> supertypes(TypeElement element, Function<TypeElement, List<TypeMirror>> reader) {
+    final TypeCache cache = CACHE.get();
+    return cache.types(Kind.SUPERTYPES, cache.supertypes, element, reader);
+  }
+
+  /**
+   * Return the superclasses of the element as read by the given function.
+   */
+  static List<TypeMirror> superclasses(TypeElement element, Function<TypeElement, List<TypeMirror>> reader) {
+    final TypeCache cache = CACHE.get();
+    return cache.types(Kind.SUPERCLASSES, cache.superclasses, element, reader);
+  }
+
+  private List<TypeMirror> types(Kind kind, Map<TypeElement, List<TypeMirror>> cached, TypeElement element, Function<TypeElement, List<TypeMirror>> reader) {
+    final List<TypeMirror> types = cached.get(element);
+    if (types != null) {
+      hit(kind);
+      return types;
+    }
+    miss(kind);
+    final List<TypeMirror> read = List.copyOf(reader.apply(element));
+    cached.put(element, read);
+    return read;
+  }
+
+  /**
+   * Return the number of lookups of the given kind since the compilation started.
+   */
+  static int lookups(Kind kind) {
+    return CACHE.get().lookups[kind.ordinal()];
+  }
+
+  /**
+   * Return the number of lookups of the given kind that were found in the cache.
+   */
+  static int hits(Kind kind) {
+    return CACHE.get().hits[kind.ordinal()];
+  }
+
+  private void hit(Kind kind) {
+    lookups[kind.ordinal()]++;
+    hits[kind.ordinal()]++;
+  }
+
+  private void miss(Kind kind) {
+    lookups[kind.ordinal()]++;
+  }
+}
@@ -44,7 +44,9 @@ final class TypeExtendsInjection {
   }
 
   void read(TypeElement type) {
-    for (Element element : type.getEnclosedElements()) {
+    final var enclosedElements = type.getEnclosedElements();
+    ProcessingTimer.count(ProcessingTimer.Count.ELEMENTS_VISITED, enclosedElements.size());
+    for (Element element : enclosedElements) {
       switch (element.getKind()) {
         case CONSTRUCTOR:
           readConstructor(element, type);
@@ -175,7 +177,13 @@ final class TypeExtendsInjection {
 
   private void addFactoryMethod(ExecutableElement methodElement, BeanPrism bean) {
     String qualifierName = Util.named(methodElement);
-    factoryMethods.add(new MethodReader(this, methodElement, baseType, bean, qualifierName, importTypes).read());
+    var method = new MethodReader(this, methodElement, baseType, bean, qualifierName, importTypes);
+    if (method.isExcluded()) {
+      // not wired so a PreDestroy method for the bean is expected to be unused
+      factoryPreDestroyMethods.exclude(method.returnTypeRaw());
+    } else {
+      factoryMethods.add(method.read());
+    }
   }
 
   BeanAspects hasAspects() {
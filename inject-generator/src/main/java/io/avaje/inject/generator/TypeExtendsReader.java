@@ -61,7 +61,7 @@ final class TypeExtendsReader {
    */
   private boolean closeableClient(TypeElement baseType) {
     return ClientPrism.isPresent(baseType)
-        && Optional.ofNullable(APContext.typeElement("io.avaje.http.client.HttpClient"))
+        && Optional.ofNullable(TypeCache.typeElement("io.avaje.http.client.HttpClient"))
             .map(TypeElement::getInterfaces)
             .stream()
             .flatMap(List::stream)
@@ -167,17 +167,18 @@ final class TypeExtendsReader {
       extendsInjection.read(baseType);
     }
     readInterfaces(baseType);
-    final var superMirror = baseType.getSuperclass();
-    final TypeElement superElement = asElement(superMirror);
-    if (superElement != null) {
-      if (qualifierName == null) {
-        final String baseName = baseType.getSimpleName().toString();
-        final String superName = superElement.getSimpleName().toString();
-        if (baseName.endsWith(superName)) {
-          qualifierName = baseName.substring(0, baseName.length() - superName.length());
-        }
+    final List<TypeMirror> superclasses = TypeCache.superclasses(baseType, TypeExtendsReader::superclasses);
+    if (!superclasses.isEmpty() && qualifierName == null) {
+      final String baseName = baseType.getSimpleName().toString();
+      final String superName = asElement(superclasses.get(0)).getSimpleName().toString();
+      if (baseName.endsWith(superName)) {
+        qualifierName = baseName.substring(0, baseName.length() - superName.length());
       }
-      addSuperType(superElement, superMirror, proxyBean);
+    }
+    boolean proxy = proxyBean;
+    for (final TypeMirror superMirror : superclasses) {
+      addSuperType(asElement(superMirror), superMirror, proxy);
+      proxy = false;
     }
 
     providesTypes.addAll(extendsTypes);
@@ -194,7 +195,7 @@ final class TypeExtendsReader {
       final String type = Util.unwrapProvider(fullName);
 
       if (proxyBean || isPublic(element)) {
-        UType uType = UType.parse(mirror);
+        UType uType = TypeCache.parse(mirror);
         final var genericType = !Objects.equals(fullName, type) ? uType.param0() : uType;
         // check if any unknown generic types are in the parameters (T,T2, etc.)
         final var knownType = genericType.componentTypes().stream()
@@ -203,30 +204,68 @@ final class TypeExtendsReader {
 
         extendsTypes.add(knownType ? Util.unwrapProvider(mirror) : genericType);
         if (uType.isGeneric()) {
-          extendsTypes.add(UType.parse(types().erasure(Util.stripProvider(mirror))));
+          extendsTypes.add(TypeCache.parse(types().erasure(Util.stripProvider(mirror))));
         }
         extendsInjection.read(element);
       }
+    }
+  }
 
-      final var superMirror = element.getSuperclass();
-      final var superElement = asElement(superMirror);
-      if (superElement != null) {
-        addSuperType(superElement, superMirror, false);
-      }
+  /**
+   * Return the superclasses of the type nearest first, ending with the first java.lang type.
+   */
+  private static List<TypeMirror> superclasses(TypeElement type) {
+    final TypeMirror superMirror = type.getSuperclass();
+    final TypeElement superElement = asElement(superMirror);
+    if (superElement == null) {
+      return List.of();
     }
+    final List<TypeMirror> superclasses = new ArrayList<>();
+    superclasses.add(superMirror);
+    if (Util.notJavaLang(superMirror.toString())) {
+      superclasses.addAll(TypeCache.superclasses(superElement, TypeExtendsReader::superclasses));
+    }
+    return superclasses;
   }
 
   private void readInterfaces(TypeElement type) {
     if (Util.notJavaLang(type.getQualifiedName().toString())) {
-      for (final TypeMirror anInterface : type.getInterfaces()) {
-        if (isPublic(asElement(anInterface))) {
-          readInterfacesOf(anInterface);
-        }
+      for (final TypeMirror anInterface : TypeCache.supertypes(type, TypeExtendsReader::interfaces)) {
+        readInterface(anInterface);
+      }
+    }
+  }
+
+  /**
+   * Return the public interfaces of the type including their super interfaces depth first.
+   */
+  private static List<TypeMirror> interfaces(TypeElement type) {
+    final List<TypeMirror> interfaces = new ArrayList<>();
+    for (final TypeMirror anInterface : type.getInterfaces()) {
+      if (isPublic(asElement(anInterface))) {
+        addInterface(anInterface, interfaces);
+      }
+    }
+    return interfaces;
+  }
+
+  private static void addInterface(TypeMirror anInterface, List<TypeMirror> interfaces) {
+    interfaces.add(anInterface);
+    if (readSuperInterfaces(Util.unwrapProvider(anInterface.toString()))) {
+      for (final TypeMirror supertype : types().directSupertypes(anInterface)) {
+        addInterface(supertype, interfaces);
       }
     }
   }
 
-  private void readInterfacesOf(TypeMirror anInterface) {
+  private static boolean readSuperInterfaces(String rawType) {
+    return !Constants.AUTO_CLOSEABLE.equals(rawType)
+      && !Constants.IO_CLOSEABLE.equals(rawType)
+      && Util.notJavaLang(rawType)
+      && rawType.indexOf('.') != -1;
+  }
+
+  private void readInterface(TypeMirror anInterface) {
     final String rawType = Util.unwrapProvider(anInterface.toString());
     final UType rawUType = Util.unwrapProvider(anInterface);
     if (Constants.AUTO_CLOSEABLE.equals(rawType) || Constants.IO_CLOSEABLE.equals(rawType)) {
@@ -246,15 +285,12 @@ final class TypeExtendsReader {
       }
       interfaceTypes.add(rawUType);
       if (rawUType.isGeneric()) {
-        interfaceTypes.add(UType.parse(types().erasure(Util.stripProvider(anInterface))));
-      }
-      for (final TypeMirror supertype : types().directSupertypes(anInterface)) {
-        readInterfacesOf(supertype);
+        interfaceTypes.add(TypeCache.parse(types().erasure(Util.stripProvider(anInterface))));
       }
     }
   }
 
-  private boolean isPublic(Element element) {
+  private static boolean isPublic(Element element) {
     return element != null && element.getModifiers().contains(Modifier.PUBLIC);
   }
 
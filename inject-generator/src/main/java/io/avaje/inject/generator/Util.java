@@ -103,7 +103,7 @@ final class Util {
   }
 
   static UType unwrapProvider(TypeMirror maybeProvider) {
-    return UType.parse(stripProvider(maybeProvider));
+    return TypeCache.parse(stripProvider(maybeProvider));
   }
 
   static UType unwrapProvider(UType maybeProvider) {
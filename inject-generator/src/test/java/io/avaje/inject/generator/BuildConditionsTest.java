@@ -0,0 +1,103 @@
+package io.avaje.inject.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildConditionsTest {
+
+  @TempDir
+  Path output;
+
+  @Test
+  void conditionsResolvedAtBuildTime() throws Exception {
+    compile(List.of("-AbuildProfiles=prod", "-AbuildProperties=feature=on,region=eu"));
+
+    final Path baked = output.resolve("baked");
+    assertThat(baked.resolve("DevService$DI.java")).doesNotExist();
+    assertThat(baked.resolve("NotEuService$DI.java")).doesNotExist();
+    assertThat(Files.readString(baked.resolve("ProdService$DI.java")))
+      .doesNotContain("containsProfiles")
+      .doesNotContain("return;");
+    assertThat(Files.readString(baked.resolve("FeatureService$DI.java")))
+      .doesNotContain("\"feature\"")
+      .contains("builder.property().contains(\"other\")");
+
+    final String factory = Files.readString(baked.resolve("AppFactory$DI.java"));
+    assertThat(factory)
+      .contains("build_euBar")
+      .doesNotContain("build_devBaz")
+      .doesNotContain("property()");
+
+    final String module = Files.readString(baked.resolve("BakedModule.java"));
+    assertThat(module)
+      .contains("ProdService$DI.build(builder)")
+      .contains("AppFactory$DI.build_euBar(builder)")
+      .doesNotContain("DevService")
+      .doesNotContain("NotEuService")
+      .doesNotContain("build_devBaz");
+  }
+
+  @Test
+  void conditionsCheckedAtRuntimeByDefault() throws Exception {
+    compile(List.of());
+
+    final Path baked = output.resolve("baked");
+    assertThat(Files.readString(baked.resolve("DevService$DI.java")))
+      .contains("!builder.containsProfiles(List.of(\"dev\"))");
+    assertThat(Files.readString(baked.resolve("FeatureService$DI.java")))
+      .contains("builder.property().notEqualTo(\"feature\", \"on\")");
+    assertThat(Files.readString(baked.resolve("AppFactory$DI.java")))
+      .contains("build_devBaz")
+      .contains("build_euBar");
+  }
+
+  @Test
+  void beanRequiringExcludedBeanExcluded() throws Exception {
+    final List<JavaFileObject> sources = List.of(
+      TestCompiler.source("required", "A", "@jakarta.inject.Singleton @io.avaje.inject.Profile(\"prod\") public class A {}"),
+      TestCompiler.source("required", "B", "@jakarta.inject.Singleton @io.avaje.inject.RequiresBean(A.class) public class B {\n"
+        + "  public B(A a) {}\n"
+        + "}"),
+      TestCompiler.source("required", "C", "@jakarta.inject.Singleton @io.avaje.inject.RequiresBean(B.class) public class C {\n"
+        + "  public C(B b) {}\n"
+        + "}"),
+      TestCompiler.source("required", "D", "@jakarta.inject.Singleton public class D {}"));
+    TestCompiler.compile(output, List.of("-AbuildProfiles=dev"), sources);
+
+    final Path required = output.resolve("required");
+    assertThat(required.resolve("A$DI.java")).doesNotExist();
+    assertThat(required.resolve("B$DI.java")).doesNotExist();
+    assertThat(required.resolve("C$DI.java")).doesNotExist();
+    assertThat(required.resolve("D$DI.java")).exists();
+  }
+
+  private void compile(List<String> options) throws IOException {
+    final List<JavaFileObject> sources = List.of(
+      source("Bar", "public class Bar {}"),
+      source("Baz", "public class Baz {}"),
+      source("DevService", "@jakarta.inject.Singleton @io.avaje.inject.Profile(\"dev\") public class DevService {}"),
+      source("ProdService", "@jakarta.inject.Singleton @io.avaje.inject.Profile(\"prod\") public class ProdService {}"),
+      source("NotEuService", "@jakarta.inject.Singleton @io.avaje.inject.RequiresProperty(value = \"region\", notEqualTo = \"eu\") public class NotEuService {}"),
+      source("FeatureService", "@jakarta.inject.Singleton @io.avaje.inject.RequiresProperty(value = \"feature\", equalTo = \"on\")"
+        + " @io.avaje.inject.RequiresProperty(missing = \"other\") public class FeatureService {}"),
+      source("AppFactory", "@io.avaje.inject.Factory public class AppFactory {\n"
+        + "  @io.avaje.inject.Bean @io.avaje.inject.Profile(\"dev\") Baz devBaz() { return new Baz(); }\n"
+        + "  @io.avaje.inject.Bean @io.avaje.inject.RequiresProperty(value = \"region\", equalTo = \"eu\") Bar euBar() { return new Bar(); }\n"
+        + "  @io.avaje.inject.PreDestroy void closeBaz(Baz baz) {}\n"
+        + "}"));
+    TestCompiler.compile(output, options, sources);
+  }
+
+  private static JavaFileObject source(String name, String body) {
+    return TestCompiler.source("baked", name, body);
+  }
+}
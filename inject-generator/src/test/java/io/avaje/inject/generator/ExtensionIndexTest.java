@@ -0,0 +1,91 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.TestCompiler.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExtensionIndexTest {
+
+  private static final String ASPECT_PLUGIN = "io.avaje.inject.aop.spi.AspectPlugin";
+
+  @TempDir
+  Path output;
+
+  @Test
+  void unchangedJarsReadFromIndex() throws Exception {
+    final Path index = output.resolve("avaje-extension-index.csv");
+
+    compile();
+    final String aopJar = aopJarLine(index);
+    assertThat(aopJar).endsWith("|" + ASPECT_PLUGIN);
+
+    // an unchanged jar is not scanned again
+    final String notScanned = aopJar.replace(ASPECT_PLUGIN, " ");
+    Files.writeString(index, Files.readString(index).replace(aopJar, notScanned));
+    compile();
+    assertThat(aopJarLine(index)).isEqualTo(notScanned);
+
+    // a changed jar is scanned again
+    final String[] columns = notScanned.split("\\|");
+    Files.writeString(index, Files.readString(index).replace(notScanned, columns[0] + "|0:0| | "));
+    compile();
+    assertThat(aopJarLine(index)).isEqualTo(aopJar);
+  }
+
+  @Test
+  void jarsNotInCompileRemoved() throws Exception {
+    final Path index = output.resolve("avaje-extension-index.csv");
+
+    compile();
+    final String removed = "/removed/avaje-inject-aop-0.1.jar|1:1|io.avaje.inject.aop.spi|" + ASPECT_PLUGIN;
+    Files.writeString(index, Files.readString(index) + "\n" + removed);
+    compile();
+    assertThat(Files.readAllLines(index))
+      .startsWith("Jar|Fingerprint|Packages|Extensions")
+      .doesNotContain(removed);
+    assertThat(aopJarLine(index)).isNotEqualTo(removed);
+  }
+
+  private static String aopJarLine(Path index) throws IOException {
+    final List<String> lines = Files.readAllLines(index).stream()
+      .filter(line -> line.contains("avaje-inject-aop"))
+      .collect(Collectors.toList());
+    assertThat(lines).hasSize(1);
+    return lines.get(0);
+  }
+
+  /**
+   * Compile a named module as extensions are only scanned for on the module path.
+   */
+  private void compile() throws Exception {
+    final List<String> moduleTypes = List.of(
+      "io.avaje.inject.BeanScope",
+      "io.avaje.inject.aop.AspectProvider",
+      "io.avaje.applog.AppLog",
+      "jakarta.inject.Singleton",
+      "org.jspecify.annotations.Nullable");
+    final List<URL> locations = new ArrayList<>();
+    for (String type : moduleTypes) {
+      locations.add(Class.forName(type).getProtectionDomain().getCodeSource().getLocation());
+    }
+    final String modulePath = locations.stream()
+      .map(location -> Path.of(URI.create(location.toString())).toString())
+      .collect(Collectors.joining(File.pathSeparator));
+
+    TestCompiler.compile(output, List.of("--module-path", modulePath), List.of(
+      source("module-info", "module indexed {\n  requires io.avaje.inject;\n  requires io.avaje.inject.aop;\n  provides io.avaje.inject.spi.InjectExtension with indexed.IndexedModule;\n}"),
+      source("indexed/Foo", "package indexed;\n@jakarta.inject.Singleton\npublic class Foo {}")));
+  }
+}
@@ -0,0 +1,62 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.TestCompiler.delete;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Incremental compilation as performed by Gradle for an aggregating processor. The generated
+ * files are deleted and the unchanged annotated types are given to the processor as class files.
+ */
+class IncrementalProcessingTest {
+
+  @TempDir
+  Path output;
+
+  @Test
+  void unchangedFactoryReadFromClassFile() throws Exception {
+    final Path generated = output.resolve("generated");
+
+    compile(generated, List.of(), List.of(
+      source("Bar", "public class Bar {}"),
+      source("Foo", "@jakarta.inject.Singleton public class Foo { public Foo(Bar bar) {} }"),
+      source("AppFactory", "@io.avaje.inject.Factory public class AppFactory { @io.avaje.inject.Bean @io.avaje.inject.Primary Bar bar() { return new Bar(); } }")));
+
+    // delete the generated files and recompile the changed source only
+    delete(generated);
+    delete(output.resolve("META-INF"));
+    try (Stream<Path> paths = Files.walk(output.resolve("incremental"))) {
+      paths.filter(path -> path.toString().contains("$DI") || path.toString().endsWith("Module.class"))
+        .map(Path::toFile)
+        .forEach(File::delete);
+    }
+    compile(generated, List.of("incremental.AppFactory"), List.of(
+      source("Foo", "@jakarta.inject.Singleton public class Foo { public Foo(Bar bar) { } }")));
+
+    assertThat(generated.resolve("incremental/AppFactory$DI.java")).exists();
+    assertThat(generated.resolve("incremental/Foo$DI.java")).exists();
+    assertThat(Files.readString(generated.resolve("incremental/IncrementalModule.java")))
+      .contains("AppFactory$DI.build_bar(builder)")
+      .contains("Foo$DI.build(builder)");
+  }
+
+  private void compile(Path generated, List<String> classes, List<JavaFileObject> sources) throws IOException {
+    final List<String> options = List.of("-classpath", System.getProperty("java.class.path") + File.pathSeparator + output);
+    TestCompiler.compile(output, generated, options, classes, sources);
+  }
+
+  private static JavaFileObject source(String name, String body) {
+    return TestCompiler.source("incremental", name, body);
+  }
+}
@@ -0,0 +1,119 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.TestCompiler.compile;
+import static io.avaje.inject.generator.TestCompiler.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+class LargeModuleTest {
+
+  /** HotSpot does not compile methods larger than this, see -XX:-DontCompileHugeMethods */
+  private static final int HUGE_METHOD_LIMIT = 8_000;
+
+  @TempDir
+  Path output;
+
+  @Test
+  void moduleMethodsUnderHugeMethodLimit() throws Exception {
+    final Map<String, Integer> codeLengths = compileModule(SimpleModuleWriter.CHUNK_SIZE + 100);
+    assertThat(codeLengths).containsKeys("build", "classes", "buildChunk0", "buildChunk1", "classesChunk1");
+    assertThat(codeLengths).doesNotContainKey("buildChunk2");
+    assertThat(codeLengths.values()).allSatisfy(length -> assertThat(length).isLessThan(HUGE_METHOD_LIMIT));
+  }
+
+  /**
+   * A 5,000 bean module, taking a good part of a minute so only run with {@code -DlargeModule=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "largeModule", matches = "true")
+  void largeModuleMethodsUnderHugeMethodLimit() throws Exception {
+    final Map<String, Integer> codeLengths = compileModule(5_000);
+    assertThat(codeLengths).containsKeys("build", "classes", "buildChunk9", "classesChunk9");
+    assertThat(codeLengths).doesNotContainKey("buildChunk10");
+    assertThat(codeLengths.values()).allSatisfy(length -> assertThat(length).isLessThan(HUGE_METHOD_LIMIT));
+  }
+
+  /**
+   * Compile a module of the given number of beans returning the bytecode length of its methods.
+   */
+  private Map<String, Integer> compileModule(int beans) throws IOException {
+    final List<JavaFileObject> sources = new ArrayList<>();
+    for (int i = 0; i < beans; i++) {
+      final String dependency = i == 0 ? "" : "Bean" + (i / 2) + " dependency";
+      sources.add(source("large", "Bean" + i, "@jakarta.inject.Singleton\npublic class Bean" + i + " {\n  public Bean" + i + "(" + dependency + ") {}\n}"));
+    }
+    compile(output, output.resolve("generated"), List.of(), List.of(), sources);
+    return codeLengths(output.resolve("large/LargeModule.class"));
+  }
+
+  /**
+   * Return the bytecode length of each method of the class file.
+   */
+  private static Map<String, Integer> codeLengths(Path classFile) throws IOException {
+    try (var in = new DataInputStream(Files.newInputStream(classFile))) {
+      in.skipBytes(8);
+      final int constantCount = in.readUnsignedShort();
+      final String[] utf8 = new String[constantCount];
+      for (int i = 1; i < constantCount; i++) {
+        final int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1: utf8[i] = in.readUTF(); break;
+          case 7: case 8: case 16: case 19: case 20: in.skipBytes(2); break;
+          case 15: in.skipBytes(3); break;
+          case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: in.skipBytes(4); break;
+          case 5: case 6: in.skipBytes(8); i++; break;
+          default: throw new IllegalStateException("Unexpected constant tag " + tag);
+        }
+      }
+      in.skipBytes(6);
+      in.skipBytes(2 * in.readUnsignedShort());
+      final int fields = in.readUnsignedShort();
+      for (int i = 0; i < fields; i++) {
+        in.skipBytes(6);
+        skipAttributes(in);
+      }
+      final Map<String, Integer> codeLengths = new HashMap<>();
+      final int methods = in.readUnsignedShort();
+      for (int i = 0; i < methods; i++) {
+        in.skipBytes(2);
+        final String name = utf8[in.readUnsignedShort()];
+        in.skipBytes(2);
+        final int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+          final String attribute = utf8[in.readUnsignedShort()];
+          final int length = in.readInt();
+          if ("Code".equals(attribute)) {
+            in.skipBytes(4);
+            codeLengths.put(name, in.readInt());
+            in.skipBytes(length - 8);
+          } else {
+            in.skipBytes(length);
+          }
+        }
+      }
+      return codeLengths;
+    }
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    final int attributes = in.readUnsignedShort();
+    for (int i = 0; i < attributes; i++) {
+      in.skipBytes(2);
+      in.skipBytes(in.readInt());
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package io.avaje.inject.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class MetaDataOrderingTest {
+
+  @Test
+  void ordered_dependenciesFirst() {
+    List<MetaData> beans = List.of(
+      bean("a.C", List.of(), List.of("a.B")),
+      bean("a.B", List.of(), List.of("a.A")),
+      bean("a.A", List.of(), List.of()));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, new ScopeInfo());
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    assertThat(types(ordering.ordered())).containsExactly("a.A", "a.B", "a.C");
+  }
+
+  @Test
+  void ordered_anyWiredWhenNotAllProvidersCanBeWired() {
+    // B provides I but depends on C which depends on I
+    List<MetaData> beans = List.of(
+      bean("a.C", List.of(), List.of("a.I")),
+      bean("a.B", List.of("a.I"), List.of("a.C")),
+      bean("a.D", List.of(), List.of("a.A")),
+      bean("a.A", List.of("a.I"), List.of("a.E")),
+      bean("a.E", List.of(), List.of()));
+
+    MetaDataOrdering ordering = new MetaDataOrdering(beans, new ScopeInfo());
+    assertThat(ordering.processQueue()).isEqualTo(0);
+    assertThat(types(ordering.ordered())).containsExactly("a.E", "a.A", "a.D", "a.C", "a.B");
+  }
+
+  @Test
+  void ordered_sameAsRescanningQueue() {
+    Random random = new Random(42);
+    for (int run = 0; run < 200; run++) {
+      List<Spec> specs = randomSpecs(random, 1 + random.nextInt(60));
+
+      MetaDataOrdering ordering = new MetaDataOrdering(create(specs), new ScopeInfo());
+      assertThat(ordering.processQueue()).isEqualTo(0);
+      assertThat(types(ordering.ordered())).isEqualTo(types(rescanOrder(create(specs))));
+    }
+  }
+
+  /**
+   * Beans queued in reverse order of their dependencies such that each scan of the queue
+   * would only wire one bean.
+   */
+  @Test
+  void ordered_largeModule() {
+    for (int beans : new int[]{1_000, 5_000, 20_000}) {
+      List<MetaData> metaData = new ArrayList<>(beans);
+      for (int i = 0; i < beans; i++) {
+        List<String> dependsOn = i == beans - 1 ? List.of() : List.of("large.Bean" + (i + 1), "large.Service" + ((i + 1) % 10));
+        metaData.add(bean("large.Bean" + i, List.of("large.Service" + (i % 10)), dependsOn));
+      }
+      MetaDataOrdering ordering = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+        MetaDataOrdering result = new MetaDataOrdering(metaData, new ScopeInfo());
+        assertThat(result.processQueue()).isEqualTo(0);
+        return result;
+      });
+      List<MetaData> ordered = ordering.ordered();
+      assertThat(ordered).hasSize(beans);
+      assertThat(ordered.get(0).type()).isEqualTo("large.Bean" + (beans - 1));
+      assertThat(ordered.get(beans - 1).type()).isEqualTo("large.Bean0");
+    }
+  }
+
+  private static MetaData bean(String type, List<String> provides, List<String> dependsOn) {
+    MetaData metaData = new MetaData(type, null);
+    metaData.setProvides(provides);
+    metaData.setDependsOn(dependsOn);
+    return metaData;
+  }
+
+  private static List<String> types(List<MetaData> metaData) {
+    return metaData.stream().map(MetaData::type).collect(Collectors.toList());
+  }
+
+  private static final class Spec {
+
+    final String type;
+    final List<String> provides = new ArrayList<>();
+    final List<String> dependsOn = new ArrayList<>();
+
+    Spec(String type) {
+      this.type = type;
+    }
+  }
+
+  /**
+   * Beans that only depend on types provided by a bean created before it, queued in random order.
+   */
+  private static List<Spec> randomSpecs(Random random, int beans) {
+    List<Spec> specs = new ArrayList<>();
+    Map<String, Integer> firstProvider = new HashMap<>();
+    for (int i = 0; i < beans; i++) {
+      Spec spec = new Spec("r.Bean" + i);
+      for (String available : firstProvider.keySet()) {
+        if (random.nextInt(8) == 0) {
+          spec.dependsOn.add(available);
+        }
+      }
+      if (random.nextBoolean()) {
+        String provides = "r.Service" + random.nextInt(5);
+        spec.provides.add(provides);
+        firstProvider.putIfAbsent(provides, i);
+      }
+      firstProvider.put(spec.type, i);
+      specs.add(spec);
+    }
+    Collections.shuffle(specs, random);
+    return specs;
+  }
+
+  private static List<MetaData> create(List<Spec> specs) {
+    List<MetaData> metaData = new ArrayList<>();
+    for (Spec spec : specs) {
+      metaData.add(bean(spec.type, spec.provides, spec.dependsOn));
+    }
+    return metaData;
+  }
+
+  /**
+   * The ordering by repeatedly scanning the queue, wiring beans whose providers are all wired
+   * and then beans with any provider wired.
+   */
+  private static List<MetaData> rescanOrder(List<MetaData> values) {
+    Map<String, Set<MetaData>> providers = new HashMap<>();
+    List<MetaData> ordered = new ArrayList<>();
+    List<MetaData> queue = new ArrayList<>();
+    Set<MetaData> wired = new HashSet<>();
+    for (MetaData metaData : values) {
+      if (metaData.noDepends()) {
+        ordered.add(metaData);
+        wired.add(metaData);
+      } else {
+        queue.add(metaData);
+      }
+      providers.computeIfAbsent(metaData.type(), k -> new HashSet<>()).add(metaData);
+      for (String provide : metaData.provides()) {
+        providers.computeIfAbsent(provide, k -> new HashSet<>()).add(metaData);
+      }
+    }
+    for (boolean anyWired : new boolean[]{false, true}) {
+      boolean changed;
+      do {
+        changed = false;
+        Iterator<MetaData> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+          MetaData queued = iterator.next();
+          boolean ready = queued.dependsOn().stream()
+            .map(dependency -> providers.get(dependency.name()))
+            .allMatch(list -> anyWired ? list.stream().anyMatch(wired::contains) : wired.containsAll(list));
+          if (ready) {
+            ordered.add(queued);
+            wired.add(queued);
+            iterator.remove();
+            changed = true;
+          }
+        }
+      } while (changed);
+    }
+    return ordered;
+  }
+}
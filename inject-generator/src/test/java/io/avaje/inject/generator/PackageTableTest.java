@@ -0,0 +1,141 @@
+package io.avaje.inject.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.spi.AvajeModule;
+
+class PackageTableTest {
+
+  private static final String[] PACKAGES = {"a", "b"};
+  private static final int BEANS = 100;
+  private static final int STARTS = 5;
+
+  @TempDir
+  Path output;
+
+  @Test
+  void tablePerPackage() throws Exception {
+    final Path tables = compile("tables", List.of("-ApackageTables=true"));
+
+    assertThat(tables.resolve("tables/a/Bean0$DI.java")).doesNotExist();
+    assertThat(tables.resolve("tables/a/AFactory$DI.java")).doesNotExist();
+    assertThat(Files.readString(tables.resolve("tables/a/TablesModule$Table.java")))
+      .contains("public static final Type TYPE_RepoString =")
+      .contains("private static final Type[] TYPES_Bean1 = {Bean1.class};")
+      .contains("private static final Type[] TYPES_AFactory$widget = {Widget.class};")
+      .contains("public static void Bean1$build(Builder builder) {")
+      .contains("if (builder.isBeanAbsent(TYPES_Bean1)) {")
+      .contains("var bean = new Bean1(builder.get(Bean0.class,\"!dependency\"));")
+      .contains("public static void AFactory$build_widget(Builder builder) {")
+      .contains("if (builder.isBeanAbsent(\"blue\", TYPES_AFactory$blueWidget)) {");
+    assertThat(Files.readString(tables.resolve("tables/TablesModule.java")))
+      .contains("tables.a.TablesModule$Table.Bean1$build(builder);")
+      .contains("tables.b.TablesModule$Table.BFactory$build_widget(builder);");
+  }
+
+  /**
+   * Compare building the module with a $DI class per bean and with a table per package.
+   */
+  @Test
+  void startupComparedWithPerBeanClasses() throws Exception {
+    final Startup perBean = startup(compile("classes", List.of()));
+    final Startup tables = startup(compile("tables", List.of("-ApackageTables=true")));
+    System.out.printf("Building %s beans with a $DI class per bean loaded %s classes in %.3f millis, with package tables %s classes in %.3f millis%n",
+      perBean.beans, perBean.classes, perBean.millis, tables.classes, tables.millis);
+
+    assertThat(tables.beans).isEqualTo(perBean.beans);
+    // one table per package rather than a $DI class per bean
+    assertThat(perBean.classes - tables.classes).isEqualTo(PACKAGES.length * (BEANS + 3) - PACKAGES.length);
+  }
+
+  private Startup startup(Path classes) throws Exception {
+    final String moduleType = Files.readAllLines(classes.resolve(Constants.META_INF_SPI)).stream()
+      .filter(type -> type.startsWith("tables."))
+      .findFirst()
+      .orElseThrow();
+    final Startup startup = new Startup();
+    startup.millis = Double.MAX_VALUE;
+    for (int i = 0; i < STARTS; i++) {
+      try (var loader = new CountingClassLoader(classes)) {
+        final long start = System.nanoTime();
+        final var module = (AvajeModule) loader.loadClass(moduleType).getConstructor().newInstance();
+        try (BeanScope scope = BeanScope.builder().modules(module).build()) {
+          startup.millis = Math.min(startup.millis, (System.nanoTime() - start) / 1_000_000d);
+          startup.beans = scope.all().size();
+          assertThat(scope.list(loader.loadClass("tables.a.Widget"))).hasSize(2);
+        }
+        startup.classes = loader.loaded;
+      }
+    }
+    return startup;
+  }
+
+  private Path compile(String name, List<String> options) throws IOException {
+    final Path classes = output.resolve(name);
+    final List<JavaFileObject> sources = new ArrayList<>();
+    for (String pkg : PACKAGES) {
+      for (int i = 0; i < BEANS; i++) {
+        final String dependency = i == 0 ? "" : "Bean" + (i - 1) + " dependency";
+        sources.add(source(pkg, "Bean" + i, "@jakarta.inject.Singleton public class Bean" + i + " { Bean" + i + "(" + dependency + ") {} }"));
+      }
+      sources.add(source(pkg, "Repo", "public interface Repo<T> {}"));
+      sources.add(source(pkg, "Widget", "public class Widget {}"));
+      sources.add(source(pkg, "StringRepo", "@jakarta.inject.Singleton public class StringRepo implements Repo<String> {}"));
+      sources.add(source(pkg, "UsesRepo", "@jakarta.inject.Singleton public class UsesRepo {\n"
+        + "  @jakarta.inject.Inject Bean0 bean0;\n"
+        + "  UsesRepo(Repo<String> repo) {}\n"
+        + "  @io.avaje.inject.PostConstruct void init() {}\n"
+        + "}"));
+      final String factory = pkg.toUpperCase() + "Factory";
+      sources.add(source(pkg, factory, "@io.avaje.inject.Factory public class " + factory + " {\n"
+        + "  @io.avaje.inject.Bean Widget widget(Bean" + (BEANS - 1) + " last) { return new Widget(); }\n"
+        + "  @io.avaje.inject.Bean @io.avaje.inject.Secondary @jakarta.inject.Named(\"blue\") Widget blueWidget() { return new Widget(); }\n"
+        + "}"));
+    }
+    TestCompiler.compile(classes, options, sources);
+    return classes;
+  }
+
+  private static JavaFileObject source(String pkg, String name, String body) {
+    return TestCompiler.source("tables." + pkg, name, body);
+  }
+
+  private static final class Startup {
+    int beans;
+    int classes;
+    double millis;
+  }
+
+  /**
+   * Loads the compiled classes counting those loaded.
+   */
+  private static final class CountingClassLoader extends URLClassLoader {
+
+    private int loaded;
+
+    CountingClassLoader(Path classes) throws IOException {
+      super(new URL[]{classes.toUri().toURL()}, PackageTableTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      final Class<?> type = super.findClass(name);
+      loaded++;
+      return type;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.TestCompiler.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcessingTimerTest {
+
+  private static final int BEANS = 20;
+
+  @TempDir
+  Path output;
+
+  @Test
+  void reportWrittenWhenEnabled() throws Exception {
+    compile(List.of("-AtimingReport=true"));
+
+    final List<String> report = Files.readAllLines(output.resolve(ProcessingTimer.REPORT_FILE));
+    assertThat(report).contains(
+      "Round|Millis|Root Elements|Beans Read",
+      "Phase|Millis|Calls",
+      "BEANS_READ|" + BEANS,
+      "BEANS_WRITTEN|" + BEANS,
+      "Type Cache|Lookups|Hits",
+      "Bean|Read Millis|Write Millis");
+    assertThat(report).anyMatch(line -> line.matches("1\\|[0-9.]+\\|" + BEANS + "\\|" + BEANS));
+    assertThat(report).anyMatch(line -> line.matches("WRITE_MODULE\\|[0-9.]+\\|1"));
+    assertThat(report).anyMatch(line -> line.matches("ELEMENTS_VISITED\\|[1-9][0-9]*"));
+    assertThat(report).anyMatch(line -> line.matches("timed\\.Bean7\\|[0-9.]+\\|[0-9.]+"));
+  }
+
+  @Test
+  void reportWrittenWhenCompileFails() throws Exception {
+    final String messages = TestCompiler.compileFails(output, List.of("-AtimingReport=true"), List.of(
+      source("failed", "Service", "@jakarta.inject.Singleton @io.avaje.inject.BeanTypes(Runnable.class) public class Service {}")));
+
+    // raised in the first round such that the last round sees errorRaised()
+    assertThat(messages).contains("failed.Service does not extend type [java.lang.Runnable]");
+    assertThat(Files.readAllLines(output.resolve(ProcessingTimer.REPORT_FILE)))
+      .contains("Round|Millis|Root Elements|Beans Read", "BEANS_READ|1");
+  }
+
+  @Test
+  void noReportByDefault() throws Exception {
+    compile(List.of());
+
+    assertThat(output.resolve(ProcessingTimer.REPORT_FILE)).doesNotExist();
+  }
+
+  private void compile(List<String> options) throws IOException {
+    final List<JavaFileObject> sources = new ArrayList<>();
+    for (int i = 0; i < BEANS; i++) {
+      final String dependency = i == 0 ? "" : "Bean" + (i - 1) + " dependency";
+      sources.add(source("timed", "Bean" + i, "@jakarta.inject.Singleton public class Bean" + i + " { public Bean" + i + "(" + dependency + ") {} }"));
+    }
+    TestCompiler.compile(output, options, sources);
+  }
+}
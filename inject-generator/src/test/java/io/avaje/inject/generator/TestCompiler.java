@@ -0,0 +1,97 @@
+package io.avaje.inject.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles in memory sources with the {@link InjectProcessor} for the generator tests.
+ */
+final class TestCompiler {
+
+  private TestCompiler() {
+  }
+
+  /**
+   * Return the source of a type in the given package.
+   */
+  static JavaFileObject source(String pkg, String name, String body) {
+    return source(pkg.replace('.', '/') + "/" + name, "package " + pkg + ";\n" + body + "\n");
+  }
+
+  /**
+   * Return the source with the given path relative to the source root, without the extension.
+   */
+  static JavaFileObject source(String path, String code) {
+    return new SimpleJavaFileObject(URI.create("string:///" + path + ".java"), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+
+  /**
+   * Compile the sources writing the classes and the generated sources to the output directory.
+   */
+  static void compile(Path output, List<String> options, List<JavaFileObject> sources) throws IOException {
+    compile(output, output, options, List.of(), sources);
+  }
+
+  /**
+   * Compile the sources and process the given compiled classes asserting that compilation succeeds.
+   */
+  static void compile(Path classes, Path generated, List<String> options, List<String> classNames, List<JavaFileObject> sources) throws IOException {
+    final StringWriter messages = new StringWriter();
+    assertThat(call(classes, generated, options, classNames, sources, messages)).as(messages.toString()).isTrue();
+  }
+
+  /**
+   * Compile the sources asserting that compilation fails, returning the compiler messages.
+   */
+  static String compileFails(Path output, List<String> options, List<JavaFileObject> sources) throws IOException {
+    final StringWriter messages = new StringWriter();
+    assertThat(call(output, output, options, List.of(), sources, messages)).as(messages.toString()).isFalse();
+    return messages.toString();
+  }
+
+  private static boolean call(Path classes, Path generated, List<String> options, List<String> classNames,
+                              List<JavaFileObject> sources, StringWriter messages) throws IOException {
+    Files.createDirectories(generated);
+    final List<String> compilerOptions = new ArrayList<>(options);
+    compilerOptions.addAll(List.of(
+      "--release=" + Integer.getInteger("java.specification.version"),
+      "-d", classes.toString(),
+      "-s", generated.toString()));
+
+    final var task = ToolProvider.getSystemJavaCompiler()
+      .getTask(new PrintWriter(messages), null, null, compilerOptions, classNames, sources);
+    task.setProcessors(List.of(new InjectProcessor()));
+    return task.call();
+  }
+
+  /**
+   * Delete the directory and its contents if it exists.
+   */
+  static void delete(Path path) throws IOException {
+    if (Files.exists(path)) {
+      try (Stream<Path> paths = Files.walk(path)) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package io.avaje.inject.generator;
+
+import static io.avaje.inject.generator.TestCompiler.compile;
+import static io.avaje.inject.generator.TestCompiler.source;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TypeCacheTest {
+
+  private static final int BEANS = 500;
+  private static final int DEPTH = 10;
+
+  @TempDir
+  Path output;
+
+  /**
+   * Beans extending the same deep hierarchy of base types with generic interfaces.
+   */
+  @Test
+  void sharedHierarchyReadOnce() throws Exception {
+    final Path generated = output.resolve("generated");
+
+    final List<JavaFileObject> sources = new ArrayList<>();
+    for (int i = 0; i < DEPTH; i++) {
+      final String parent = i == 0 ? "" : " extends Base" + (i - 1) + "<T>";
+      final String superInterface = i == 0 ? "" : " extends Layer" + (i - 1) + "<T>";
+      sources.add(source("shared", "Layer" + i, "public interface Layer" + i + "<T>" + superInterface + " {}"));
+      sources.add(source("shared", "Base" + i, "public abstract class Base" + i + "<T>" + parent + " implements Layer" + i + "<T> {}"));
+    }
+    for (int i = 0; i < BEANS; i++) {
+      sources.add(source("shared", "Bean" + i, "@jakarta.inject.Singleton public class Bean" + i + " extends Base" + (DEPTH - 1) + "<String> {}"));
+    }
+
+    compile(output, generated, List.of(), List.of(), sources);
+
+    // each base type and interface is parsed once rather than once per bean
+    assertThat(TypeCache.lookups(TypeCache.Kind.SUPERTYPES)).isGreaterThan(BEANS * DEPTH);
+    assertThat(TypeCache.hits(TypeCache.Kind.SUPERTYPES)).isGreaterThan(BEANS * (DEPTH - 1));
+    assertThat(TypeCache.hits(TypeCache.Kind.UTYPE)).isGreaterThan(BEANS * DEPTH);
+    // the superclass chain is walked once as the beans share the same base type
+    assertThat(TypeCache.hits(TypeCache.Kind.SUPERCLASSES)).isGreaterThanOrEqualTo(BEANS - 1);
+
+    assertThat(Files.readString(generated.resolve("shared/Bean7$DI.java")))
+      .contains("GenericType.parameterized(Base9.class, String.class)")
+      .contains("Base0.class, Layer9.class")
+      .contains("Layer0.class))");
+  }
+}
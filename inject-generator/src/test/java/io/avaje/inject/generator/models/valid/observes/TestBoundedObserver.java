@@ -0,0 +1,11 @@
+package io.avaje.inject.generator.models.valid.observes;
+
+import io.avaje.inject.events.ObservesAsync;
+import io.avaje.inject.events.OverflowPolicy;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class TestBoundedObserver {
+
+  void observe(@ObservesAsync(capacity = 64, partitions = 4, overflow = OverflowPolicy.DROP_OLDEST) CustomEvent e) {}
+}
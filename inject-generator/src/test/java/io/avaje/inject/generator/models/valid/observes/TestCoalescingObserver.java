@@ -0,0 +1,13 @@
+package io.avaje.inject.generator.models.valid.observes;
+
+import io.avaje.inject.events.Observes;
+import io.avaje.inject.events.ObservesAsync;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class TestCoalescingObserver {
+
+  void observe(@Observes(coalesceMillis = 50) CustomEvent e) {}
+
+  void observeAsync(@ObservesAsync(coalesceMillis = 20, capacity = 16) CustomEvent e) {}
+}
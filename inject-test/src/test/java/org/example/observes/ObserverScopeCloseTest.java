@@ -0,0 +1,21 @@
+package org.example.observes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.avaje.inject.BeanScope;
+import io.avaje.inject.events.ObserverManager;
+
+class ObserverScopeCloseTest {
+
+  @Test
+  void observersUnregisteredOnClose() {
+    ObserverManager manager;
+    try (var scope = BeanScope.builder().build()) {
+      manager = scope.get(ObserverManager.class);
+      assertThat(manager.observersByType(CustomEvent.class)).isNotEmpty();
+    }
+    assertThat(manager.observersByType(CustomEvent.class)).isEmpty();
+  }
+}
@@ -52,7 +52,7 @@ import java.lang.annotation.Target;
  * }</pre>
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface AssistFactory {
 
   /** Specify the factory interface for which the implementation will be generated. */
@@ -2,7 +2,7 @@ package io.avaje.inject;
 
 import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.ElementType.PARAMETER;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -12,5 +12,5 @@ import java.lang.annotation.Target;
  * provided as parameters to the factory method.
  */
 @Target({FIELD, PARAMETER})
-@Retention(SOURCE)
+@Retention(CLASS)
 public @interface Assisted {}
@@ -38,7 +38,7 @@ import java.lang.annotation.Target;
  * }</pre>
  */
 @Target(ElementType.METHOD)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Bean {
 
   /**
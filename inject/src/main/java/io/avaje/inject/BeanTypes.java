@@ -3,7 +3,7 @@ package io.avaje.inject;
 import java.lang.annotation.*;
 
 /** Limits the types exposed by this bean to the given types. */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target({ElementType.METHOD, ElementType.TYPE})
 public @interface BeanTypes {
 
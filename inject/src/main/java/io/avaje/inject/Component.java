@@ -5,8 +5,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
 
 /**
  * Identify a bean as component with singleton scope that avaje-inject will use.
@@ -64,7 +64,7 @@ public @interface Component {
    *
    * }</pre>
    */
-  @Retention(SOURCE)
+  @Retention(CLASS)
   @Target({TYPE, PACKAGE, MODULE})
   @Repeatable(Imports.class)
   @interface Import {
@@ -81,7 +81,7 @@ public @interface Component {
   /**
    * @see Import
    */
-  @Retention(SOURCE)
+  @Retention(CLASS)
   @Target({TYPE, PACKAGE, MODULE})
   @interface Imports {
     Import[] value();
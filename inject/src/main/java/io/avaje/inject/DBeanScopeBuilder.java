@@ -8,7 +8,9 @@ import java.lang.System.Logger.Level;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -253,13 +255,14 @@ final class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
       propertyPlugin = serviceLoader.propertyPlugin().orElseGet(this::defaultPropertyPlugin);
     }
 
-    serviceLoader.plugins().forEach(plugin -> plugin.apply(this));
+    final var modules = includeModules.isEmpty() ? serviceLoader.modules() : List.copyOf(includeModules);
+    final var requiresAspects = requiresAspects(modules);
+    serviceLoader.plugins().forEach(plugin -> plugin.apply(this, requiresAspects));
 
     // sort factories by dependsOn
     ModuleOrdering factoryOrder = new FactoryOrder(parent, includeModules, !suppliedBeans.isEmpty());
 
     if (includeModules.isEmpty()) {
-      var modules = serviceLoader.modules();
       // prefer generated ModuleOrdering if provided
       factoryOrder = serviceLoader.moduleOrdering()
         .filter(o -> o.supportsExpected(modules))
@@ -297,6 +300,14 @@ final class DBeanScopeBuilder implements BeanScopeBuilder.ForTesting {
     return builder.build(shutdownHook, start);
   }
 
+  private static Set<String> requiresAspects(List<AvajeModule> modules) {
+    final Set<String> aspects = new HashSet<>();
+    for (final AvajeModule module : modules) {
+      Collections.addAll(aspects, module.requiresAspects());
+    }
+    return aspects;
+  }
+
   /** Return the type that we map the supplied bean to. */
   private static Class<?> superOf(Class<?> suppliedClass) {
     final Class<?> suppliedSuper = suppliedClass.getSuperclass();
@@ -3,7 +3,7 @@ package io.avaje.inject;
 import static java.lang.annotation.ElementType.MODULE;
 import static java.lang.annotation.ElementType.PACKAGE;
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -42,7 +42,7 @@ import java.lang.annotation.Target;
  *
  * }</pre>
  */
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target({TYPE, PACKAGE, MODULE})
 public @interface InjectModule {
 
@@ -14,6 +14,6 @@ import java.lang.annotation.Target;
  * <p>If the annotated class or factory method is an interface or has an additional no-args
  * constructor, a generated proxy bean will be wired for ultimate laziness.
  */
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 @Target({ElementType.METHOD, ElementType.TYPE})
 public @interface Lazy {}
@@ -3,7 +3,7 @@ package io.avaje.inject;
 import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -34,7 +34,7 @@ import java.lang.annotation.Target;
  * <p>If no ConfigPropertyPlugin is found then the default implementation is used which uses
  * {@link System#getProperty(String)} and {@link System#getenv(String)}.
  */
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target({TYPE, METHOD, ANNOTATION_TYPE})
 public @interface Profile {
 
@@ -2,7 +2,7 @@ package io.avaje.inject;
 
 import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.ElementType.PARAMETER;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
@@ -25,6 +25,6 @@ import java.lang.annotation.Target;
  * }</pre>
  */
 @Target({PARAMETER, FIELD})
-@Retention(SOURCE)
+@Retention(CLASS)
 public @interface QualifiedMap {
 }
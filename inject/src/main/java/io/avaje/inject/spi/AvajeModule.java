@@ -42,6 +42,11 @@ public interface AvajeModule extends InjectExtension {
     return EMPTY_STRINGS;
   }
 
+  /** Return the type names of the aspects this module uses that are provided by plugins. */
+  default String[] requiresAspects() {
+    return EMPTY_STRINGS;
+  }
+
   /** Marker for custom scoped modules. */
   interface Custom extends AvajeModule {}
 }
@@ -0,0 +1,88 @@
+package io.avaje.inject.spi;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * ParameterizedType created without reflection for {@link GenericType#parameterized(Class, Type...)}.
+ * <p>
+ * Instances are equal to, have the same hash code and type name as the ParameterizedType of the
+ * JDK. They are not interned, as a static map of them would hold on to the classes of the type
+ * arguments and so to their class loaders.
+ */
+final class DParameterizedType implements ParameterizedType {
+
+  private final Class<?> rawType;
+  private final Type[] typeArguments;
+  private final Type ownerType;
+  private final int hashCode;
+
+  private DParameterizedType(Class<?> rawType, Type[] typeArguments) {
+    this.rawType = rawType;
+    this.typeArguments = typeArguments;
+    this.ownerType = rawType.getDeclaringClass();
+    this.hashCode = Arrays.hashCode(typeArguments) ^ Objects.hashCode(ownerType) ^ rawType.hashCode();
+  }
+
+  static ParameterizedType of(Class<?> rawType, Type... typeArguments) {
+    final int expected = rawType.getTypeParameters().length;
+    if (typeArguments.length != expected) {
+      throw new IllegalArgumentException(rawType.getName() + " has " + expected + " type parameters but given " + typeArguments.length);
+    }
+    for (final Type typeArgument : typeArguments) {
+      Objects.requireNonNull(typeArgument, "typeArgument");
+    }
+    return new DParameterizedType(rawType, typeArguments.clone());
+  }
+
+  @Override
+  public Type[] getActualTypeArguments() {
+    return typeArguments.clone();
+  }
+
+  @Override
+  public Type getRawType() {
+    return rawType;
+  }
+
+  @Override
+  public Type getOwnerType() {
+    return ownerType;
+  }
+
+  @Override
+  public String getTypeName() {
+    final var joiner = new StringJoiner(", ", rawType.getName() + "<", ">");
+    for (final Type typeArgument : typeArguments) {
+      joiner.add(typeArgument.getTypeName());
+    }
+    return joiner.toString();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ParameterizedType)) {
+      return false;
+    }
+    final ParameterizedType other = (ParameterizedType) obj;
+    return rawType.equals(other.getRawType())
+      && Objects.equals(ownerType, other.getOwnerType())
+      && Arrays.equals(typeArguments, other.getActualTypeArguments());
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return getTypeName();
+  }
+}
@@ -1,11 +1,15 @@
 package io.avaje.inject.spi;
 
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 
 /**
  * Represents a full type including generic declarations, to avoid information loss due to type erasure.
  * <p>
  * This is a cut down version of Helidon GenericType under the Apache 2 license.
+ * <p>
+ * Parameterized types can also be created via {@link #parameterized(Class, Type...)} which does
+ * not require an anonymous subclass and is used by generated code.
  *
  * @param <T> the generic type parameter
  */
@@ -20,6 +24,29 @@ public class GenericType<T> implements Type {
     this.type = GenericTypeUtil.typeArgument(getClass());
   }
 
+  /**
+   * Return the parameterized type of the raw type and type arguments.
+   * <p>
+   * The returned type is equal to the type of the equivalent
+   * {@code new GenericType<...>(){}.type()} but is created without a class per type and without
+   * reflection. Each call returns a new instance, so compare types with {@code equals()} rather
+   * than by identity.
+   *
+   * <pre>{@code
+   *
+   *   // Map<String, List<Long>>
+   *   Type type = GenericType.parameterized(Map.class, String.class, GenericType.parameterized(List.class, Long.class));
+   *
+   * }</pre>
+   *
+   * @param rawType       the generic class
+   * @param typeArguments the type arguments, one per type parameter of the raw type
+   * @throws IllegalArgumentException if the number of type arguments does not match the raw type
+   */
+  public static ParameterizedType parameterized(Class<?> rawType, Type... typeArguments) {
+    return DParameterizedType.of(rawType, typeArguments);
+  }
+
   /**
    * Return the type represented by this generic type instance.
    */
@@ -3,6 +3,7 @@ package io.avaje.inject.spi;
 import io.avaje.inject.BeanScopeBuilder;
 
 import java.lang.reflect.Type;
+import java.util.Set;
 
 /**
  * A Plugin that can be applied when creating a bean scope.
@@ -22,6 +23,18 @@ public interface InjectPlugin extends InjectExtension {
    */
   void apply(BeanScopeBuilder builder);
 
+  /**
+   * Apply the plugin to the scope builder given the aspects used by the modules of the scope.
+   * <p>
+   * Plugins providing aspects can override this to only provide the aspects that are used, see
+   * {@link AvajeModule#requiresAspects()}.
+   *
+   * @param requiresAspects the type names of the aspects used by the modules
+   */
+  default void apply(BeanScopeBuilder builder, Set<String> requiresAspects) {
+    apply(builder);
+  }
+
   /**
    * Return the classes that the plugin provides.
    */
@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -53,6 +55,43 @@ class GenericTypeTest {
     assertThat(pType.getActualTypeArguments()[0]).isEqualTo(String.class);
   }
 
+  @Test
+  void parameterized_equalToReflectedType() {
+    Type expected = new GenericType<Map<String, List<Long>>>() {}.type();
+    Type type = GenericType.parameterized(Map.class, String.class, GenericType.parameterized(List.class, Long.class));
+
+    assertThat(type).isEqualTo(expected);
+    assertThat(expected).isEqualTo(type);
+    assertThat(type.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(type.getTypeName()).isEqualTo(expected.getTypeName());
+  }
+
+  @Test
+  void parameterized_ownerType() {
+    Type expected = new GenericType<Map.Entry<String, Optional<Integer>>>() {}.type();
+    ParameterizedType type = GenericType.parameterized(Map.Entry.class, String.class, GenericType.parameterized(Optional.class, Integer.class));
+
+    assertThat(type.getOwnerType()).isEqualTo(Map.class);
+    assertThat(type).isEqualTo(expected);
+    assertThat(type.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(type.getTypeName()).isEqualTo(expected.getTypeName());
+  }
+
+  @Test
+  void parameterized_equalNotInterned() {
+    Type first = GenericType.parameterized(Set.class, GenericType.parameterized(List.class, String.class));
+    Type second = GenericType.parameterized(Set.class, GenericType.parameterized(List.class, String.class));
+
+    assertThat(first).isEqualTo(second).isNotSameAs(second);
+    assertThat(first.hashCode()).isEqualTo(second.hashCode());
+  }
+
+  @Test
+  void parameterized_wrongNumberOfArguments() {
+    assertThrows(IllegalArgumentException.class, () -> GenericType.parameterized(Map.class, String.class));
+    assertThrows(IllegalArgumentException.class, () -> GenericType.parameterized(String.class, String.class));
+  }
+
   private static class TypeArgs extends GenericType<String> {
 
   }